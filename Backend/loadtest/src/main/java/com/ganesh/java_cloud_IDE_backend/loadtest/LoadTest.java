@@ -0,0 +1,274 @@
+package com.ganesh.java_cloud_IDE_backend.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives a running backend with a mix of REST executions and terminal sessions from many virtual
+ * users, then prints throughput and p50/p99/p99.9 latency per stage, as seen by the client and,
+ * from its Prometheus histograms, by the backend.
+ *
+ * <pre>
+ * --url=http://localhost:8080   backend
+ * --users=50                    concurrent virtual users
+ * --duration=60                 measured seconds, after --warmup=10 unmeasured ones
+ * --mix=hit:50,fresh:20,interactive:20,timeout:10
+ *                               scenario weights: hit reruns a cached program, fresh compiles a
+ *                               new one, interactive runs a terminal session, timeout an endless loop
+ * --echoes=5                    lines echoed per terminal session
+ * --tenants=10                  distinct X-Tenant-Id values the users are spread over
+ * --think-millis=0              pause between a user's requests
+ * --json=target/loadtest.json   also write the results as JSON
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final Pattern EXIT_CODE = Pattern.compile("\"exitCode\"\\s*:\\s*(-?\\d+)");
+    private static final Pattern QUEUE_WAIT = Pattern.compile("\"queueWaitMillis\"\\s*:\\s*(\\d+)");
+    private static final Pattern STDERR = Pattern.compile("\"stderr\"\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final URI base;
+    private final int users;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final Map<String, Integer> mix;
+    private final int echoes;
+    private final int tenants;
+    private final long thinkMillis;
+    private final HttpClient http;
+    private final AtomicLong freshIds = new AtomicLong(System.nanoTime());
+    private volatile Recorder recorder = new Recorder();
+    private ServerStages serverBefore;
+
+    private LoadTest(Map<String, String> options) {
+        this.base = URI.create(options.getOrDefault("url", "http://localhost:8080"));
+        this.users = Integer.parseInt(options.getOrDefault("users", "50"));
+        this.durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        this.warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        this.mix = parseMix(options.getOrDefault("mix", "hit:50,fresh:20,interactive:20,timeout:10"));
+        this.echoes = Integer.parseInt(options.getOrDefault("echoes", "5"));
+        this.tenants = Integer.parseInt(options.getOrDefault("tenants", "10"));
+        this.thinkMillis = Long.parseLong(options.getOrDefault("think-millis", "0"));
+        this.http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Unexpected argument " + arg + "; options look like --users=50");
+                System.exit(2);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        LoadTest test = new LoadTest(options);
+        double seconds = test.run();
+        test.report(seconds, options.get("json"));
+        System.exit(0);
+    }
+
+    private double run() throws InterruptedException {
+        System.out.println("load test: " + users + " users against " + base + ", " + warmupSeconds + "s warmup + "
+                + durationSeconds + "s, mix " + mix);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < users; user++) {
+                String tenant = "load-" + (user % Math.max(1, tenants));
+                executor.submit(() -> user(tenant, end));
+            }
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(measureFrom - System.nanoTime()));
+            recorder = new Recorder(); // Warmup samples are dropped
+            serverBefore = ServerStages.fetch(http, base);
+            System.out.println("warmup done, measuring");
+        }
+        // Includes draining the requests still in flight at the end, whose samples are kept
+        double seconds = (System.nanoTime() - measureFrom) / 1e9;
+        System.out.printf("measured %.1fs (%ds of load, then in-flight requests finishing)%n", seconds, durationSeconds);
+        return seconds;
+    }
+
+    private void user(String tenant, long end) {
+        while (System.nanoTime() < end) {
+            String scenario = pick();
+            try {
+                switch (scenario) {
+                    case "hit" -> rest(tenant, "hit", "LoadHello", Programs.hello(), null);
+                    case "fresh" -> rest(tenant, "fresh", "LoadFresh", Programs.fresh(freshIds.incrementAndGet()), null);
+                    case "timeout" -> rest(tenant, "timeout", "LoadLoop", Programs.loop(), null);
+                    case "interactive" -> terminal(tenant);
+                    default -> throw new IllegalArgumentException("Unknown scenario " + scenario);
+                }
+            } catch (Exception e) {
+                recorder.outcome(scenario, "error: " + e.getClass().getSimpleName());
+            }
+            if (thinkMillis > 0) {
+                try {
+                    Thread.sleep(thinkMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private String pick() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) return entry.getKey();
+        }
+        throw new IllegalStateException();
+    }
+
+    /** One REST execution: total latency, plus the server's queue wait when it reports one. */
+    private void rest(String tenant, String scenario, String className, String source, String input)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/execute/java"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("X-Tenant-Id", tenant)
+                .POST(HttpRequest.BodyPublishers.ofString(Programs.request(className, source, input)))
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        long elapsed = System.nanoTime() - start;
+        Recorder recorder = this.recorder;
+
+        if (response.statusCode() == 429) {
+            recorder.record("rest." + scenario + ".rejected", elapsed);
+            recorder.outcome(scenario, "rejected (429)");
+            return;
+        }
+        if (response.statusCode() != 200) {
+            recorder.outcome(scenario, "http " + response.statusCode());
+            return;
+        }
+        recorder.record("rest." + scenario + ".total", elapsed);
+        Matcher wait = QUEUE_WAIT.matcher(response.body());
+        if (wait.find()) recorder.record("rest." + scenario + ".queue_wait", TimeUnit.MILLISECONDS.toNanos(Long.parseLong(wait.group(1))));
+
+        Matcher exit = EXIT_CODE.matcher(response.body());
+        Matcher stderr = STDERR.matcher(response.body());
+        String error = stderr.find() ? stderr.group(1) : "";
+        boolean timedOut = error.contains("Timed Out");
+        boolean ok = scenario.equals("timeout") ? timedOut : exit.find() && exit.group(1).equals("0");
+        recorder.outcome(scenario, ok ? "ok" : "unexpected: " + (error.isEmpty() ? "exit " + exit.group(1) : abbreviate(error)));
+    }
+
+    /**
+     * One terminal session: connect, run the echo program, echo lines through it, end it. Times
+     * the connect, the run request until the program is running, each line's round trip, and the
+     * exit.
+     */
+    private void terminal(String tenant) throws Exception {
+        Recorder recorder = this.recorder;
+        URI uri = URI.create(base.toString().replaceFirst("^http", "ws")).resolve("/terminal");
+        long start = System.nanoTime();
+        try (TerminalClient client = TerminalClient.connect(http, uri, tenant, Duration.ofSeconds(10))) {
+            long mark = System.nanoTime();
+            recorder.record("terminal.connect", mark - start);
+
+            client.send(Programs.request("LoadEcho", Programs.echo(), null));
+            int at = client.await("Running ", 0, REQUEST_TIMEOUT);
+            long now = System.nanoTime();
+            recorder.record("terminal.start", now - mark);
+
+            for (int i = 0; i < echoes; i++) {
+                String line = "ping-" + i + "-" + ThreadLocalRandom.current().nextInt(1_000_000);
+                mark = System.nanoTime();
+                client.send(line + "\n");
+                at = client.await(line, at, REQUEST_TIMEOUT);
+                recorder.record("terminal.echo", System.nanoTime() - mark);
+            }
+
+            mark = System.nanoTime();
+            client.send("exit\n");
+            client.await("exit code", at, REQUEST_TIMEOUT);
+            now = System.nanoTime();
+            recorder.record("terminal.exit", now - mark);
+            recorder.record("terminal.session", now - start);
+            recorder.outcome("interactive", "ok");
+        }
+    }
+
+    private void report(double seconds, String jsonPath) throws IOException, InterruptedException {
+        List<Recorder.Stat> stats = recorder.stats(seconds);
+        System.out.println();
+        System.out.printf("%-28s %8s %9s %10s %10s %10s %10s%n", "stage", "count", "per sec", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Recorder.Stat stat : stats) {
+            System.out.printf("%-28s %8d %9.1f %10.1f %10.1f %10.1f %10.1f%n", stat.stage(), stat.count(), stat.perSecond(),
+                    stat.p50() / 1000.0, stat.p99() / 1000.0, stat.p999() / 1000.0, stat.max() / 1000.0);
+        }
+        System.out.println();
+        recorder.outcomes().forEach((outcome, count) -> System.out.printf("%-48s %8d%n", outcome, count));
+
+        if (serverBefore != null) {
+            ServerStages after = ServerStages.fetch(http, base);
+            if (after != null) {
+                System.out.println();
+                after.printSince(serverBefore);
+            }
+        }
+        if (jsonPath != null) writeJson(Path.of(jsonPath), seconds, stats);
+    }
+
+    private void writeJson(Path path, double seconds, List<Recorder.Stat> stats) throws IOException {
+        StringBuilder json = new StringBuilder("{\n  \"seconds\": ").append(String.format(Locale.ROOT, "%.1f", seconds))
+                .append(",\n  \"users\": ").append(users).append(",\n  \"stages\": [");
+        for (int i = 0; i < stats.size(); i++) {
+            Recorder.Stat stat = stats.get(i);
+            json.append(i == 0 ? "\n" : ",\n").append(String.format(Locale.ROOT,
+                    "    {\"stage\": \"%s\", \"count\": %d, \"perSecond\": %.2f, \"p50Micros\": %d, \"p99Micros\": %d, \"p999Micros\": %d, \"maxMicros\": %d}",
+                    stat.stage(), stat.count(), stat.perSecond(), stat.p50(), stat.p99(), stat.p999(), stat.max()));
+        }
+        json.append("\n  ],\n  \"outcomes\": {");
+        Iterator<Map.Entry<String, Long>> outcomes = recorder.outcomes().entrySet().iterator();
+        while (outcomes.hasNext()) {
+            Map.Entry<String, Long> outcome = outcomes.next();
+            json.append("\n    \"").append(Programs.escape(outcome.getKey())).append("\": ").append(outcome.getValue())
+                    .append(outcomes.hasNext() ? "," : "\n  ");
+        }
+        json.append("}\n}\n");
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        Files.writeString(path, json);
+        System.out.println("\nresults written to " + path);
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) weights.put(pair[0].trim(), weight);
+        }
+        if (weights.isEmpty()) throw new IllegalArgumentException("--mix needs at least one positive weight");
+        return weights;
+    }
+
+    private static String abbreviate(String text) {
+        String line = text.replace("\\n", " ").strip();
+        return line.length() > 60 ? line.substring(0, 60) + "..." : line;
+    }
+}
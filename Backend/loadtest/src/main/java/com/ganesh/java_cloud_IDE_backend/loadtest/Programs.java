@@ -0,0 +1,93 @@
+package com.ganesh.java_cloud_IDE_backend.loadtest;
+
+/**
+ * Sources the load test submits. Each is a real program, so runs against a real JVM behave the
+ * same as runs against the stand-in java, which picks its behaviour from the class name.
+ */
+final class Programs {
+
+    private Programs() {
+    }
+
+    /** The same source every time: compiled once, then served from the compilation cache. */
+    static String hello() {
+        return """
+                public class LoadHello {
+                    public static void main(String[] args) {
+                        System.out.println("Hello from LoadHello");
+                    }
+                }
+                """;
+    }
+
+    /** A different source on every call, so every run compiles. */
+    static String fresh(long id) {
+        return """
+                public class LoadFresh {
+                    static final long ID = %dL;
+
+                    public static void main(String[] args) {
+                        long sum = 0;
+                        for (int i = 0; i < 1000; i++) sum += i * ID;
+                        System.out.println("Hello from LoadFresh " + sum);
+                    }
+                }
+                """.formatted(id);
+    }
+
+    /** Never exits; the backend kills it at the execution timeout. */
+    static String loop() {
+        return """
+                public class LoadLoop {
+                    public static void main(String[] args) {
+                        while (true) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }
+                """;
+    }
+
+    /** Echoes stdin lines until it reads "exit". */
+    static String echo() {
+        return """
+                import java.util.Scanner;
+
+                public class LoadEcho {
+                    public static void main(String[] args) {
+                        Scanner in = new Scanner(System.in);
+                        while (in.hasNextLine()) {
+                            String line = in.nextLine();
+                            if (line.equals("exit")) return;
+                            System.out.println(line);
+                        }
+                    }
+                }
+                """;
+    }
+
+    /** Execution request body with one file, as the REST API and the terminal take it. */
+    static String request(String className, String source, String input) {
+        return "{\"files\":[{\"path\":\"" + className + ".java\",\"content\":\"" + escape(source) + "\"}]"
+                + (input != null ? ",\"input\":\"" + escape(input) + "\"" : "") + "}";
+    }
+
+    static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\t' -> escaped.append("\\t");
+                default -> {
+                    if (c < 0x20) escaped.append(String.format("\\u%04x", (int) c));
+                    else escaped.append(c);
+                }
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.ganesh.java_cloud_IDE_backend.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies per stage and outcome counts per scenario. Every sample is kept, so percentiles are
+ * exact; a load test run produces at most a few million samples.
+ */
+final class Recorder {
+
+    record Stat(String stage, int count, double perSecond, long p50, long p99, long p999, long max) {
+    }
+
+    private final Map<String, Samples> stages = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> outcomes = new ConcurrentSkipListMap<>();
+
+    void record(String stage, long nanos) {
+        stages.computeIfAbsent(stage, s -> new Samples()).add(nanos);
+    }
+
+    void outcome(String scenario, String outcome) {
+        outcomes.computeIfAbsent(scenario + " " + outcome, k -> new LongAdder()).increment();
+    }
+
+    Map<String, Long> outcomes() {
+        Map<String, Long> counts = new ConcurrentSkipListMap<>();
+        outcomes.forEach((key, count) -> counts.put(key, count.sum()));
+        return counts;
+    }
+
+    /** Percentiles in microseconds; throughput over {@code seconds}. */
+    List<Stat> stats(double seconds) {
+        List<Stat> stats = new ArrayList<>();
+        stages.forEach((stage, samples) -> {
+            long[] sorted = samples.sorted();
+            if (sorted.length == 0) return;
+            stats.add(new Stat(stage, sorted.length, sorted.length / seconds, micros(sorted, 0.50),
+                    micros(sorted, 0.99), micros(sorted, 0.999), sorted[sorted.length - 1] / 1000));
+        });
+        return stats;
+    }
+
+    // Nearest-rank percentile
+    private static long micros(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1000;
+    }
+
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+
+        synchronized void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
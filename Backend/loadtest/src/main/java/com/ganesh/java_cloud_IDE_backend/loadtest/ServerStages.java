@@ -0,0 +1,78 @@
+package com.ganesh.java_cloud_IDE_backend.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The backend's own stage timings, from the histogram buckets it publishes at
+ * {@code /actuator/prometheus}. Two snapshots taken around the measured window give the
+ * percentiles of just that window.
+ */
+final class ServerStages {
+
+    private static final Pattern BUCKET = Pattern.compile(
+            "^(execution_(?:stage|duration|scheduler_wait)_seconds)_bucket\\{(.*)} (\\S+)$");
+    private static final Pattern LE = Pattern.compile("(?:^|,)le=\"([^\"]+)\"");
+
+    // series ("name{labels}" without le) -> upper bound in seconds -> cumulative count
+    private final Map<String, TreeMap<Double, Double>> series;
+
+    private ServerStages(Map<String, TreeMap<Double, Double>> series) {
+        this.series = series;
+    }
+
+    /** Null when the backend does not publish them. */
+    static ServerStages fetch(HttpClient http, URI base) throws InterruptedException {
+        try {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(base.resolve("/actuator/prometheus"))
+                    .timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) return null;
+            Map<String, TreeMap<Double, Double>> series = new TreeMap<>();
+            response.body().lines().forEach(line -> {
+                Matcher bucket = BUCKET.matcher(line);
+                if (!bucket.matches()) return;
+                Matcher le = LE.matcher(bucket.group(2));
+                if (!le.find()) return;
+                String labels = (bucket.group(2).substring(0, le.start()) + bucket.group(2).substring(le.end()))
+                        .replaceAll("^,|,$", "");
+                double bound = le.group(1).equals("+Inf") ? Double.POSITIVE_INFINITY : Double.parseDouble(le.group(1));
+                series.computeIfAbsent(bucket.group(1) + "{" + labels + "}", k -> new TreeMap<>())
+                        .put(bound, Double.parseDouble(bucket.group(3)));
+            });
+            return new ServerStages(series);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Prints count and p50/p99/p99.9 (bucket upper bounds) of what happened since {@code before}. */
+    void printSince(ServerStages before) {
+        System.out.printf("%-60s %8s %10s %10s %10s%n", "server", "count", "p50 ms", "p99 ms", "p99.9 ms");
+        series.forEach((name, buckets) -> {
+            TreeMap<Double, Double> earlier = before != null ? before.series.get(name) : null;
+            TreeMap<Double, Double> window = new TreeMap<>();
+            buckets.forEach((bound, count) -> window.put(bound, count - (earlier != null ? earlier.getOrDefault(bound, 0.0) : 0)));
+            double total = window.lastEntry().getValue();
+            if (total < 1) return;
+            System.out.printf("%-60s %8.0f %10s %10s %10s%n", name, total,
+                    millis(window, total, 0.50), millis(window, total, 0.99), millis(window, total, 0.999));
+        });
+    }
+
+    private static String millis(TreeMap<Double, Double> window, double total, double percentile) {
+        for (Map.Entry<Double, Double> bucket : window.entrySet()) {
+            if (bucket.getValue() >= percentile * total) {
+                return bucket.getKey().isInfinite() ? "inf" : String.format("%.1f", bucket.getKey() * 1000);
+            }
+        }
+        return "inf";
+    }
+}
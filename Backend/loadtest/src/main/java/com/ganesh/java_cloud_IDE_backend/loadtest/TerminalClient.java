@@ -0,0 +1,104 @@
+package com.ganesh.java_cloud_IDE_backend.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One browser terminal on the text protocol: everything the server sends is appended to a
+ * transcript that callers wait on.
+ */
+final class TerminalClient implements WebSocket.Listener, AutoCloseable {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final StringBuilder transcript = new StringBuilder();
+    private boolean closed;
+    private WebSocket socket;
+
+    static TerminalClient connect(HttpClient http, URI uri, String tenant, Duration timeout) throws Exception {
+        TerminalClient client = new TerminalClient();
+        client.socket = http.newWebSocketBuilder()
+                .header("X-Tenant-Id", tenant)
+                .connectTimeout(timeout)
+                .buildAsync(uri, client)
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        return client;
+    }
+
+    void send(String text) {
+        socket.sendText(text, true).join();
+    }
+
+    /**
+     * Waits until {@code text} appears in the transcript after position {@code from}; returns the
+     * position just after it.
+     */
+    int await(String text, int from, Duration timeout) throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        lock.lock();
+        try {
+            while (true) {
+                int at = transcript.indexOf(text, from);
+                if (at >= 0) return at + text.length();
+                if (closed) throw new TimeoutException("connection closed while waiting for " + text.strip());
+                long left = deadline - System.nanoTime();
+                if (left <= 0) throw new TimeoutException("no " + text.strip() + " within " + timeout);
+                changed.awaitNanos(left);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        lock.lock();
+        try {
+            transcript.append(data);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        markClosed();
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        markClosed();
+    }
+
+    private void markClosed() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (socket == null) return;
+        try {
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "").get(1, TimeUnit.SECONDS);
+        } catch (Exception ignored) {
+            // Closing anyway
+        }
+        socket.abort();
+    }
+}
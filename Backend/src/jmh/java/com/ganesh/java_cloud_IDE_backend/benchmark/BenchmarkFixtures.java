@@ -0,0 +1,94 @@
+package com.ganesh.java_cloud_IDE_backend.benchmark;
+
+import com.ganesh.java_cloud_IDE_backend.model.SourceFile;
+import com.ganesh.java_cloud_IDE_backend.service.OptimizedJavaExecutionService;
+import com.ganesh.java_cloud_IDE_backend.service.cache.ArtifactStore;
+import com.ganesh.java_cloud_IDE_backend.service.cache.BlobStore;
+import com.ganesh.java_cloud_IDE_backend.service.cache.CompilationCache;
+import com.ganesh.java_cloud_IDE_backend.service.cache.FailedCompilationCache;
+import com.ganesh.java_cloud_IDE_backend.service.cds.CdsArchives;
+import com.ganesh.java_cloud_IDE_backend.service.compile.ForkedJavacCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.compile.IncrementalCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.compile.InMemoryJavaCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.compile.JavaSourceCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.docker.ContainerPool;
+import com.ganesh.java_cloud_IDE_backend.service.docker.WorkspaceProvisioner;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ExecutionMetrics;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ResourceMonitor;
+import com.ganesh.java_cloud_IDE_backend.service.output.OutputCapture;
+import com.ganesh.java_cloud_IDE_backend.service.runner.WarmRunnerPool;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Projects and wiring shared by the benchmarks. Nothing here touches Docker: the container pool
+ * is never started, and warm runners and CDS are off so only the measured code runs.
+ */
+final class BenchmarkFixtures {
+
+	private BenchmarkFixtures() {
+	}
+
+	/**
+	 * A project of {@code files} classes in a chain (each calls the next), about {@code linesPerFile}
+	 * lines each, with {@code main} in the last one.
+	 */
+	static List<SourceFile> project(int files, int linesPerFile) {
+		List<SourceFile> project = new ArrayList<>();
+		for (int i = 0; i < files; i++) {
+			StringBuilder code = new StringBuilder("package app;\n\npublic class C" + i + " {\n");
+			for (int line = 0; line < linesPerFile; line++) {
+				code.append("    static int f").append(line).append("(int x) { return x * ").append(line + 1).append(" + ").append(i).append("; }\n");
+			}
+			code.append("    static int next(int x) { return ").append(i + 1 < files ? "C" + (i + 1) + ".next(x + 1)" : "x").append("; }\n");
+			if (i == files - 1) {
+				code.append("    public static void main(String[] args) { System.out.println(C0.next(0)); }\n");
+			}
+			code.append("}\n");
+			SourceFile file = new SourceFile();
+			file.setPath("app/C" + i + ".java");
+			file.setContent(code.toString());
+			project.add(file);
+		}
+		return project;
+	}
+
+	static JavaSourceCompiler compiler(String mode) {
+		return mode.equals("forked") ? new ForkedJavacCompiler() : new InMemoryJavaCompiler();
+	}
+
+	static OptimizedJavaExecutionService service(JavaSourceCompiler compiler, Path root) throws IOException {
+		ContainerPool containerPool = new ContainerPool("docker", "java-runner:25", 0, 0, Duration.ofMinutes(2),
+				Duration.ofSeconds(15), root.resolve("workspace"), root.resolve("cds"), "65534:65534");
+		CdsArchives cdsArchives = new CdsArchives(false, false, 0, root.resolve("cds"), containerPool);
+		WarmRunnerPool runnerPool = new WarmRunnerPool(false, 0, 0, "", cdsArchives);
+		CompilationCache compilationCache = new CompilationCache(50, 1L << 30, new ArtifactStore(root.resolve("cache")));
+		FailedCompilationCache failedCompilations = new FailedCompilationCache(30, 1000);
+		ExecutionScheduler scheduler = new ExecutionScheduler(1, 1, 1, 1, 1, Executors.newVirtualThreadPerTaskExecutor());
+		BlobStore blobStore = new BlobStore(1L << 26, Duration.ofHours(1));
+		ExecutionMetrics metrics = new ExecutionMetrics(new SimpleMeterRegistry(), containerPool, runnerPool,
+				compilationCache, failedCompilations, scheduler, blobStore);
+		return new OptimizedJavaExecutionService(new IncrementalCompiler(compiler), compilationCache, failedCompilations,
+				containerPool, runnerPool, cdsArchives, new WorkspaceProvisioner(containerPool, "copy"),
+				new OutputCapture(65536, 16384, 4194304), metrics, blobStore,
+				new ResourceMonitor(true, Duration.ofMillis(50), Path.of("/sys/fs/cgroup")));
+	}
+
+	static void delete(Path dir) throws IOException {
+		if (!Files.exists(dir)) return;
+		try (var stream = Files.walk(dir)) {
+			for (Path p : stream.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(p);
+			}
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.ganesh.java_cloud_IDE_backend.benchmark;
+
+import com.ganesh.java_cloud_IDE_backend.model.SourceFile;
+import com.ganesh.java_cloud_IDE_backend.service.OptimizedJavaExecutionService;
+import com.ganesh.java_cloud_IDE_backend.service.compile.JavaSourceCompiler;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code compileAndCache} on a cache miss, with each compiler. {@code full} compiles a project the
+ * service has never seen; {@code edit} changes one file of the previous build, so only that file
+ * and its dependents are recompiled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompileBenchmark {
+
+	@Param({"in-process", "forked"})
+	String compiler;
+
+	@Param({"full", "edit"})
+	String build;
+
+	@Param({"1", "20"})
+	int files;
+
+	private Path root;
+	private JavaSourceCompiler javac;
+	private OptimizedJavaExecutionService service;
+	private List<SourceFile> project;
+	private long run;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		root = Files.createTempDirectory("bench-compile");
+		javac = BenchmarkFixtures.compiler(compiler);
+		project = BenchmarkFixtures.project(files, 20);
+		service = BenchmarkFixtures.service(javac, root.resolve("trial"));
+		if (build.equals("edit")) {
+			service.compileAndCache(project, hash(0)).close();
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void nextRun() throws Exception {
+		run++;
+		if (build.equals("full")) {
+			// A fresh service forgets every previous build
+			service.cleanup();
+			service = BenchmarkFixtures.service(javac, root.resolve("run-" + run));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		service.cleanup();
+		BenchmarkFixtures.delete(root);
+	}
+
+	@Benchmark
+	public void compileAndCache() throws Exception {
+		List<SourceFile> sources = project;
+		if (build.equals("edit")) {
+			// Same project shape, one changed file
+			sources = new ArrayList<>(project);
+			SourceFile edited = new SourceFile();
+			edited.setPath(project.get(0).getPath());
+			edited.setContent(project.get(0).getContent() + "// edit " + run + "\n");
+			sources.set(0, edited);
+		}
+		service.compileAndCache(sources, hash(run)).close();
+	}
+
+	/** A distinct cache key per run, shaped like a real project hash. */
+	private static String hash(long run) {
+		return String.format("%064x", run);
+	}
+}
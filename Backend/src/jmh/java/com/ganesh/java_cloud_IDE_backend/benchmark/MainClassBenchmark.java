@@ -0,0 +1,56 @@
+package com.ganesh.java_cloud_IDE_backend.benchmark;
+
+import com.ganesh.java_cloud_IDE_backend.service.OptimizedJavaExecutionService;
+import com.ganesh.java_cloud_IDE_backend.service.SourceHasher;
+import com.ganesh.java_cloud_IDE_backend.service.cache.ArtifactMetadata;
+import com.ganesh.java_cloud_IDE_backend.service.cache.CompilationCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Main class lookup on a cached project, which runs once per execution, and the class-file scan
+ * that records the entry points once per compile.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MainClassBenchmark {
+
+	@Param({"1", "20", "200"})
+	int files;
+
+	private Path root;
+	private OptimizedJavaExecutionService service;
+	private CompilationCache.Lease artifact;
+
+	@Setup
+	public void setUp() throws Exception {
+		root = Files.createTempDirectory("bench-main");
+		service = BenchmarkFixtures.service(BenchmarkFixtures.compiler("in-process"), root);
+		var project = BenchmarkFixtures.project(files, 20);
+		artifact = service.compileAndCache(project, SourceHasher.projectHash(project));
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		artifact.close();
+		service.cleanup();
+		BenchmarkFixtures.delete(root);
+	}
+
+	@Benchmark
+	public String mainClass() throws Exception {
+		return service.mainClass(artifact, null);
+	}
+
+	@Benchmark
+	public ArtifactMetadata scanEntryPoints() throws Exception {
+		return ArtifactMetadata.scan(artifact.dir());
+	}
+}
@@ -0,0 +1,42 @@
+package com.ganesh.java_cloud_IDE_backend.benchmark;
+
+import com.ganesh.java_cloud_IDE_backend.service.output.OutputCapture;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Program output capture (head and tail kept, middle counted). Reads from memory rather than a
+ * pipe so the capture itself is measured, not the program writing the output.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutputCaptureBenchmark {
+
+	@Param({"1024", "65536", "4194304"})
+	int outputBytes;
+
+	private OutputCapture capture;
+	private byte[] output;
+
+	@Setup
+	public void setUp() {
+		capture = new OutputCapture(65536, 16384, Long.MAX_VALUE);
+		StringBuilder text = new StringBuilder();
+		for (int line = 0; text.length() < outputBytes; line++) {
+			text.append("line ").append(line).append(": héllo wörld\n");
+		}
+		output = text.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public OutputCapture.Result capture() {
+		return capture.capture(new ByteArrayInputStream(output, 0, outputBytes), null);
+	}
+}
@@ -0,0 +1,37 @@
+package com.ganesh.java_cloud_IDE_backend.benchmark;
+
+import com.ganesh.java_cloud_IDE_backend.model.SourceFile;
+import com.ganesh.java_cloud_IDE_backend.service.SourceHasher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SourceHasher#projectHash(List)}: every file hashed, then the sorted (path, file hash)
+ * pairs. {@code OptimizedJavaExecutionService.resolveSources} does the same work on every request
+ * before the cache lookup, taking the file hashes from the blob store as it stores the contents.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SourceHashBenchmark {
+
+	@Param({"1", "10", "100"})
+	int files;
+
+	private List<SourceFile> project;
+
+	@Setup
+	public void setUp() {
+		project = BenchmarkFixtures.project(files, 50);
+	}
+
+	@Benchmark
+	public String projectHash() {
+		return SourceHasher.projectHash(project);
+	}
+}
@@ -0,0 +1,64 @@
+package com.ganesh.java_cloud_IDE_backend.benchmark;
+
+import com.ganesh.java_cloud_IDE_backend.service.docker.ContainerPool;
+import com.ganesh.java_cloud_IDE_backend.service.docker.WorkspaceProvisioner;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-run workspace setup and teardown for Docker runs: {@code link} hard-links the artifact's
+ * files into the container's workspace, {@code copy} copies them and {@code reflink} clones them
+ * with cp; the workspace is emptied afterwards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WorkspaceBenchmark {
+
+	@Param({"link", "copy", "reflink"})
+	String mode;
+
+	@Param({"10", "100", "1000"})
+	int files;
+
+	private Path root;
+	private Path artifact;
+	private Path containerWorkspace;
+	private WorkspaceProvisioner provisioner;
+
+	@Setup
+	public void setUp() throws Exception {
+		root = Files.createTempDirectory("bench-workspace");
+		ContainerPool containerPool = new ContainerPool("docker", "java-runner:25", 0, 0, Duration.ofMinutes(2),
+				Duration.ofSeconds(15), root.resolve("workspace"), root.resolve("cds"), "65534:65534");
+		provisioner = new WorkspaceProvisioner(containerPool, mode);
+		// Shaped like a cached artifact: class files next to their sources, in the artifact store
+		artifact = Files.createDirectories(root.resolve("cache/objects/ab/abcdef/app"));
+		byte[] classFile = new byte[2048];
+		for (int i = 0; i < files; i++) {
+			Files.write(artifact.resolve("C" + i + ".class"), classFile);
+			Files.writeString(artifact.resolve("C" + i + ".java"), "package app;\npublic class C" + i + " {}\n");
+		}
+		artifact = artifact.getParent();
+		containerWorkspace = Files.createDirectories(root.resolve("workspace/c-bench"));
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		BenchmarkFixtures.delete(root);
+	}
+
+	@Benchmark
+	public String provisionAndRelease() throws Exception {
+		try (WorkspaceProvisioner.Workspace workspace = provisioner.provision(artifact, containerWorkspace)) {
+			return workspace.containerDir();
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.ganesh.java_cloud_IDE_backend.config;
+
+import com.ganesh.java_cloud_IDE_backend.service.compile.ForkedJavacCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.compile.InMemoryJavaCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.compile.JavaSourceCompiler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.tools.ToolProvider;
+import java.time.Duration;
+
+@Configuration
+public class CompilerConfig {
+
+    /**
+     * "in-process" (default) compiles through javax.tools inside this JVM; "forked" runs a javac
+     * process per compile. The forked path is also used when the runtime ships without a compiler.
+     * Either way a compile that takes longer than the timeout is stopped and reported as failed.
+     */
+    @Bean
+    public JavaSourceCompiler javaSourceCompiler(@Value("${execution.compiler.mode:in-process}") String mode,
+                                                 @Value("${execution.compiler.timeout:30s}") Duration timeout) {
+        if ("forked".equalsIgnoreCase(mode) || ToolProvider.getSystemJavaCompiler() == null) {
+            return new ForkedJavacCompiler(timeout);
+        }
+        return new InMemoryJavaCompiler(timeout);
+    }
+}
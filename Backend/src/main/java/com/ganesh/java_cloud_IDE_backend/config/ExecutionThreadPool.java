@@ -9,11 +9,12 @@ import java.util.concurrent.Executors;
 @Configuration
 public class ExecutionThreadPool {
 
-    @Bean
+    /**
+     * Executions mostly block on the program (waitFor, output pipes), so each gets a virtual
+     * thread. How many run at once is decided by the ExecutionScheduler, not by a pool size.
+     */
+    @Bean(destroyMethod = "shutdown")
     public ExecutorService executionExecutor() {
-        int cores = Runtime.getRuntime().availableProcessors();
-        System.out.println("cores"+"="+cores);
-        return Executors.newFixedThreadPool(cores);
+        return Executors.newVirtualThreadPerTaskExecutor();
     }
 }
-
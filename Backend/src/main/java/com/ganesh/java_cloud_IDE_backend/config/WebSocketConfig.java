@@ -1,10 +1,13 @@
 package com.ganesh.java_cloud_IDE_backend.config;
 
 import com.ganesh.java_cloud_IDE_backend.handler.TerminalWebSocketHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
 
 @Configuration
 @EnableWebSocket
@@ -22,5 +25,18 @@ public class WebSocketConfig implements WebSocketConfigurer {
         registry.addHandler(terminalHandler, "/terminal")
                 .setAllowedOrigins("*");
     }
+
+    /**
+     * The container's default 8 KB message buffer closes the session when a run request carries a
+     * larger project; raise it for both the text and the binary protocol.
+     */
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer(
+            @Value("${execution.terminal.max-message-bytes:1048576}") int maxMessageBytes) {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(maxMessageBytes);
+        container.setMaxBinaryMessageBufferSize(maxMessageBytes);
+        return container;
+    }
 }
 
@@ -1,11 +1,28 @@
 package com.ganesh.java_cloud_IDE_backend.controller;
 
+import com.ganesh.java_cloud_IDE_backend.model.BatchRequest;
+import com.ganesh.java_cloud_IDE_backend.model.BatchResponse;
 import com.ganesh.java_cloud_IDE_backend.model.ExecutionRequest;
 import com.ganesh.java_cloud_IDE_backend.model.ExecutionResponse;
+import com.ganesh.java_cloud_IDE_backend.model.SourceFile;
+import com.ganesh.java_cloud_IDE_backend.service.BatchExecutionService;
+import com.ganesh.java_cloud_IDE_backend.service.ExecutionListener;
 import com.ganesh.java_cloud_IDE_backend.service.OptimizedJavaExecutionService;
+import com.ganesh.java_cloud_IDE_backend.service.cache.BlobStore;
+import com.ganesh.java_cloud_IDE_backend.service.cache.MissingBlobsException;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionRejectedException;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionScheduler;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.concurrent.ExecutorService;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -16,20 +33,51 @@ import java.util.concurrent.TimeoutException;
 public class JavaExecutionController {
 
     private final OptimizedJavaExecutionService service;
-    private final ExecutorService executor;
+    private final ExecutionScheduler scheduler;
+    private final BlobStore blobStore;
+    private final BatchExecutionService batchService;
 
 
     public JavaExecutionController(OptimizedJavaExecutionService service,
-                                   ExecutorService executor) {
+                                   ExecutionScheduler scheduler,
+                                   BlobStore blobStore,
+                                   BatchExecutionService batchService) {
         this.service = service;
-        this.executor = executor;
+        this.scheduler = scheduler;
+        this.blobStore = blobStore;
+        this.batchService = batchService;
 
     }
 
+    /**
+     * First step of a delta upload: takes a manifest, a request whose files carry {@code path} and
+     * {@code hash} but no {@code content}, and answers with the hashes the server does not have.
+     */
+    @PostMapping("/blobs/missing")
+    public Map<String, List<String>> missingBlobs(@RequestBody ExecutionRequest manifest) {
+        return Map.of("missing", service.missingBlobs(manifest.getFiles()));
+    }
+
+    /**
+     * Second step: uploads the missing file contents as a JSON array of strings and answers with
+     * their hashes, in the same order. The manifest can then be run through {@code /java}.
+     */
+    @PostMapping("/blobs")
+    public Map<String, List<String>> uploadBlobs(@RequestBody List<String> contents) {
+        return Map.of("hashes", contents.stream().map(blobStore::put).toList());
+    }
+
     @PostMapping("/java")
-    public ExecutionResponse execute(@RequestBody ExecutionRequest request) throws Exception {
-        Future<ExecutionResponse> future =
-                executor.submit(() -> service.execute(request));
+    public ExecutionResponse execute(@RequestBody ExecutionRequest request, HttpServletRequest http) throws Exception {
+        requireBlobs(request.getFiles());
+        Future<ExecutionResponse> future = scheduler.submit(
+                ExecutionScheduler.tenantOf(http.getHeader(ExecutionScheduler.TENANT_HEADER), http.getRemoteAddr()),
+                ExecutionScheduler.Priority.INTERACTIVE, 1,
+                waited -> {
+                    ExecutionResponse response = service.execute(request);
+                    response.setQueueWaitMillis(TimeUnit.NANOSECONDS.toMillis(waited));
+                    return response;
+                });
 
         try {
             return future.get(600, TimeUnit.SECONDS);
@@ -43,4 +91,104 @@ public class JavaExecutionController {
         }
 
     }
+
+    /**
+     * Same as {@link #execute}, but streamed as server-sent events while the program runs:
+     * {@code compile} ({@code status}, {@code diagnostics} on failure), {@code stdout} and
+     * {@code stderr} ({@code text}), and finally {@code exit} ({@code exitCode}, {@code timedOut}).
+     * Event data is JSON so output containing newlines survives SSE framing.
+     */
+    @PostMapping(value = "/java/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> executeStream(@RequestBody ExecutionRequest request, HttpServletRequest http) {
+        requireBlobs(request.getFiles());
+        SseEmitter emitter = new SseEmitter(TimeUnit.SECONDS.toMillis(600));
+        try {
+            scheduler.submit(
+                    ExecutionScheduler.tenantOf(http.getHeader(ExecutionScheduler.TENANT_HEADER), http.getRemoteAddr()),
+                    ExecutionScheduler.Priority.INTERACTIVE, 1,
+                    waited -> {
+                        try {
+                            service.executeStreaming(request, new SseExecutionListener(emitter));
+                            emitter.complete();
+                        } catch (Exception e) {
+                            emitter.completeWithError(e);
+                        }
+                        return null;
+                    });
+        } catch (ExecutionRejectedException e) {
+            // Rejected before the event stream starts, so the client sees a plain 429
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Runs one submission against many stdin cases: compiled once, then the cases run in parallel
+     * as batch work. Results come back in case order, each with its own timings.
+     */
+    @PostMapping("/java/batch")
+    public BatchResponse executeBatch(@RequestBody BatchRequest request, HttpServletRequest http) throws Exception {
+        requireBlobs(request.getFiles());
+        return batchService.execute(request,
+                ExecutionScheduler.tenantOf(http.getHeader(ExecutionScheduler.TENANT_HEADER), http.getRemoteAddr()));
+    }
+
+    @ExceptionHandler(ExecutionRejectedException.class)
+    public ResponseEntity<ExecutionResponse> rejected(ExecutionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ExecutionResponse("", e.getMessage(), 1));
+    }
+
+    /** Answers 409 with the hashes to upload; checked before the request takes a scheduler slot. */
+    @ExceptionHandler(MissingBlobsException.class)
+    public ResponseEntity<Map<String, Object>> blobsMissing(MissingBlobsException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage(), "missing", e.missing()));
+    }
+
+    /** Answers 400 for a malformed request, e.g. a file with neither content nor hash. */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ExecutionResponse> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(new ExecutionResponse("", e.getMessage(), 1));
+    }
+
+    private void requireBlobs(List<SourceFile> files) {
+        List<String> missing = service.missingBlobs(files);
+        if (!missing.isEmpty()) throw new MissingBlobsException(missing);
+    }
+
+    private record SseExecutionListener(SseEmitter emitter) implements ExecutionListener {
+
+        @Override
+        public void compile(String status, String diagnostics) throws IOException {
+            send("compile", diagnostics == null
+                    ? Map.of("status", status)
+                    : Map.of("status", status, "diagnostics", diagnostics));
+        }
+
+        @Override
+        public void stdout(String text) throws IOException {
+            send("stdout", Map.of("text", text));
+        }
+
+        @Override
+        public void stderr(String text) throws IOException {
+            send("stderr", Map.of("text", text));
+        }
+
+        @Override
+        public void exit(int exitCode, boolean timedOut) throws IOException {
+            send("exit", Map.of("exitCode", exitCode, "timedOut", timedOut));
+        }
+
+        private void send(String event, Map<String, ?> data) throws IOException {
+            try {
+                emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            } catch (IllegalStateException e) {
+                // Emitter already completed, e.g. timed out
+                throw new IOException(e);
+            }
+        }
+    }
 }
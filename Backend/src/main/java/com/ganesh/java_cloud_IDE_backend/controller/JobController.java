@@ -0,0 +1,115 @@
+package com.ganesh.java_cloud_IDE_backend.controller;
+
+import com.ganesh.java_cloud_IDE_backend.model.BatchRequest;
+import com.ganesh.java_cloud_IDE_backend.model.ExecutionRequest;
+import com.ganesh.java_cloud_IDE_backend.model.JobResponse;
+import com.ganesh.java_cloud_IDE_backend.model.SourceFile;
+import com.ganesh.java_cloud_IDE_backend.service.OptimizedJavaExecutionService;
+import com.ganesh.java_cloud_IDE_backend.service.cache.MissingBlobsException;
+import com.ganesh.java_cloud_IDE_backend.service.jobs.JobService;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionRejectedException;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionScheduler;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asynchronous executions. Submitting answers 202 with a job ID right away; the result is fetched
+ * from {@code GET /api/jobs/{id}}, or pushed to {@code callbackUrl} when the job finishes.
+ */
+@CrossOrigin("*")
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private static final long MAX_WAIT_SECONDS = 60;
+
+    private final JobService jobs;
+    private final OptimizedJavaExecutionService service;
+
+    public JobController(JobService jobs, OptimizedJavaExecutionService service) {
+        this.jobs = jobs;
+        this.service = service;
+    }
+
+    @PostMapping("/java")
+    public ResponseEntity<JobResponse> submit(@RequestBody ExecutionRequest request,
+                                              @RequestParam(required = false) String callbackUrl,
+                                              HttpServletRequest http) {
+        requireBlobs(request.getFiles());
+        return accepted(jobs.submit(request, tenant(http), callbackUrl));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<JobResponse> submitBatch(@RequestBody BatchRequest request,
+                                                   @RequestParam(required = false) String callbackUrl,
+                                                   HttpServletRequest http) {
+        requireBlobs(request.getFiles());
+        return accepted(jobs.submitBatch(request, tenant(http), callbackUrl));
+    }
+
+    /**
+     * The job's current state. With {@code wait}, holds the response up to that many seconds
+     * (at most 60) until the job finishes, without tying up a request thread meanwhile.
+     */
+    @GetMapping("/{id}")
+    public DeferredResult<ResponseEntity<JobResponse>> status(@PathVariable String id,
+                                                              @RequestParam(defaultValue = "0") long wait) {
+        JobService.Job job = jobs.get(id);
+        if (job == null) {
+            DeferredResult<ResponseEntity<JobResponse>> missing = new DeferredResult<>();
+            missing.setResult(ResponseEntity.notFound().build());
+            return missing;
+        }
+        long waitMillis = Math.clamp(wait, 0, MAX_WAIT_SECONDS) * 1000;
+        if (waitMillis == 0 || job.done().isDone()) {
+            DeferredResult<ResponseEntity<JobResponse>> now = new DeferredResult<>();
+            now.setResult(ResponseEntity.ok(job.view()));
+            return now;
+        }
+        DeferredResult<ResponseEntity<JobResponse>> result = new DeferredResult<>(waitMillis);
+        result.onTimeout(() -> result.setResult(ResponseEntity.ok(job.view())));
+        job.done().whenComplete((ignored, error) -> result.setResult(ResponseEntity.ok(job.view())));
+        return result;
+    }
+
+    @ExceptionHandler(ExecutionRejectedException.class)
+    public ResponseEntity<Map<String, String>> rejected(ExecutionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(MissingBlobsException.class)
+    public ResponseEntity<Map<String, Object>> blobsMissing(MissingBlobsException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", e.getMessage(), "missing", e.missing()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    private static ResponseEntity<JobResponse> accepted(JobService.Job job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/jobs/" + job.id()))
+                .body(job.view());
+    }
+
+    private static String tenant(HttpServletRequest http) {
+        return ExecutionScheduler.tenantOf(http.getHeader(ExecutionScheduler.TENANT_HEADER), http.getRemoteAddr());
+    }
+
+    private void requireBlobs(List<SourceFile> files) {
+        List<String> missing = service.missingBlobs(files);
+        if (!missing.isEmpty()) throw new MissingBlobsException(missing);
+    }
+}
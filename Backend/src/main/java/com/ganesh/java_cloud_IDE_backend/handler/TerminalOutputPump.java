@@ -0,0 +1,283 @@
+package com.ganesh.java_cloud_IDE_backend.handler;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves one run's output to its terminal session.
+ *
+ * <p>A reader thread drains the process into a bounded buffer; a sender thread sends it as frames of
+ * up to {@code frameBytes}, waiting at most {@code flushMillis} after the first unsent byte to
+ * collect more. A tight print loop therefore costs a few large frames instead of one per write, and
+ * a slow browser blocks only the sender. When the buffer is full the {@link SlowConsumerPolicy}
+ * decides what happens to further output.
+ *
+ * <p>Binary sessions get the raw bytes as {@link TerminalProtocol#OUTPUT} frames; text sessions get
+ * them decoded incrementally, so a character split between two frames is not corrupted.
+ */
+public class TerminalOutputPump {
+
+    public enum SlowConsumerPolicy {
+        /** Stop reading, so the program blocks on its next write until the browser catches up. */
+        PAUSE,
+        /** Discard output until there is room again, leaving a marker where it was cut. */
+        DROP,
+        /** Close the session, which kills the program. */
+        DISCONNECT;
+
+        static SlowConsumerPolicy of(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /** Output counters of a session, summed over its runs. */
+    public static final class Counters {
+        final AtomicLong bytesRead = new AtomicLong();
+        final AtomicLong bytesSent = new AtomicLong();
+        final AtomicLong framesSent = new AtomicLong();
+        final AtomicLong bytesDropped = new AtomicLong();
+        final AtomicLong pauses = new AtomicLong();
+
+        public Stats snapshot() {
+            return new Stats(bytesRead.get(), bytesSent.get(), framesSent.get(), bytesDropped.get(), pauses.get());
+        }
+
+        void add(Stats stats) {
+            bytesRead.addAndGet(stats.bytesRead());
+            bytesSent.addAndGet(stats.bytesSent());
+            framesSent.addAndGet(stats.framesSent());
+            bytesDropped.addAndGet(stats.bytesDropped());
+            pauses.addAndGet(stats.pauses());
+        }
+    }
+
+    public record Stats(long bytesRead, long bytesSent, long framesSent, long bytesDropped, long pauses) {
+    }
+
+    // A paused pump whose browser has not taken anything for this long is disconnected
+    private static final long STALL_LIMIT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final WebSocketSession session;
+    private final InputStream output;
+    private final int frameBytes;
+    private final long flushNanos;
+    private final SlowConsumerPolicy policy;
+    private final Counters counters;
+    private final boolean binary;
+    private final Utf8StreamDecoder decoder = new Utf8StreamDecoder();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition readable = lock.newCondition();
+    private final Condition writable = lock.newCondition();
+    private final byte[] pending;
+    private int pendingLength;
+    private long firstPendingNanos;
+    private long droppedSinceMarker;
+    private boolean eof;
+    private boolean closed;
+    private final CountDownLatch done = new CountDownLatch(2);
+
+    TerminalOutputPump(WebSocketSession session, InputStream output, int frameBytes, long flushMillis,
+                       int bufferBytes, SlowConsumerPolicy policy, Counters counters, boolean binary) {
+        this.session = session;
+        this.output = output;
+        this.frameBytes = frameBytes;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        // Room for at least one full read and one frame
+        this.pending = new byte[Math.max(bufferBytes, Math.max(frameBytes, 8192))];
+        this.policy = policy;
+        this.counters = counters;
+        this.binary = binary;
+    }
+
+    void start(ExecutorService threads) {
+        threads.submit(this::readLoop);
+        threads.submit(this::sendLoop);
+    }
+
+    /** Waits until all output has been sent (or given up on). */
+    boolean awaitDone(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    private void readLoop() {
+        byte[] buffer = new byte[8192];
+        try (output) {
+            int n;
+            while ((n = output.read(buffer)) != -1) {
+                counters.bytesRead.addAndGet(n);
+                if (!offer(buffer, n)) break;
+            }
+        } catch (IOException | InterruptedException e) {
+            // Stream closed, or the pump was stopped
+        } finally {
+            lock.lock();
+            try {
+                eof = true;
+                readable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            done.countDown();
+        }
+    }
+
+    /** Queues output for the sender; false when the pump has to stop. */
+    private boolean offer(byte[] bytes, int length) throws InterruptedException {
+        lock.lock();
+        try {
+            if (droppedSinceMarker > 0) {
+                byte[] marker = droppedMarker(droppedSinceMarker);
+                if (pendingLength + marker.length + length <= pending.length) {
+                    append(marker, marker.length);
+                    droppedSinceMarker = 0;
+                } else {
+                    drop(length);
+                    return true;
+                }
+            }
+            if (pendingLength + length > pending.length) {
+                switch (policy) {
+                    case DROP -> {
+                        drop(length);
+                        return true;
+                    }
+                    case DISCONNECT -> {
+                        disconnect("Terminal output buffer overflow");
+                        return false;
+                    }
+                    case PAUSE -> {
+                        counters.pauses.incrementAndGet();
+                        long stalled = System.nanoTime();
+                        while (!closed && pendingLength + length > pending.length) {
+                            long waited = System.nanoTime() - stalled;
+                            if (waited >= STALL_LIMIT_NANOS) {
+                                disconnect("Terminal stopped reading output");
+                                return false;
+                            }
+                            // Any progress by the sender restarts the stall clock
+                            int before = pendingLength;
+                            writable.awaitNanos(STALL_LIMIT_NANOS - waited);
+                            if (pendingLength < before) stalled = System.nanoTime();
+                        }
+                    }
+                }
+            }
+            if (closed) return false;
+            append(bytes, length);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sendLoop() {
+        try {
+            while (true) {
+                byte[] frame;
+                boolean last = false;
+                lock.lock();
+                try {
+                    while (pendingLength == 0 && !eof && !closed) readable.await();
+                    if (closed) return;
+                    if (pendingLength == 0) {
+                        // End of output; say so if the tail was dropped
+                        frame = droppedSinceMarker > 0 ? droppedMarker(droppedSinceMarker) : new byte[0];
+                        droppedSinceMarker = 0;
+                        last = true;
+                    } else {
+                        long wait;
+                        while (!eof && !closed && pendingLength < frameBytes
+                                && (wait = firstPendingNanos + flushNanos - System.nanoTime()) > 0) {
+                            readable.awaitNanos(wait);
+                        }
+                        int length = Math.min(pendingLength, frameBytes);
+                        frame = Arrays.copyOf(pending, length);
+                        System.arraycopy(pending, length, pending, 0, pendingLength - length);
+                        pendingLength -= length;
+                        firstPendingNanos = System.nanoTime();
+                        writable.signalAll();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (!session.isOpen()) {
+                    stop();
+                    return;
+                }
+                send(frame, last);
+                if (last) return;
+            }
+        } catch (IOException | InterruptedException e) {
+            stop();
+        } finally {
+            done.countDown();
+        }
+    }
+
+    private void send(byte[] frame, boolean last) throws IOException {
+        WebSocketMessage<?> message;
+        if (binary) {
+            if (frame.length == 0) return;
+            message = TerminalProtocol.output(frame, 0, frame.length);
+        } else {
+            String text = decoder.decode(frame, 0, frame.length);
+            if (last) text += decoder.finish();
+            if (text.isEmpty()) return;
+            message = new TextMessage(text);
+        }
+        session.sendMessage(message);
+        counters.framesSent.incrementAndGet();
+        counters.bytesSent.addAndGet(frame.length);
+    }
+
+    private void append(byte[] bytes, int length) {
+        if (pendingLength == 0) firstPendingNanos = System.nanoTime();
+        System.arraycopy(bytes, 0, pending, pendingLength, length);
+        pendingLength += length;
+        readable.signalAll();
+    }
+
+    private void drop(int length) {
+        droppedSinceMarker += length;
+        counters.bytesDropped.addAndGet(length);
+    }
+
+    private void disconnect(String reason) {
+        closed = true;
+        readable.signalAll();
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE.withReason(reason));
+        } catch (IOException ignored) {}
+    }
+
+    private void stop() {
+        lock.lock();
+        try {
+            closed = true;
+            readable.signalAll();
+            writable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static byte[] droppedMarker(long bytes) {
+        return ("\r\n\033[1;33m[" + bytes + " bytes of output dropped: terminal too slow]\033[0m\r\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,59 @@
+package com.ganesh.java_cloud_IDE_backend.handler;
+
+import org.springframework.web.socket.BinaryMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary terminal protocol. Every WebSocket binary message is one frame: an opcode byte followed by
+ * its payload, so a keystroke costs one byte of framing and no parsing.
+ *
+ * <pre>
+ * client -> server
+ *   RUN     0x01  execution request as UTF-8 JSON (same shape as the REST body)
+ *   STDIN   0x02  raw bytes for the program's stdin; an empty payload closes stdin
+ *   RESIZE  0x03  columns (u16), rows (u16)
+ *   SIGNAL  0x04  signal number (u8): 2 or 15 stop the program, 9 kills it
+ * server -> client
+ *   OUTPUT  0x10  raw output bytes (program output and status lines), UTF-8
+ *   EXIT    0x11  exit code (s32)
+ * </pre>
+ *
+ * Integers are big-endian. A session switches to this protocol with its first binary message;
+ * sessions that only send text keep the original text protocol. The greeting sent on connect,
+ * before the client has picked a protocol, is always text.
+ */
+final class TerminalProtocol {
+
+    static final byte RUN = 0x01;
+    static final byte STDIN = 0x02;
+    static final byte RESIZE = 0x03;
+    static final byte SIGNAL = 0x04;
+    static final byte OUTPUT = 0x10;
+    static final byte EXIT = 0x11;
+
+    static final int SIGINT = 2;
+    static final int SIGKILL = 9;
+    static final int SIGTERM = 15;
+
+    private TerminalProtocol() {
+    }
+
+    static BinaryMessage output(byte[] bytes, int offset, int length) {
+        ByteBuffer frame = ByteBuffer.allocate(1 + length);
+        frame.put(OUTPUT).put(bytes, offset, length).flip();
+        return new BinaryMessage(frame);
+    }
+
+    static BinaryMessage output(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return output(bytes, 0, bytes.length);
+    }
+
+    static BinaryMessage exit(int exitCode) {
+        ByteBuffer frame = ByteBuffer.allocate(5);
+        frame.put(EXIT).putInt(exitCode).flip();
+        return new BinaryMessage(frame);
+    }
+}
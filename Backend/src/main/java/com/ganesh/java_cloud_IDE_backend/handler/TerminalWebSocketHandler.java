@@ -2,132 +2,291 @@ package com.ganesh.java_cloud_IDE_backend.handler;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ganesh.java_cloud_IDE_backend.model.ExecutionRequest;
+import com.ganesh.java_cloud_IDE_backend.service.cache.CompilationCache;
 import com.ganesh.java_cloud_IDE_backend.service.OptimizedJavaExecutionService;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ExecutionMetrics;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionScheduler;
 import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
 
+/**
+ * Interactive terminal. Speaks two protocols: the original text one (a JSON execution request,
+ * then keystrokes as text, output as text) and the binary one in {@link TerminalProtocol}, which a
+ * session switches to by sending a binary message.
+ */
 @Component
-public class TerminalWebSocketHandler extends TextWebSocketHandler {
+public class TerminalWebSocketHandler extends AbstractWebSocketHandler {
 
     private final OptimizedJavaExecutionService executionService;
+    private final ExecutionScheduler scheduler;
+    private final ExecutionMetrics metrics;
     private final Map<String, Process> activeProcesses = new ConcurrentHashMap<>();
-    private final ExecutorService threadPool = Executors.newCachedThreadPool();
+    // A session only holds threads while its program runs: a supervisor and an output pump, both
+    // virtual. The semaphore bounds how many terminal programs run at once.
+    private final ExecutorService threadPool = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore runSlots;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    // Sessions wrapped for sending from several threads (run supervisor and output pump)
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, TerminalOutputPump.Counters> outputCounters = new ConcurrentHashMap<>();
+    // Output of sessions already closed, so the published totals never go down
+    private final TerminalOutputPump.Counters closedOutput = new TerminalOutputPump.Counters();
+    private final Set<String> binarySessions = ConcurrentHashMap.newKeySet();
+    private final int frameBytes;
+    private final long flushMillis;
+    private final int bufferBytes;
+    private final TerminalOutputPump.SlowConsumerPolicy slowConsumerPolicy;
 
-    public TerminalWebSocketHandler(OptimizedJavaExecutionService executionService) {
+    public TerminalWebSocketHandler(OptimizedJavaExecutionService executionService,
+                                    ExecutionScheduler scheduler,
+                                    ExecutionMetrics metrics,
+                                    @Value("${execution.terminal.max-running:200}") int maxRunning,
+                                    @Value("${execution.terminal.output.frame-bytes:16384}") int frameBytes,
+                                    @Value("${execution.terminal.output.flush-millis:10}") long flushMillis,
+                                    @Value("${execution.terminal.output.buffer-bytes:262144}") int bufferBytes,
+                                    @Value("${execution.terminal.output.slow-consumer:pause}") String slowConsumerPolicy) {
         this.executionService = executionService;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+        this.runSlots = new Semaphore(maxRunning, true);
+        this.frameBytes = frameBytes;
+        this.flushMillis = flushMillis;
+        this.bufferBytes = bufferBytes;
+        this.slowConsumerPolicy = TerminalOutputPump.SlowConsumerPolicy.of(slowConsumerPolicy);
+
+        metrics.gauge("execution.terminal.sessions", "Open terminal sessions", sessions, Map::size);
+        metrics.gauge("execution.terminal.processes", "Terminal programs running", activeProcesses, Map::size);
+        metrics.gauge("execution.terminal.slots.free", "Terminal run slots free", runSlots, Semaphore::availablePermits);
+        metrics.counter("execution.terminal.output.bytes.read", "Program output read", this, h -> h.outputTotals().bytesRead());
+        metrics.counter("execution.terminal.output.bytes.sent", "Program output sent to browsers", this, h -> h.outputTotals().bytesSent());
+        metrics.counter("execution.terminal.output.frames", "Output frames sent to browsers", this, h -> h.outputTotals().framesSent());
+        metrics.counter("execution.terminal.output.bytes.dropped", "Program output dropped for slow browsers", this, h -> h.outputTotals().bytesDropped());
+        metrics.counter("execution.terminal.output.pauses", "Times a program was paused for a slow browser", this, h -> h.outputTotals().pauses());
     }
 
     @Override
-    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+    public void afterConnectionEstablished(WebSocketSession rawSession) throws Exception {
+        // The pump bounds what it queues itself; the decorator's limits only catch a send that hangs
+        WebSocketSession session = new ConcurrentWebSocketSessionDecorator(rawSession, 30_000, 2 * bufferBytes);
+        sessions.put(session.getId(), session);
+        outputCounters.put(session.getId(), new TerminalOutputPump.Counters());
         session.sendMessage(new TextMessage("\r\n\033[1;34mConnected to JavaCloud Terminal\033[0m\r\n"));
     }
 
+    /** Output counters of every open session, by session id. */
+    public Map<String, TerminalOutputPump.Stats> outputStats() {
+        Map<String, TerminalOutputPump.Stats> stats = new HashMap<>();
+        outputCounters.forEach((id, counters) -> stats.put(id, counters.snapshot()));
+        return stats;
+    }
+
+    /** Output counters summed over every session since startup, open or closed. */
+    public TerminalOutputPump.Stats outputTotals() {
+        TerminalOutputPump.Counters totals = new TerminalOutputPump.Counters();
+        totals.add(closedOutput.snapshot());
+        outputCounters.values().forEach(counters -> totals.add(counters.snapshot()));
+        return totals.snapshot();
+    }
+
     @Override
-    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+    protected void handleTextMessage(WebSocketSession rawSession, TextMessage message) throws Exception {
+        WebSocketSession session = sessions.getOrDefault(rawSession.getId(), rawSession);
         String payload = message.getPayload();
 
-        // 1. Check if we are receiving an initial execution request (JSON)
-        if (payload.startsWith("{") && payload.contains("files")) {
-            startExecution(session, payload);
+        // 1. While a program runs, everything is input for it: keystrokes are not scanned for JSON
+        Process process = activeProcesses.get(session.getId());
+        if (process != null && process.isAlive()) {
+            writeInput(process, payload.getBytes(StandardCharsets.UTF_8));
             return;
         }
 
-        // 2. Otherwise, treat payload as user input for a running process
+        // 2. Otherwise, check if we are receiving an execution request (JSON)
+        if (payload.startsWith("{") && payload.contains("files")) {
+            startExecution(session, payload.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession rawSession, BinaryMessage message) throws Exception {
+        WebSocketSession session = sessions.getOrDefault(rawSession.getId(), rawSession);
+        binarySessions.add(session.getId());
+        ByteBuffer frame = message.getPayload();
+        if (!frame.hasRemaining()) return;
+        byte opcode = frame.get();
+        byte[] payload = new byte[frame.remaining()];
+        frame.get(payload);
+
         Process process = activeProcesses.get(session.getId());
-        if (process != null && process.isAlive()) {
-            OutputStream os = process.getOutputStream();
-            os.write(payload.getBytes(StandardCharsets.UTF_8));
-            os.flush(); // Essential for Scanner to receive data immediately
+        switch (opcode) {
+            case TerminalProtocol.RUN -> {
+                if (process != null && process.isAlive()) {
+                    sendErrorMessage(session, "A program is already running");
+                } else {
+                    startExecution(session, payload);
+                }
+            }
+            case TerminalProtocol.STDIN -> {
+                if (process == null || !process.isAlive()) return;
+                if (payload.length == 0) {
+                    process.getOutputStream().close();
+                } else {
+                    writeInput(process, payload);
+                }
+            }
+            case TerminalProtocol.RESIZE -> {
+                // Programs run on pipes, not a pty, so there is nothing to resize yet
+            }
+            case TerminalProtocol.SIGNAL -> {
+                if (process == null || payload.length == 0) return;
+                int signal = payload[0] & 0xFF;
+                if (signal == TerminalProtocol.SIGKILL) {
+                    process.destroyForcibly();
+                } else if (signal == TerminalProtocol.SIGINT || signal == TerminalProtocol.SIGTERM) {
+                    process.destroy();
+                }
+            }
+            default -> session.close(CloseStatus.BAD_DATA.withReason("Unknown opcode " + opcode));
         }
     }
 
-    private void startExecution(WebSocketSession session, String payload) {
+    private static void writeInput(Process process, byte[] input) throws IOException {
+        OutputStream os = process.getOutputStream();
+        os.write(input);
+        os.flush(); // Essential for Scanner to receive data immediately
+    }
+
+    private void startExecution(WebSocketSession session, byte[] payload) {
         threadPool.submit(() -> {
+            CompilationCache.Lease artifact = null;
+            boolean slot = false;
+            long start = System.nanoTime();
             try {
                 ExecutionRequest request = objectMapper.readValue(payload, ExecutionRequest.class);
-                session.sendMessage(new TextMessage("Compiling...\r\n"));
-
-                // Reuse your existing compilation logic
-                // We assume detectMainClass is updated to be robust as discussed previously
-                String codeHash = calculateHash(request.getFiles());
-                Path projectDir = executionService.compileAndCache(request.getFiles(), codeHash);
-                String mainClass = executionService.detectMainClass(projectDir);
-
-                // Start the process
-                ProcessBuilder pb = new ProcessBuilder("java", "-cp", projectDir.toString(), mainClass);
-                pb.directory(projectDir.toFile());
-                pb.redirectErrorStream(true); // Merge stderr into stdout for easier handling
+                if (!runSlots.tryAcquire()) {
+                    sendStatus(session, "Waiting for a free slot...\r\n");
+                    runSlots.acquire();
+                }
+                slot = true;
+                metrics.stage("terminal_slot", start);
+                if (!session.isOpen()) return;
+                sendStatus(session, "Compiling...\r\n");
 
-                Process process = pb.start();
+                // Compile and launch take a scheduler permit like any other run; the program itself
+                // can wait on the user for minutes, so once started it only holds its run slot
+                Launch launch = scheduler.submit(tenantOf(session), ExecutionScheduler.Priority.INTERACTIVE, 1,
+                        waited -> launch(request)).get();
+                artifact = launch.artifact();
+                String mainClass = launch.mainClass();
+                Process process = launch.process();
                 activeProcesses.put(session.getId(), process);
+                long running = System.nanoTime();
 
-                session.sendMessage(new TextMessage("Running " + mainClass + "...\r\n\r\n"));
+                sendStatus(session, "Running " + mainClass + "...\r\n\r\n");
 
-                // Attach listener to process output
-                attachProcessListener(session, process);
+                // Pump process output to the browser in coalesced frames
+                TerminalOutputPump pump = new TerminalOutputPump(session, process.getInputStream(), frameBytes,
+                        flushMillis, bufferBytes, slowConsumerPolicy,
+                        outputCounters.getOrDefault(session.getId(), new TerminalOutputPump.Counters()),
+                        binarySessions.contains(session.getId()));
+                pump.start(threadPool);
 
-                // Wait for process to exit and cleanup
+                // Wait for process to exit and its output to go out, then cleanup
                 int exitCode = process.waitFor();
-                session.sendMessage(new TextMessage("\r\n\033[1;30mProcess finished with exit code " + exitCode + "\033[0m\r\n"));
+                pump.awaitDone(5, TimeUnit.SECONDS);
+                metrics.stage("terminal_program", running);
+                metrics.finished(exitCode == 0 ? "success" : "failure", start);
+                if (binarySessions.contains(session.getId())) {
+                    session.sendMessage(TerminalProtocol.exit(exitCode));
+                } else {
+                    session.sendMessage(new TextMessage("\r\n\033[1;30mProcess finished with exit code " + exitCode + "\033[0m\r\n"));
+                }
                 activeProcesses.remove(session.getId());
 
             } catch (Exception e) {
-                sendErrorMessage(session, e.getMessage());
+                Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                metrics.finished("failure", start);
+                sendErrorMessage(session, cause.getMessage());
+                // Binary clients wait for EXIT to know the run is over
+                if (binarySessions.contains(session.getId())) {
+                    try { session.sendMessage(TerminalProtocol.exit(1)); } catch (IOException ignored) {}
+                }
+            } finally {
+                if (artifact != null) artifact.close();
+                if (slot) runSlots.release();
             }
         });
     }
 
-    private void attachProcessListener(WebSocketSession session, Process process) {
-        threadPool.submit(() -> {
-            try (InputStream is = process.getInputStream()) {
-                byte[] buffer = new byte[1024]; // Corrected: Outside try parentheses
-                int read;
-                while (process.isAlive() && (read = is.read(buffer)) != -1) {
-                    if (session.isOpen()) {
-                        session.sendMessage(new TextMessage(new String(buffer, 0, read, StandardCharsets.UTF_8)));
-                    }
-                }
-            } catch (IOException e) {
-                // Log error
-            }
-        });
+    private Launch launch(ExecutionRequest request) throws Exception {
+        long mark = System.nanoTime();
+        OptimizedJavaExecutionService.Sources sources = executionService.resolveSources(request.getFiles());
+        mark = metrics.stage("hash", mark);
+        CompilationCache.Lease artifact = executionService.getOrCompile(sources.files(), sources.hash());
+        mark = metrics.stage("artifact", mark);
+        try {
+            Path projectDir = artifact.dir();
+            String mainClass = executionService.mainClass(artifact, request.getMainClass());
+            mark = metrics.stage("main_class", mark);
+            // Start the process (a warm runner if one is free); stderr is merged into stdout
+            Process process = executionService.startLocalProcess(projectDir, mainClass, projectDir);
+            metrics.stage("launch", mark);
+            return new Launch(artifact, mainClass, process);
+        } catch (Exception e) {
+            artifact.close();
+            throw e;
+        }
+    }
+
+    private record Launch(CompilationCache.Lease artifact, String mainClass, Process process) {
+    }
+
+    private static String tenantOf(WebSocketSession session) {
+        String remote = session.getRemoteAddress() != null && session.getRemoteAddress().getAddress() != null
+                ? session.getRemoteAddress().getAddress().getHostAddress() : null;
+        return ExecutionScheduler.tenantOf(session.getHandshakeHeaders().getFirst(ExecutionScheduler.TENANT_HEADER), remote);
+    }
+
+    /** Status line in the session's protocol: a text message, or an OUTPUT frame. */
+    private void sendStatus(WebSocketSession session, String text) throws IOException {
+        if (binarySessions.contains(session.getId())) {
+            session.sendMessage(TerminalProtocol.output(text));
+        } else {
+            session.sendMessage(new TextMessage(text));
+        }
     }
 
     private void sendErrorMessage(WebSocketSession session, String error) {
         try {
             if (session.isOpen()) {
-                session.sendMessage(new TextMessage("\r\n\033[1;31mError: " + error + "\033[0m\r\n"));
+                sendStatus(session, "\r\n\033[1;31mError: " + error + "\033[0m\r\n");
             }
         } catch (IOException ignored) {}
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, @NonNull CloseStatus status) {
+        sessions.remove(session.getId());
+        binarySessions.remove(session.getId());
+        // Added to the closed totals before it leaves the map, so outputTotals() never dips
+        TerminalOutputPump.Counters counters = outputCounters.get(session.getId());
+        if (counters != null) closedOutput.add(counters.snapshot());
+        outputCounters.remove(session.getId());
         Process process = activeProcesses.remove(session.getId());
         if (process != null && process.isAlive()) {
             process.destroyForcibly(); // Prevent zombie processes
         }
     }
-
-    // Helper to reuse hash logic from your service
-    private String calculateHash(java.util.List<com.ganesh.java_cloud_IDE_backend.model.SourceFile> files) throws Exception {
-        java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-        files.stream().sorted(java.util.Comparator.comparing(com.ganesh.java_cloud_IDE_backend.model.SourceFile::getPath))
-                .forEach(f -> {
-                    md.update(f.getPath().getBytes());
-                    md.update(f.getContent().getBytes());
-                });
-        StringBuilder hex = new StringBuilder();
-        for (byte b : md.digest()) hex.append(String.format("%02x", b));
-        return hex.toString();
-    }
 }
\ No newline at end of file
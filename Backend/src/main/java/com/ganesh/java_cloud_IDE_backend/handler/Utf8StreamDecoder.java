@@ -0,0 +1,48 @@
+package com.ganesh.java_cloud_IDE_backend.handler;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes UTF-8 that arrives in arbitrary chunks. An incomplete sequence at the end of a chunk is
+ * carried over to the next one instead of turning into replacement characters; genuinely malformed
+ * input still becomes U+FFFD.
+ */
+final class Utf8StreamDecoder {
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    // Start of a code point whose remaining bytes have not arrived yet (at most 3 bytes)
+    private final ByteBuffer carry = ByteBuffer.allocate(4);
+
+    String decode(byte[] bytes, int offset, int length) {
+        ByteBuffer in;
+        if (carry.position() == 0) {
+            in = ByteBuffer.wrap(bytes, offset, length);
+        } else {
+            carry.flip();
+            in = ByteBuffer.allocate(carry.remaining() + length);
+            in.put(carry).put(bytes, offset, length).flip();
+            carry.clear();
+        }
+        CharBuffer out = CharBuffer.allocate(in.remaining() + 1);
+        decoder.decode(in, out, false);
+        carry.put(in);
+        return out.flip().toString();
+    }
+
+    /** Ends the stream: a dangling incomplete sequence becomes U+FFFD. */
+    String finish() {
+        carry.flip();
+        CharBuffer out = CharBuffer.allocate(carry.remaining() + 1);
+        decoder.decode(carry, out, true);
+        decoder.flush(out);
+        carry.clear();
+        decoder.reset();
+        return out.flip().toString();
+    }
+}
@@ -0,0 +1,22 @@
+package com.ganesh.java_cloud_IDE_backend.model;
+
+public class BatchCase {
+    private String input;
+    private String expectedOutput;
+
+    public String getInput() {
+        return input;
+    }
+
+    public void setInput(String input) {
+        this.input = input;
+    }
+
+    public String getExpectedOutput() {
+        return expectedOutput;
+    }
+
+    public void setExpectedOutput(String expectedOutput) {
+        this.expectedOutput = expectedOutput;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ganesh.java_cloud_IDE_backend.model;
+
+import java.util.List;
+
+public class BatchRequest {
+    private List<SourceFile> files;
+    private String mainClass;
+    // Every case runs the same compiled program with its own stdin
+    private List<BatchCase> cases;
+    // How outputs are compared with the cases' expectedOutput: exact, lines (default) or tokens
+    private String comparison;
+
+    public List<SourceFile> getFiles() {
+        return files;
+    }
+
+    public void setFiles(List<SourceFile> files) {
+        this.files = files;
+    }
+
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    public void setMainClass(String mainClass) {
+        this.mainClass = mainClass;
+    }
+
+    public List<BatchCase> getCases() {
+        return cases;
+    }
+
+    public void setCases(List<BatchCase> cases) {
+        this.cases = cases;
+    }
+
+    public String getComparison() {
+        return comparison;
+    }
+
+    public void setComparison(String comparison) {
+        this.comparison = comparison;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ganesh.java_cloud_IDE_backend.model;
+
+import java.util.List;
+
+public class BatchResponse {
+    private String mainClass;
+    // Set when the batch could not start (e.g. javac diagnostics); no case ran then
+    private String error;
+    // Hashing, cache lookup or compile, and main class lookup; done once for all cases
+    private long compileMillis;
+    private long totalMillis;
+    // One per case, in the order of the request
+    private List<ExecutionResponse> results;
+
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    public void setMainClass(String mainClass) {
+        this.mainClass = mainClass;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public long getCompileMillis() {
+        return compileMillis;
+    }
+
+    public void setCompileMillis(long compileMillis) {
+        this.compileMillis = compileMillis;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public void setTotalMillis(long totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+
+    public List<ExecutionResponse> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ExecutionResponse> results) {
+        this.results = results;
+    }
+}
@@ -7,6 +7,10 @@ public class ExecutionRequest {
     private String mainClass;
 
     private String input;
+    // When set, stdout is checked against it as it is written and the run stops at the first mismatch
+    private String expectedOutput;
+    // exact, lines (default) or tokens; see OutputVerifier
+    private String comparison;
     private String command;
     private String currentDirectory;
 
@@ -51,4 +55,20 @@ public class ExecutionRequest {
     public void setInput(String input) {
         this.input = input;
     }
+
+    public String getExpectedOutput() {
+        return expectedOutput;
+    }
+
+    public void setExpectedOutput(String expectedOutput) {
+        this.expectedOutput = expectedOutput;
+    }
+
+    public String getComparison() {
+        return comparison;
+    }
+
+    public void setComparison(String comparison) {
+        this.comparison = comparison;
+    }
 }
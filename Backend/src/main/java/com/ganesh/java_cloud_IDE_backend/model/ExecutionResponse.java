@@ -35,6 +35,32 @@ public class ExecutionResponse {
     private final int exitCode;
     private List<SourceFile> updatedFiles;
     private String newDirectory;
+    // CDS archive the run's JVM started with ("base", "base+artifact"), null without one
+    private String cdsArchive;
+    // Measured JVM startup time the archive saves, null without one
+    private Long startupSavedMillis;
+    // True when part of stdout was left out (a marker in stdout shows where)
+    private boolean outputTruncated;
+    // Bytes the program wrote, including any left out of stdout
+    private long outputBytes;
+    // Time the execution waited in the scheduler queue before it started
+    private long queueWaitMillis;
+    // Time from starting the program to its exit, container and workspace setup included
+    private long runMillis;
+    // "accepted" or "wrong_answer" when the request had an expectedOutput, null otherwise
+    private String verdict;
+    // Byte offset in the output where it first differed from the expected output
+    private Long mismatchOffset;
+    // Wall-clock time of the program itself, from launch to exit
+    private long wallMillis;
+    // CPU time the program used in user and kernel mode, null when it could not be measured
+    private Long userCpuMillis;
+    private Long systemCpuMillis;
+    // Largest resident memory seen during the run (for a warm runner, the runner JVM's)
+    private Long peakRssBytes;
+    // Bytes read from and written to storage, not counting stdin and stdout
+    private Long readBytes;
+    private Long writtenBytes;
 
     public ExecutionResponse(String stdout, String stderr, int exitCode) {
         this.stdout = stdout;
@@ -77,5 +103,116 @@ public class ExecutionResponse {
     public void setNewDirectory(String newDirectory) {
         this.newDirectory = newDirectory;
     }
-}
 
+    public String getCdsArchive() {
+        return cdsArchive;
+    }
+
+    public void setCdsArchive(String cdsArchive) {
+        this.cdsArchive = cdsArchive;
+    }
+
+    public Long getStartupSavedMillis() {
+        return startupSavedMillis;
+    }
+
+    public void setStartupSavedMillis(Long startupSavedMillis) {
+        this.startupSavedMillis = startupSavedMillis;
+    }
+
+    public boolean isOutputTruncated() {
+        return outputTruncated;
+    }
+
+    public void setOutputTruncated(boolean outputTruncated) {
+        this.outputTruncated = outputTruncated;
+    }
+
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    public void setOutputBytes(long outputBytes) {
+        this.outputBytes = outputBytes;
+    }
+
+    public long getQueueWaitMillis() {
+        return queueWaitMillis;
+    }
+
+    public void setQueueWaitMillis(long queueWaitMillis) {
+        this.queueWaitMillis = queueWaitMillis;
+    }
+
+    public long getRunMillis() {
+        return runMillis;
+    }
+
+    public void setRunMillis(long runMillis) {
+        this.runMillis = runMillis;
+    }
+
+    public String getVerdict() {
+        return verdict;
+    }
+
+    public void setVerdict(String verdict) {
+        this.verdict = verdict;
+    }
+
+    public Long getMismatchOffset() {
+        return mismatchOffset;
+    }
+
+    public void setMismatchOffset(Long mismatchOffset) {
+        this.mismatchOffset = mismatchOffset;
+    }
+
+    public long getWallMillis() {
+        return wallMillis;
+    }
+
+    public void setWallMillis(long wallMillis) {
+        this.wallMillis = wallMillis;
+    }
+
+    public Long getUserCpuMillis() {
+        return userCpuMillis;
+    }
+
+    public void setUserCpuMillis(Long userCpuMillis) {
+        this.userCpuMillis = userCpuMillis;
+    }
+
+    public Long getSystemCpuMillis() {
+        return systemCpuMillis;
+    }
+
+    public void setSystemCpuMillis(Long systemCpuMillis) {
+        this.systemCpuMillis = systemCpuMillis;
+    }
+
+    public Long getPeakRssBytes() {
+        return peakRssBytes;
+    }
+
+    public void setPeakRssBytes(Long peakRssBytes) {
+        this.peakRssBytes = peakRssBytes;
+    }
+
+    public Long getReadBytes() {
+        return readBytes;
+    }
+
+    public void setReadBytes(Long readBytes) {
+        this.readBytes = readBytes;
+    }
+
+    public Long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    public void setWrittenBytes(Long writtenBytes) {
+        this.writtenBytes = writtenBytes;
+    }
+}
@@ -3,6 +3,8 @@ package com.ganesh.java_cloud_IDE_backend.model;
 public class SourceFile {
     private String path;
     private String content;
+    // Set instead of content to refer to a blob uploaded earlier
+    private String hash;
 
     public String getContent() {
         return content;
@@ -19,4 +21,12 @@ public class SourceFile {
     public void setPath(String path) {
         this.path = path;
     }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
 }
@@ -0,0 +1,199 @@
+package com.ganesh.java_cloud_IDE_backend.service;
+
+import com.ganesh.java_cloud_IDE_backend.model.BatchCase;
+import com.ganesh.java_cloud_IDE_backend.model.BatchRequest;
+import com.ganesh.java_cloud_IDE_backend.model.BatchResponse;
+import com.ganesh.java_cloud_IDE_backend.model.ExecutionRequest;
+import com.ganesh.java_cloud_IDE_backend.model.ExecutionResponse;
+import com.ganesh.java_cloud_IDE_backend.service.cache.CompilationCache;
+import com.ganesh.java_cloud_IDE_backend.service.cache.MissingBlobsException;
+import com.ganesh.java_cloud_IDE_backend.service.compile.CompilationFailedException;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ExecutionMetrics;
+import com.ganesh.java_cloud_IDE_backend.service.output.OutputVerifier;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionRejectedException;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionScheduler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs one submission against many stdin cases, as grading does.
+ *
+ * <p>The sources are hashed, looked up or compiled, and given a main class once. The cases then
+ * run as separate {@link ExecutionScheduler.Priority#BATCH} tasks of the caller's tenant, at most
+ * {@code parallelism} per tenant at a time across all of its batches, so batches use free runners
+ * without crowding out interactive runs or other tenants, however many a tenant submits at once.
+ * A case the scheduler turns away is retried until
+ * {@code retry-timeout-millis} runs out and then reported as failed. Cases with an expected output
+ * are judged while they run and stopped at the first wrong byte.
+ */
+@Service
+public class BatchExecutionService {
+
+    private final OptimizedJavaExecutionService executionService;
+    private final ExecutionScheduler scheduler;
+    private final ExecutionMetrics metrics;
+    private final int maxCases;
+    private final int parallelism;
+    private final long retryTimeoutMillis;
+    // Case permits of the tenants with a batch in progress
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public BatchExecutionService(OptimizedJavaExecutionService executionService, ExecutionScheduler scheduler,
+                                 ExecutionMetrics metrics,
+                                 @Value("${execution.batch.max-cases:200}") int maxCases,
+                                 @Value("${execution.batch.parallelism:4}") int parallelism,
+                                 @Value("${execution.batch.retry-timeout-millis:30000}") long retryTimeoutMillis) {
+        this.executionService = executionService;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+        this.maxCases = maxCases;
+        this.parallelism = Math.max(1, parallelism);
+        this.retryTimeoutMillis = retryTimeoutMillis;
+    }
+
+    /**
+     * Compiles {@code request} once and runs every case, returning when all have finished.
+     *
+     * @throws ExecutionRejectedException if the scheduler turns away the compile step
+     */
+    public BatchResponse execute(BatchRequest request, String tenant) throws InterruptedException {
+        long start = System.nanoTime();
+        BatchResponse response = new BatchResponse();
+        List<BatchCase> cases = request.getCases() != null ? request.getCases() : List.of();
+        if (request.getFiles() == null || request.getFiles().isEmpty()) {
+            return failed(response, "No source files provided", start);
+        }
+        if (cases.isEmpty() || cases.size() > maxCases) {
+            return failed(response, "A batch needs between 1 and " + maxCases + " cases", start);
+        }
+        try {
+            OutputVerifier.Comparison.of(request.getComparison());
+        } catch (IllegalArgumentException e) {
+            return failed(response, e.getMessage(), start);
+        }
+
+        Prepared prepared;
+        try {
+            prepared = scheduler.submit(tenant, ExecutionScheduler.Priority.BATCH, 1, waited -> prepare(request)).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            String error = cause instanceof CompilationFailedException
+                    ? "Compilation Error:\n" + cause.getMessage()
+                    : cause instanceof MissingBlobsException || cause instanceof IllegalArgumentException
+                    ? cause.getMessage()
+                    : "Internal Server Error: " + cause.getMessage();
+            return failed(response, error, start);
+        }
+        response.setMainClass(prepared.mainClass());
+        response.setCompileMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        long mark = metrics.stage("batch_compile", start);
+
+        List<CompletableFuture<ExecutionResponse>> runs = new ArrayList<>(cases.size());
+        CompilationCache.Lease artifact = prepared.artifact();
+        Semaphore window = enter(tenant);
+        try {
+            for (BatchCase batchCase : cases) {
+                window.acquire();
+                ExecutionRequest caseRequest = new ExecutionRequest();
+                caseRequest.setInput(batchCase.getInput());
+                caseRequest.setExpectedOutput(batchCase.getExpectedOutput());
+                caseRequest.setComparison(request.getComparison());
+                CompletableFuture<ExecutionResponse> run;
+                try {
+                    run = submitCase(tenant, artifact, prepared.mainClass(), caseRequest);
+                } catch (InterruptedException e) {
+                    // The tenant's other batches share the window
+                    window.release();
+                    throw e;
+                }
+                run.whenComplete((result, error) -> window.release());
+                runs.add(run);
+            }
+
+            List<ExecutionResponse> results = new ArrayList<>(runs.size());
+            for (CompletableFuture<ExecutionResponse> run : runs) {
+                try {
+                    results.add(run.get());
+                } catch (ExecutionException e) {
+                    results.add(new ExecutionResponse("", "Internal Server Error: " + e.getCause().getMessage(), 1));
+                }
+            }
+            response.setResults(results);
+        } finally {
+            // When interrupted, queued cases are dropped and running ones interrupted before the lease goes
+            runs.forEach(run -> run.cancel(true));
+            artifact.close();
+            leave(tenant);
+        }
+        metrics.stage("batch_cases", mark);
+        response.setTotalMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return response;
+    }
+
+    private Prepared prepare(BatchRequest request) throws Exception {
+        OptimizedJavaExecutionService.Sources sources = executionService.resolveSources(request.getFiles());
+        CompilationCache.Lease artifact = executionService.getOrCompile(sources.files(), sources.hash());
+        try {
+            return new Prepared(artifact, executionService.mainClass(artifact, request.getMainClass()));
+        } catch (Exception e) {
+            artifact.close();
+            throw e;
+        }
+    }
+
+    private CompletableFuture<ExecutionResponse> submitCase(String tenant, CompilationCache.Lease artifact,
+                                                            String mainClass, ExecutionRequest caseRequest) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryTimeoutMillis);
+        while (true) {
+            try {
+                return scheduler.submit(tenant, ExecutionScheduler.Priority.BATCH, 1, waited -> {
+                    ExecutionResponse result = executionService.run(artifact.dir(), mainClass, caseRequest);
+                    result.setQueueWaitMillis(TimeUnit.NANOSECONDS.toMillis(waited));
+                    return result;
+                });
+            } catch (ExecutionRejectedException e) {
+                if (System.nanoTime() - deadline > 0) {
+                    return CompletableFuture.completedFuture(new ExecutionResponse("", e.getMessage(), 1));
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    /** The tenant's case permits, shared by all of its batches in progress. */
+    private Semaphore enter(String tenant) {
+        return windows.compute(tenant, (t, window) -> {
+            window = window != null ? window : new Window(new Semaphore(parallelism), new AtomicInteger());
+            window.batches().incrementAndGet();
+            return window;
+        }).permits();
+    }
+
+    /** Drops the tenant's permits with its last batch; every case has given its permit back by then. */
+    private void leave(String tenant) {
+        windows.computeIfPresent(tenant, (t, window) -> window.batches().decrementAndGet() == 0 ? null : window);
+    }
+
+    private static BatchResponse failed(BatchResponse response, String error, long start) {
+        response.setError(error);
+        response.setResults(List.of());
+        response.setTotalMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return response;
+    }
+
+    private record Prepared(CompilationCache.Lease artifact, String mainClass) {
+    }
+
+    private record Window(Semaphore permits, AtomicInteger batches) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.ganesh.java_cloud_IDE_backend.service;
+
+import java.io.IOException;
+
+/**
+ * Receives the progress of a streamed execution (see
+ * {@link OptimizedJavaExecutionService#executeStreaming}).
+ *
+ * <p>{@code stdout} and {@code stderr} may be called concurrently from different threads. A method
+ * that throws, e.g. because the client went away, stops the run.
+ */
+public interface ExecutionListener {
+
+    /** Compilation status: {@code "started"}, {@code "succeeded"} or {@code "failed"} with the diagnostics. */
+    void compile(String status, String diagnostics) throws IOException;
+
+    void stdout(String text) throws IOException;
+
+    void stderr(String text) throws IOException;
+
+    /** Always the last call. */
+    void exit(int exitCode, boolean timedOut) throws IOException;
+}
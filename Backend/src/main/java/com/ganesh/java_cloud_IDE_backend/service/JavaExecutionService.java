@@ -3,9 +3,9 @@ package com.ganesh.java_cloud_IDE_backend.service;
 import com.ganesh.java_cloud_IDE_backend.model.ExecutionRequest;
 import com.ganesh.java_cloud_IDE_backend.model.ExecutionResponse;
 import com.ganesh.java_cloud_IDE_backend.model.SourceFile;
+import com.ganesh.java_cloud_IDE_backend.service.output.OutputCapture;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
 import java.nio.file.*;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -17,6 +17,12 @@ public class JavaExecutionService {
 
     private static final int EXECUTION_TIMEOUT_SECONDS = 6;
 
+    private final OutputCapture outputCapture;
+
+    public JavaExecutionService(OutputCapture outputCapture) {
+        this.outputCapture = outputCapture;
+    }
+
     public ExecutionResponse execute(ExecutionRequest request) throws Exception {
 
         if (request.getFiles() == null || request.getFiles().isEmpty()) {
@@ -78,7 +84,7 @@ public class JavaExecutionService {
             process.getOutputStream().close();
 
             /* 6️⃣ Read output asynchronously (NO DEADLOCK) */
-            String output = readStreamAsync(process.getInputStream());
+            OutputCapture.Result output = readStreamAsync(process);
 
             boolean finished = process.waitFor(
                     EXECUTION_TIMEOUT_SECONDS, TimeUnit.SECONDS
@@ -86,18 +92,14 @@ public class JavaExecutionService {
 
             if (!finished) {
                 process.destroyForcibly();
-                return new ExecutionResponse(
-                        output,
-                        "Execution timed out",
-                        1
-                );
+                return captured(output, "Execution timed out", 1);
             }
 
-            return new ExecutionResponse(
-                    output,
-                    "",
-                    process.exitValue()
-            );
+            if (output.limitReached()) {
+                return captured(output,
+                        "Output limit of " + outputCapture.maxBytes() + " bytes exceeded; program stopped", 1);
+            }
+            return captured(output, "", process.exitValue());
 
         } finally {
             /* 7️⃣ Cleanup */
@@ -110,22 +112,24 @@ public class JavaExecutionService {
         }
     }
 
-    /* 🔥 Prevent stdout buffer deadlock */
-    private String readStreamAsync(InputStream is) throws Exception {
-        StringBuilder output = new StringBuilder();
+    /* 🔥 Prevent stdout buffer deadlock; bounded so a print loop cannot fill the heap */
+    private OutputCapture.Result readStreamAsync(Process process) throws Exception {
+        OutputCapture.Result[] output = new OutputCapture.Result[1];
 
-        Thread reader = new Thread(() -> {
-            try (Scanner sc = new Scanner(is)) {
-                while (sc.hasNextLine()) {
-                    output.append(sc.nextLine()).append("\n");
-                }
-            }
-        });
+        Thread reader = new Thread(() ->
+                output[0] = outputCapture.capture(process.getInputStream(), process));
 
         reader.start();
         reader.join();
 
-        return output.toString();
+        return output[0];
+    }
+
+    private static ExecutionResponse captured(OutputCapture.Result output, String stderr, int exitCode) {
+        ExecutionResponse response = new ExecutionResponse(output.text(), stderr, exitCode);
+        response.setOutputTruncated(output.truncated());
+        response.setOutputBytes(output.totalBytes());
+        return response;
     }
 
     /* 🔥 Auto-detect main() with package support */
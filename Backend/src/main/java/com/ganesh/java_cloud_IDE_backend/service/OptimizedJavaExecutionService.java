@@ -407,159 +407,378 @@ package com.ganesh.java_cloud_IDE_backend.service;
 import com.ganesh.java_cloud_IDE_backend.model.ExecutionRequest;
 import com.ganesh.java_cloud_IDE_backend.model.ExecutionResponse;
 import com.ganesh.java_cloud_IDE_backend.model.SourceFile;
+import com.ganesh.java_cloud_IDE_backend.service.cache.ArtifactMetadata;
+import com.ganesh.java_cloud_IDE_backend.service.cache.BlobStore;
+import com.ganesh.java_cloud_IDE_backend.service.cache.CompilationCache;
+import com.ganesh.java_cloud_IDE_backend.service.cds.CdsArchives;
+import com.ganesh.java_cloud_IDE_backend.service.cache.FailedCompilationCache;
+import com.ganesh.java_cloud_IDE_backend.service.cache.MissingBlobsException;
+import com.ganesh.java_cloud_IDE_backend.service.compile.CompilationFailedException;
+import com.ganesh.java_cloud_IDE_backend.service.compile.IncrementalCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.docker.ContainerPool;
+import com.ganesh.java_cloud_IDE_backend.service.docker.WorkspaceProvisioner;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ExecutionMetrics;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ResourceMonitor;
+import com.ganesh.java_cloud_IDE_backend.service.output.OutputCapture;
+import com.ganesh.java_cloud_IDE_backend.service.output.OutputVerifier;
+import com.ganesh.java_cloud_IDE_backend.service.runner.WarmRunnerPool;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PreDestroy;
 import java.io.*;
 import java.nio.file.*;
-import java.security.MessageDigest;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class OptimizedJavaExecutionService {
 
     private static final int EXECUTION_TIMEOUT_SECONDS = 6;
-    private static final int CONTAINER_POOL_SIZE = 1;
-
-    private final BlockingQueue<String> containerPool = new LinkedBlockingQueue<>();
-    private final Set<String> activeContainers = ConcurrentHashMap.newKeySet();
-    private final ConcurrentHashMap<String, Path> compilationCache = new ConcurrentHashMap<>();
-    private final ExecutorService asyncExecutor = Executors.newCachedThreadPool();
-    private volatile boolean dockerAvailable = false;
-
-    public OptimizedJavaExecutionService() {
-        checkDockerAvailability();
-        if (dockerAvailable) {
-            initializeContainerPool();
-        }
-    }
 
-    private void checkDockerAvailability() {
-        try {
-            ProcessBuilder pb = new ProcessBuilder("docker", "--version");
-            Process process = pb.start();
-            boolean finished = process.waitFor(5, TimeUnit.SECONDS);
-            dockerAvailable = finished && process.exitValue() == 0;
-            if (dockerAvailable) {
-                System.out.println("✅ Docker is available");
-            } else {
-                System.err.println("❌ Docker is not available - will use fallback mode");
-            }
-        } catch (Exception e) {
-            dockerAvailable = false;
-        }
-    }
+    private final ContainerPool containerPool;
+    private final WarmRunnerPool runnerPool;
+    private final CdsArchives cdsArchives;
+    private final WorkspaceProvisioner workspaceProvisioner;
+    private final OutputCapture outputCapture;
+    private final ExecutionMetrics metrics;
+    private final ResourceMonitor resourceMonitor;
+    // Output readers block on pipes for the length of a run; virtual threads keep that cheap
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final IncrementalCompiler compiler;
+    private final CompilationCache compilationCache;
+    private final FailedCompilationCache failedCompilations;
+    private final BlobStore blobStore;
+    // One compile per hash at a time; concurrent requests for the same sources wait on it
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> compilesInFlight = new ConcurrentHashMap<>();
 
-    private void initializeContainerPool() {
-        asyncExecutor.submit(() -> {
-            for (int i = 0; i < CONTAINER_POOL_SIZE; i++) {
-                try {
-                    String containerId = createPersistentContainer();
-                    if (containerId != null && !containerId.isEmpty()) {
-                        containerPool.offer(containerId);
-                    }
-                } catch (Exception e) {
-                    System.err.println("Failed to create container: " + e.getMessage());
-                }
-            }
-        });
-    }
-
-    private String createPersistentContainer() throws Exception {
-        ProcessBuilder pb = new ProcessBuilder(
-                "docker", "run", "-d", "-i",
-                "--cpus=0.5", "--memory=256m", "--network=none",
-                "-v", "/tmp/workspace:/workspace",  // Add this line
-                "--tmpfs", "/tmp:rw,noexec,nosuid,size=50m",  // Add temp filesystem
-                "java-runner:25", "tail", "-f", "/dev/null"
-        );
-        pb.redirectErrorStream(true);
-        Process process = pb.start();
-        String containerId;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            containerId = reader.readLine();
-        }
-        if (process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0 && containerId != null) {
-            activeContainers.add(containerId.trim());
-            return containerId.trim();
-        }
-        throw new RuntimeException("Docker startup failed");
+    public OptimizedJavaExecutionService(IncrementalCompiler compiler, CompilationCache compilationCache,
+                                         FailedCompilationCache failedCompilations, ContainerPool containerPool,
+                                         WarmRunnerPool runnerPool, CdsArchives cdsArchives,
+                                         WorkspaceProvisioner workspaceProvisioner, OutputCapture outputCapture,
+                                         ExecutionMetrics metrics, BlobStore blobStore,
+                                         ResourceMonitor resourceMonitor) {
+        this.compiler = compiler;
+        this.compilationCache = compilationCache;
+        this.failedCompilations = failedCompilations;
+        this.containerPool = containerPool;
+        this.runnerPool = runnerPool;
+        this.cdsArchives = cdsArchives;
+        this.workspaceProvisioner = workspaceProvisioner;
+        this.outputCapture = outputCapture;
+        this.metrics = metrics;
+        this.blobStore = blobStore;
+        this.resourceMonitor = resourceMonitor;
     }
 
     /**
      * Main entry point refactored to handle exceptions and return them to the frontend.
      */
     public ExecutionResponse execute(ExecutionRequest request) {
+        long start = System.nanoTime();
+        ExecutionResponse response = execute(request, start);
+        metrics.finished(outcome(response), start);
+        return response;
+    }
+
+    private ExecutionResponse execute(ExecutionRequest request, long start) {
         try {
             if (request.getFiles() == null || request.getFiles().isEmpty()) {
                 return new ExecutionResponse("", "No source files provided", 1);
             }
+            try {
+                OutputVerifier.Comparison.of(request.getComparison());
+            } catch (IllegalArgumentException e) {
+                return new ExecutionResponse("", e.getMessage(), 1);
+            }
+
+            // Fill in files sent by hash and calculate the hash for caching
+            Sources sources;
+            try {
+                sources = resolveSources(request.getFiles());
+            } catch (MissingBlobsException | IllegalArgumentException e) {
+                return new ExecutionResponse("", e.getMessage(), 1);
+            }
+            long mark = metrics.stage("hash", start);
+
+            // Check compilation cache; the lease keeps the directory on disk until the run is over
+            CompilationCache.Lease artifact;
+            try {
+                artifact = getOrCompile(sources.files(), sources.hash());
+            } catch (CompilationFailedException e) {
+                // This captures the "javac" error messages found in your logs
+                return new ExecutionResponse("", "Compilation Error:\n" + e.getMessage(), 1);
+            } finally {
+                mark = metrics.stage("artifact", mark);
+            }
 
-            // Calculate hash for caching
-            String codeHash = calculateHash(request.getFiles());
+            try (artifact) {
+                Path compiledDir = artifact.dir();
 
-            // Check compilation cache
-            Path compiledDir = compilationCache.get(codeHash);
-            if (compiledDir == null || !Files.exists(compiledDir)) {
+                // Entry point from the artifact's metadata, or the one the request names
+                String mainClass;
                 try {
-                    compiledDir = compileAndCache(request.getFiles(), codeHash);
-                } catch (RuntimeException e) {
-                    // This captures the "javac" error messages found in your logs
-                    return new ExecutionResponse("", "Compilation Error:\n" + e.getMessage(), 1);
+                    mainClass = mainClass(artifact, request.getMainClass());
+                } catch (IllegalArgumentException e) {
+                    return new ExecutionResponse("", e.getMessage(), 1);
+                } finally {
+                    metrics.stage("main_class", mark);
                 }
+
+                return run(compiledDir, mainClass, request);
             }
+        } catch (Exception e) {
+            return new ExecutionResponse("", "Internal Server Error: " + e.getMessage(), 1);
+        }
+    }
+
+    /**
+     * Runs {@code mainClass} from a compiled project with the request's input as stdin, in a
+     * container when Docker is available and locally otherwise. With an expected output, stdout is
+     * verified as it arrives and the program stopped at the first mismatch; stderr is then kept
+     * apart and returned as the response's stderr.
+     */
+    public ExecutionResponse run(Path compiledDir, String mainClass, ExecutionRequest request) throws Exception {
+        long start = System.nanoTime();
+        OutputVerifier verifier = request.getExpectedOutput() != null
+                ? new OutputVerifier(request.getExpectedOutput(), OutputVerifier.Comparison.of(request.getComparison()))
+                : null;
+        ExecutionResponse response;
+        if (containerPool.isAvailable()) {
+            response = executeWithDocker(compiledDir, mainClass, request, verifier);
+        } else {
+            metrics.localFallback("docker_unavailable");
+            response = executeLocally(compiledDir, mainClass, request, verifier);
+        }
+        response.setRunMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return response;
+    }
 
-            // Detect main class with robust pattern matching
+    private static String outcome(ExecutionResponse response) {
+        if (response.getExitCode() == 0) return "success";
+        String error = response.getStderr();
+        if (error != null && error.startsWith("Compilation Error")) return "compile_error";
+        if ("wrong_answer".equals(response.getVerdict())) return "wrong_answer";
+        if ("Execution Timed Out".equals(error)) return "timeout";
+        return "failure";
+    }
+
+    /**
+     * Streaming variant of {@link #execute}: compile status, output chunks and the exit code go to
+     * {@code listener} as they happen instead of being collected into one response. stdout and
+     * stderr are kept apart. Runs in the caller's thread until the program has finished.
+     */
+    public void executeStreaming(ExecutionRequest request, ExecutionListener listener) throws IOException {
+        if (request.getFiles() == null || request.getFiles().isEmpty()) {
+            listener.stderr("No source files provided");
+            listener.exit(1, false);
+            return;
+        }
+
+        listener.compile("started", null);
+        long mark = System.nanoTime();
+        CompilationCache.Lease artifact;
+        try {
+            Sources sources = resolveSources(request.getFiles());
+            mark = metrics.stage("hash", mark);
+            artifact = getOrCompile(sources.files(), sources.hash());
+            mark = metrics.stage("artifact", mark);
+        } catch (CompilationFailedException e) {
+            listener.compile("failed", e.getMessage());
+            listener.exit(1, false);
+            return;
+        } catch (MissingBlobsException | IllegalArgumentException e) {
+            listener.stderr(e.getMessage());
+            listener.exit(1, false);
+            return;
+        } catch (Exception e) {
+            listener.stderr("Internal Server Error: " + e.getMessage());
+            listener.exit(1, false);
+            return;
+        }
+
+        String containerId = null;
+        try (artifact) {
+            listener.compile("succeeded", null);
             String mainClass;
             try {
-                mainClass = detectMainClass(compiledDir);
-            } catch (RuntimeException e) {
-                return new ExecutionResponse("", e.getMessage(), 1);
+                mainClass = mainClass(artifact, request.getMainClass());
+            } catch (Exception e) {
+                listener.stderr(e.getMessage());
+                listener.exit(1, false);
+                return;
             }
 
-            // Execute with or without Docker
-            if (dockerAvailable) {
-                return executeWithDocker(compiledDir, mainClass, request);
+            mark = metrics.stage("main_class", mark);
+
+            if (containerPool.isAvailable()) {
+                containerId = containerPool.acquire(2, TimeUnit.SECONDS);
+                mark = metrics.stage("container_acquire", mark);
+                if (containerId == null) metrics.localFallback("no_container");
             } else {
-                return executeLocally(compiledDir, mainClass, request);
+                metrics.localFallback("docker_unavailable");
             }
-        } catch (Exception e) {
-            return new ExecutionResponse("", "Internal Server Error: " + e.getMessage(), 1);
+            try (WorkspaceProvisioner.Workspace workspace = containerId != null
+                    ? workspaceProvisioner.provision(artifact.dir(), containerPool.workspaceHostDir(containerId))
+                    : null) {
+                if (workspace != null) mark = metrics.stage("workspace", mark);
+                Process process = workspace != null
+                        ? new ProcessBuilder(containerJavaCommand(containerId, workspace.containerDir(),
+                                cdsArchives.forContainerRun(), mainClass)).start()
+                        : startLocalProcess(artifact.dir(), mainClass, null, false);
+                mark = metrics.stage("launch", mark);
+                streamProcess(process, request.getInput(), listener);
+                metrics.stage("program", mark);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            listener.exit(1, false);
+        } finally {
+            if (containerId != null) containerPool.release(containerId);
         }
     }
 
-    public Path compileAndCache(List<SourceFile> files, String hash) throws Exception {
-        Path projectDir = Files.createTempDirectory("java-cache-" + hash.substring(0, 8));
+    /**
+     * Feeds {@code input} to the process and relays its stdout and stderr to the listener until it
+     * exits or the execution timeout kills it.
+     */
+    private void streamProcess(Process process, String input, ExecutionListener listener)
+            throws IOException, InterruptedException {
+        // stdout and stderr draw from one output budget; the program is killed when it runs out
+        AtomicLong budget = outputCapture.newBudget();
+        InputStream stdout = outputCapture.limit(process.getInputStream(), budget, process);
+        InputStream stderr = outputCapture.limit(process.getErrorStream(), budget, process);
+        Future<?> out = asyncExecutor.submit(() -> relay(stdout, listener::stdout, process));
+        Future<?> err = asyncExecutor.submit(() -> relay(stderr, listener::stderr, process));
 
-        for (SourceFile file : files) {
-            Path filePath = projectDir.resolve(file.getPath());
-            Files.createDirectories(filePath.getParent());
-            Files.writeString(filePath, file.getContent());
+        try (OutputStream os = process.getOutputStream()) {
+            if (input != null && !input.isEmpty()) os.write(input.getBytes());
+        } catch (IOException ignored) {
+            // The program exited without reading its input
         }
 
-        List<Path> javaFiles = new ArrayList<>();
-        try (var stream = Files.walk(projectDir)) {
-            stream.filter(p -> p.toString().endsWith(".java")).forEach(javaFiles::add);
+        boolean finished = process.waitFor(EXECUTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (!finished) {
+            process.destroyForcibly();
+            metrics.timeout("stream");
         }
+        try {
+            out.get(2, TimeUnit.SECONDS);
+            err.get(2, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Something still holds the pipes open (e.g. a child of the program); stop waiting for it
+            process.destroyForcibly();
+        }
+        if (budget.get() < 0) {
+            listener.stderr("\nOutput limit of " + outputCapture.maxBytes() + " bytes exceeded; program stopped\n");
+            listener.exit(1, false);
+            return;
+        }
+        listener.exit(finished ? process.waitFor() : 1, !finished);
+    }
 
-        if (javaFiles.isEmpty()) throw new RuntimeException("No Java files found");
+    private interface TextSink {
+        void accept(String text) throws IOException;
+    }
 
-        List<String> compileCommand = new ArrayList<>(List.of("javac", "-d", projectDir.toString()));
-        javaFiles.forEach(p -> compileCommand.add(p.toString()));
+    /** Forwards text as it arrives; the decoder keeps multi-byte characters split across reads intact. */
+    private static void relay(InputStream stream, TextSink sink, Process process) {
+        char[] buffer = new char[8192];
+        try (Reader reader = new InputStreamReader(stream)) {
+            int n;
+            while ((n = reader.read(buffer)) != -1) {
+                try {
+                    sink.accept(new String(buffer, 0, n));
+                } catch (IOException e) {
+                    // Nobody is listening anymore
+                    process.destroyForcibly();
+                    return;
+                }
+            }
+        } catch (IOException ignored) {
+            // Stream closed
+        }
+    }
 
-        ProcessBuilder pb = new ProcessBuilder(compileCommand);
-        pb.directory(projectDir.toFile());
-        pb.redirectErrorStream(true);
-        Process compileProcess = pb.start();
+    /**
+     * Returns a lease on the compiled project for {@code hash}, compiling it on a cache miss.
+     * The caller must close the lease once it no longer needs the directory.
+     *
+     * <p>Concurrent misses on the same hash are coalesced: one caller compiles, the others wait for
+     * it and then take their lease from the cache. Sources that failed to compile recently throw
+     * the recorded diagnostics again without invoking the compiler. Failures that say nothing
+     * about the sources, such as a compiler timeout, are not recorded.
+     */
+    public CompilationCache.Lease getOrCompile(List<SourceFile> files, String hash) throws Exception {
+        while (true) {
+            CompilationCache.Lease cached = compilationCache.acquire(hash);
+            if (cached != null) return cached;
 
-        String output = readStream(compileProcess.getInputStream());
-        if (!compileProcess.waitFor(30, TimeUnit.SECONDS) || compileProcess.exitValue() != 0) {
-            throw new RuntimeException(output);
+            String diagnostics = failedCompilations.get(hash);
+            if (diagnostics != null) throw new CompilationFailedException(diagnostics);
+
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> leader = compilesInFlight.putIfAbsent(hash, mine);
+            if (leader != null) {
+                try {
+                    leader.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof CompilationFailedException failed) throw failed;
+                    // The leader hit an internal error; try ourselves
+                }
+                continue;
+            }
+
+            try {
+                CompilationCache.Lease lease = compileAndCache(files, hash);
+                mine.complete(null);
+                return lease;
+            } catch (CompilationFailedException e) {
+                if (!e.compilerError()) failedCompilations.put(hash, e.getMessage());
+                mine.completeExceptionally(e);
+                throw e;
+            } catch (Exception e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                compilesInFlight.remove(hash, mine);
+            }
+        }
+    }
+
+    public CompilationCache.Lease compileAndCache(List<SourceFile> files, String hash) throws Exception {
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (SourceFile file : files) {
+            if (file.getPath().endsWith(".java")) sources.put(file.getPath(), file.getContent());
+        }
+        if (sources.isEmpty()) throw new CompilationFailedException("No Java files found");
+
+        Path projectDir = compilationCache.newArtifactDir(hash);
+        IncrementalCompiler.Result result;
+        long mark = System.nanoTime();
+        try {
+            result = compiler.compile(sources, projectDir);
+            mark = metrics.stage("javac", mark);
+            if (!result.compilation().success()) {
+                throw new CompilationFailedException(result.compilation().diagnostics(), result.compilation().compilerError());
+            }
+
+            // Sources stay next to the classes for programs that read their own files
+            for (SourceFile file : files) {
+                Path filePath = projectDir.resolve(file.getPath());
+                Files.createDirectories(filePath.getParent());
+                Files.writeString(filePath, file.getContent());
+            }
+            // Entry points are found once here; cache hits read them back instead of scanning
+            ArtifactMetadata.scan(projectDir).writeTo(projectDir);
+        } catch (Exception e) {
+            deleteDirectory(projectDir);
+            throw e;
         }
 
-        compilationCache.put(hash, projectDir);
-        return projectDir;
+        CompilationCache.Lease lease = compilationCache.put(hash, projectDir);
+        compiler.remember(result, lease.dir());
+        metrics.stage("cache_store", mark);
+        return lease;
     }
 
 //    private ExecutionResponse executeWithDocker(Path compiledDir, String mainClass, ExecutionRequest request) throws Exception {
@@ -593,143 +812,279 @@ public class OptimizedJavaExecutionService {
 private ExecutionResponse executeWithDocker(
         Path compiledDir,
         String mainClass,
-        ExecutionRequest request
+        ExecutionRequest request,
+        OutputVerifier verifier
 ) throws Exception {
 
-    String containerId = containerPool.poll(2, TimeUnit.SECONDS);
+    long mark = System.nanoTime();
+    String containerId = containerPool.acquire(2, TimeUnit.SECONDS);
+    mark = metrics.stage("container_acquire", mark);
     if (containerId == null) {
-        return executeLocally(compiledDir, mainClass, request);
+        metrics.localFallback("no_container");
+        return executeLocally(compiledDir, mainClass, request, verifier);
     }
 
-    // 1️⃣ Create isolated workspace on host
-    Path runDir = Files.createTempDirectory("java-run-");
+    ResourceMonitor.Run usage = null;
+    // 1️⃣ Working directory with the compiled files: a copy or clone of the cached artifact in the container's own workspace
+    try (WorkspaceProvisioner.Workspace workspace = workspaceProvisioner.provision(compiledDir, containerPool.workspaceHostDir(containerId))) {
+        mark = metrics.stage("workspace", mark);
 
-    try {
-        // 2️⃣ Copy compiled files into runDir (host side)
-        Files.walk(compiledDir).forEach(source -> {
-            try {
-                Path target = runDir.resolve(compiledDir.relativize(source));
-                if (Files.isDirectory(source)) {
-                    Files.createDirectories(target);
-                } else {
-                    Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
-                }
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
-            }
-        });
-
-        // 3️⃣ Run Java inside container with bind mount
-        ProcessBuilder pb = new ProcessBuilder(
-                "docker", "run", "--rm",
-                "--cpus=0.5",
-                "--memory=256m",
-                "--network=none",
-                "-v", runDir.toAbsolutePath() + ":/workspace",
-                "java-runner:25",
-                "bash", "-c",
-                "cd /workspace && java " + mainClass
-        );
-
-
-        pb.redirectErrorStream(true);
+        // 2️⃣ Run Java inside the already started container, with the container's CDS archive if built
+        CdsArchives.Launch cds = cdsArchives.forContainerRun();
+        ProcessBuilder pb = new ProcessBuilder(containerJavaCommand(
+                containerId,
+                workspace.containerDir(),
+                cds,
+                mainClass
+        ));
+
+        // Only stdout is verified, so a verified run keeps stderr apart
+        pb.redirectErrorStream(verifier == null);
+        // The container's cgroup counters, from before the JVM starts
+        usage = resourceMonitor.container(containerId);
         Process process = pb.start();
+        mark = metrics.stage("launch", mark);
 
-        // 4️⃣ Pass stdin if present
-        if (request.getInput() != null && !request.getInput().isEmpty()) {
-            try (OutputStream os = process.getOutputStream()) {
+        // 3️⃣ Pass stdin if present; always close it so reads see EOF instead of hanging
+        try (OutputStream os = process.getOutputStream()) {
+            if (request.getInput() != null && !request.getInput().isEmpty()) {
                 os.write(request.getInput().getBytes());
             }
         }
 
-        // 5️⃣ Capture output with timeout
-        String output = asyncExecutor
-                .submit(() -> readStream(process.getInputStream()))
-                .get(EXECUTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        // 4️⃣ Capture output with timeout (head and tail only; killed past the output limit)
+        Captured output = capture(process, verifier);
 
         int exitCode = process.waitFor();
-        return new ExecutionResponse(output, "", exitCode == 0 ? 0 : 1);
+        metrics.stage("program", mark);
+        return withUsage(withVerdict(withCds(captured(output, exitCode), cds), verifier), usage);
 
     } catch (TimeoutException e) {
-        return new ExecutionResponse("", "Execution Timed Out", 1);
+        metrics.timeout("docker");
+        return withUsage(new ExecutionResponse("", "Execution Timed Out", 1), usage);
     } finally {
-        // 6️⃣ Cleanup workspace
-        deleteDirectory(runDir);
-
-        // 7️⃣ Return container to pool
-        containerPool.offer(containerId);
+        // 5️⃣ Reset the container and return it to the pool (replaced if the reset fails)
+        long released = System.nanoTime();
+        containerPool.release(containerId);
+        metrics.stage("container_release", released);
     }
 }
 
-    private ExecutionResponse executeLocally(Path compiledDir, String mainClass, ExecutionRequest request) throws Exception {
-        ProcessBuilder pb = new ProcessBuilder("java", "-cp", compiledDir.toString(), mainClass);
-        pb.redirectErrorStream(true);
-        Process process = pb.start();
+    private ExecutionResponse executeLocally(Path compiledDir, String mainClass, ExecutionRequest request,
+                                             OutputVerifier verifier) throws Exception {
+        long mark = System.nanoTime();
+        CdsArchives.Launch cds = null;
+        // Only stdout is verified, so a verified run keeps stderr apart
+        boolean mergeErrors = verifier == null;
+        Process warm = runnerPool.start(compiledDir, mainClass, mergeErrors);
+        if (warm == null) cds = cdsArchives.forLocalRun(compiledDir);
+        Process process = warm != null ? warm : forkJvm(compiledDir, mainClass, null, cds, mergeErrors);
+        ResourceMonitor.Run usage = warm != null ? resourceMonitor.runner(process.pid()) : resourceMonitor.forked(process.pid());
+        mark = metrics.stage("launch", mark);
 
         if (request.getInput() != null) {
             try (OutputStream os = process.getOutputStream()) { os.write(request.getInput().getBytes()); }
         }
 
         try {
-            String output = asyncExecutor.submit(() -> readStream(process.getInputStream())).get(EXECUTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-            return new ExecutionResponse(output, "", process.waitFor() == 0 ? 0 : 1);
+            Captured output = capture(process, verifier);
+            // Output ends as the program exits; read its counters before a forked JVM is reaped
+            usage.stop();
+            int exitCode = process.waitFor();
+            metrics.stage("program", mark);
+            return withUsage(withVerdict(withCds(captured(output, exitCode), cds), verifier), usage);
         } catch (TimeoutException e) {
+            usage.stop();
             process.destroyForcibly();
-            return new ExecutionResponse("", "Execution Timed Out", 1);
+            metrics.timeout("local");
+            return withUsage(new ExecutionResponse("", "Execution Timed Out", 1), usage);
         }
     }
 
     /**
-     * Refactored main detection using Regex to handle varying code styles.
+     * Starts the program in a warm runner JVM when one is free, otherwise forks a new JVM.
+     * Either way stderr is merged into stdout and relative paths resolve against {@code workingDir}.
      */
-    public String detectMainClass(Path projectDir) throws Exception {
-        List<Path> javaFiles = new ArrayList<>();
-        try (var stream = Files.walk(projectDir)) {
-            stream.filter(p -> p.toString().endsWith(".java")).forEach(javaFiles::add);
+    public Process startLocalProcess(Path compiledDir, String mainClass, Path workingDir) throws IOException {
+        return startLocalProcess(compiledDir, mainClass, workingDir, true);
+    }
+
+    private Process startLocalProcess(Path compiledDir, String mainClass, Path workingDir, boolean mergeErrors) throws IOException {
+        Process process = runnerPool.start(compiledDir, mainClass, mergeErrors, workingDir);
+        if (process != null) return process;
+        return forkJvm(compiledDir, mainClass, workingDir, cdsArchives.forLocalRun(compiledDir), mergeErrors);
+    }
+
+    private Process forkJvm(Path compiledDir, String mainClass, Path workingDir, CdsArchives.Launch cds) throws IOException {
+        return forkJvm(compiledDir, mainClass, workingDir, cds, true);
+    }
+
+    private Process forkJvm(Path compiledDir, String mainClass, Path workingDir, CdsArchives.Launch cds,
+                            boolean mergeErrors) throws IOException {
+        List<String> command = new ArrayList<>(List.of("java"));
+        command.addAll(cds.options());
+        command.addAll(List.of("-cp", cds.classpath(compiledDir), mainClass));
+        ProcessBuilder pb = new ProcessBuilder(command);
+        if (workingDir != null) pb.directory(workingDir.toFile());
+        pb.redirectErrorStream(mergeErrors);
+        Process process = pb.start();
+        cds.started(process);
+        return process;
+    }
+
+    /** {@code docker exec} command line running {@code mainClass} from {@code workDir} in the container. */
+    private List<String> containerJavaCommand(String containerId, String workDir, CdsArchives.Launch cds, String mainClass) {
+        List<String> command = new ArrayList<>(List.of("java"));
+        command.addAll(cds.options());
+        command.addAll(List.of("-cp", ".", mainClass));
+        return containerPool.execCommand(containerId, workDir, command);
+    }
+
+    /** A run's output, and its stderr when that is kept apart ({@code errors} is null otherwise). */
+    private record Captured(OutputCapture.Result output, OutputCapture.Result errors, boolean limitReached) {
+    }
+
+    /**
+     * Reads the run's output within the execution timeout. With a verifier, stdout goes through it
+     * and stderr is captured on its own; both draw from one output budget.
+     */
+    private Captured capture(Process process, OutputVerifier verifier) throws Exception {
+        if (verifier == null) {
+            OutputCapture.Result output = asyncExecutor.submit(() -> outputCapture.capture(process.getInputStream(), process))
+                    .get(EXECUTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return new Captured(output, null, output.limitReached());
         }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(EXECUTION_TIMEOUT_SECONDS);
+        AtomicLong budget = outputCapture.newBudget();
+        InputStream stdout = verifier.verify(outputCapture.limit(process.getInputStream(), budget, process), process);
+        InputStream stderr = outputCapture.limit(process.getErrorStream(), budget, process);
+        Future<OutputCapture.Result> errors = asyncExecutor.submit(() -> outputCapture.capture(stderr, process));
+        OutputCapture.Result output = asyncExecutor.submit(() -> outputCapture.capture(stdout, process))
+                .get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        OutputCapture.Result errorOutput = errors.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        return new Captured(output, errorOutput, budget.get() < 0);
+    }
 
-        // Regex: public static void main (String[] args) or variants
-        Pattern mainPattern = Pattern.compile("public\\s+static\\s+void\\s+main\\s*\\(");
+    private ExecutionResponse captured(Captured captured, int exitCode) {
+        OutputCapture.Result output = captured.output();
+        OutputCapture.Result errors = captured.errors();
+        ExecutionResponse response = captured.limitReached()
+                ? new ExecutionResponse(output.text(), "Output limit of " + outputCapture.maxBytes() + " bytes exceeded; program stopped", 1)
+                : new ExecutionResponse(output.text(), errors != null ? errors.text() : "", exitCode);
+        response.setOutputTruncated(output.truncated() || errors != null && errors.truncated());
+        response.setOutputBytes(output.totalBytes() + (errors != null ? errors.totalBytes() : 0));
+        return response;
+    }
 
-        for (Path file : javaFiles) {
-            String code = Files.readString(file);
-            if (mainPattern.matcher(code).find()) {
-                String pkg = "";
-                int pkgStart = code.indexOf("package ");
-                if (pkgStart >= 0) {
-                    pkg = code.substring(pkgStart + 8, code.indexOf(";", pkgStart)).trim() + ".";
+    private static ExecutionResponse withVerdict(ExecutionResponse response, OutputVerifier verifier) {
+        if (verifier != null) {
+            OutputVerifier.Verdict verdict = verifier.finish();
+            response.setVerdict(verdict.accepted() ? "accepted" : "wrong_answer");
+            response.setMismatchOffset(verdict.mismatchOffset());
+        }
+        return response;
+    }
+
+    private ExecutionResponse withUsage(ExecutionResponse response, ResourceMonitor.Run run) {
+        if (run == null) return response;
+        ResourceMonitor.Usage usage = run.stop();
+        response.setWallMillis(usage.wallMillis());
+        response.setUserCpuMillis(usage.userCpuMillis());
+        response.setSystemCpuMillis(usage.systemCpuMillis());
+        response.setPeakRssBytes(usage.peakRssBytes());
+        response.setReadBytes(usage.readBytes());
+        response.setWrittenBytes(usage.writtenBytes());
+        metrics.usage(usage);
+        return response;
+    }
+
+    private static ExecutionResponse withCds(ExecutionResponse response, CdsArchives.Launch cds) {
+        if (cds != null) {
+            response.setCdsArchive(cds.archive());
+            response.setStartupSavedMillis(cds.savedMillis());
+        }
+        return response;
+    }
+
+    /**
+     * The class to launch from {@code artifact}: {@code requested} if given, otherwise the entry
+     * point found when it was compiled. Reads no sources or class files on a cache hit.
+     *
+     * @throws IllegalArgumentException if {@code requested} cannot be launched or there is no main method
+     */
+    public String mainClass(CompilationCache.Lease artifact, String requested) throws IOException {
+        return artifact.metadata().mainClass(requested);
+    }
+
+    /**
+     * Sources of a request with every file's content filled in, and the project hash to cache them
+     * under.
+     */
+    public record Sources(List<SourceFile> files, String hash) {
+    }
+
+    /**
+     * Fills in the content of files sent by hash from the blob store and computes the project hash.
+     * Files sent with content are stored as blobs, so the client can send them by hash next time.
+     * The project hash is built from per-file hashes the store has verified; a hash sent alongside
+     * content is ignored, and blobs are never re-hashed.
+     *
+     * @throws MissingBlobsException    if some of the referenced blobs are not in the store
+     * @throws IllegalArgumentException if a file has neither content nor hash
+     */
+    public Sources resolveSources(List<SourceFile> files) {
+        List<SourceFile> resolved = new ArrayList<>(files.size());
+        Map<String, String> fileHashes = new TreeMap<>();
+        List<String> missing = new ArrayList<>();
+        for (SourceFile file : files) {
+            String hash;
+            String content;
+            if (file.getContent() != null) {
+                content = file.getContent();
+                hash = blobStore.put(content);
+            } else if (file.getHash() != null) {
+                hash = file.getHash();
+                content = blobStore.get(hash);
+                if (content == null) {
+                    missing.add(hash);
+                    continue;
                 }
-                return pkg + file.getFileName().toString().replace(".java", "");
+            } else {
+                throw noContent(file);
             }
+            SourceFile copy = new SourceFile();
+            copy.setPath(file.getPath());
+            copy.setContent(content);
+            copy.setHash(hash);
+            resolved.add(copy);
+            fileHashes.put(file.getPath(), hash);
         }
-        throw new RuntimeException("No main method found. Please ensure your file contains 'public static void main(String[] args)'.");
+        if (!missing.isEmpty()) throw new MissingBlobsException(missing);
+        return new Sources(resolved, SourceHasher.projectHash(fileHashes));
     }
 
-    private String readStream(InputStream is) {
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader r = new BufferedReader(new InputStreamReader(is))) {
-            String line;
-            while ((line = r.readLine()) != null) sb.append(line).append("\n");
-        } catch (IOException ignored) {}
-        return sb.toString();
+    /**
+     * Hashes of files sent without content that the blob store does not have.
+     *
+     * @throws IllegalArgumentException if a file has neither content nor hash
+     */
+    public List<String> missingBlobs(List<SourceFile> files) {
+        if (files == null) return List.of();
+        List<String> hashes = new ArrayList<>();
+        for (SourceFile file : files) {
+            if (file.getContent() != null) continue;
+            if (file.getHash() == null) throw noContent(file);
+            hashes.add(file.getHash());
+        }
+        return blobStore.missing(hashes);
     }
 
-    private String calculateHash(List<SourceFile> files) throws Exception {
-        MessageDigest md = MessageDigest.getInstance("SHA-256");
-        files.stream().sorted(Comparator.comparing(SourceFile::getPath)).forEach(f -> {
-            md.update(f.getPath().getBytes());
-            md.update(f.getContent().getBytes());
-        });
-        StringBuilder hex = new StringBuilder();
-        for (byte b : md.digest()) hex.append(String.format("%02x", b));
-        return hex.toString();
+    private static IllegalArgumentException noContent(SourceFile file) {
+        return new IllegalArgumentException("File " + file.getPath() + " has neither content nor hash");
     }
 
     @PreDestroy
     public void cleanup() {
-        for (String id : activeContainers) {
-            try { new ProcessBuilder("docker", "stop", id).start(); } catch (Exception ignored) {}
-        }
         asyncExecutor.shutdown();
     }
     private void deleteDirectory(Path dir) {
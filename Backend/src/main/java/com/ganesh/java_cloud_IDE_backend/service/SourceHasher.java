@@ -0,0 +1,65 @@
+package com.ganesh.java_cloud_IDE_backend.service;
+
+import com.ganesh.java_cloud_IDE_backend.model.SourceFile;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SHA-256 hashing of submitted sources. Every file is hashed on its own and the project hash is
+ * taken over the sorted (path, file hash) pairs, so the per-file hashes the incremental build
+ * needs come for free with the cache key.
+ */
+public final class SourceHasher {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private SourceHasher() {
+    }
+
+    public static String fileHash(String content) {
+        return fileHash(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Same as {@link #fileHash(String)}, for content already encoded as UTF-8. */
+    public static String fileHash(byte[] utf8) {
+        return HEX.formatHex(sha256().digest(utf8));
+    }
+
+    /** Path -> content hash, sorted by path. */
+    public static Map<String, String> fileHashes(List<SourceFile> files) {
+        Map<String, String> hashes = new TreeMap<>();
+        for (SourceFile file : files) {
+            hashes.put(file.getPath(), fileHash(file.getContent()));
+        }
+        return hashes;
+    }
+
+    public static String projectHash(List<SourceFile> files) {
+        return projectHash(fileHashes(files));
+    }
+
+    public static String projectHash(Map<String, String> fileHashes) {
+        MessageDigest md = sha256();
+        new TreeMap<>(fileHashes).forEach((path, hash) -> {
+            md.update(path.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(hash.getBytes(StandardCharsets.US_ASCII));
+            md.update((byte) '\n');
+        });
+        return HEX.formatHex(md.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.ganesh.java_cloud_IDE_backend.service.cache;
+
+import com.ganesh.java_cloud_IDE_backend.service.compile.ClassFileReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * What a compiled project contains, written into its artifact directory when it is compiled so a
+ * cache hit can pick the entry point without reading sources or class files.
+ *
+ * <p>Stored as {@value #FILE_NAME}, one record per line: {@code main <class>} for every class
+ * declaring {@code public static void main(String[])}, and {@code class <class> <bytes>} for every
+ * class file. Being part of the directory, it is covered by the artifact's checksum.
+ *
+ * @param entryPoints binary names of launchable classes, top-level classes first, then by name
+ * @param classes     binary name -> class file size in bytes
+ */
+public record ArtifactMetadata(List<String> entryPoints, Map<String, Long> classes) {
+
+    public static final String FILE_NAME = ".artifact";
+
+    private static final Comparator<String> ENTRY_POINT_ORDER =
+            Comparator.comparing((String name) -> name.contains("$")).thenComparing(Comparator.naturalOrder());
+
+    /** Reads the class files under {@code dir}. */
+    public static ArtifactMetadata scan(Path dir) throws IOException {
+        List<String> entryPoints = new ArrayList<>();
+        Map<String, Long> classes = new TreeMap<>();
+        List<Path> classFiles;
+        try (var stream = Files.walk(dir)) {
+            classFiles = stream.filter(p -> p.toString().endsWith(".class")).toList();
+        }
+        for (Path file : classFiles) {
+            byte[] bytes = Files.readAllBytes(file);
+            ClassFileReader reader = ClassFileReader.read(bytes);
+            classes.put(reader.className(), (long) bytes.length);
+            if (reader.hasMainMethod()) entryPoints.add(reader.className());
+        }
+        entryPoints.sort(ENTRY_POINT_ORDER);
+        return new ArtifactMetadata(List.copyOf(entryPoints), Collections.unmodifiableMap(classes));
+    }
+
+    /**
+     * Reads the metadata recorded in {@code dir}. Artifacts stored before metadata was recorded
+     * are scanned instead; the result is not written back, as that would change their checksum.
+     */
+    public static ArtifactMetadata read(Path dir) throws IOException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(dir.resolve(FILE_NAME), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return scan(dir);
+        }
+        List<String> entryPoints = new ArrayList<>();
+        Map<String, Long> classes = new TreeMap<>();
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            if (parts.length == 2 && parts[0].equals("main")) {
+                entryPoints.add(parts[1]);
+            } else if (parts.length == 3 && parts[0].equals("class")) {
+                classes.put(parts[1], Long.parseLong(parts[2]));
+            }
+        }
+        return new ArtifactMetadata(List.copyOf(entryPoints), Collections.unmodifiableMap(classes));
+    }
+
+    public void writeTo(Path dir) throws IOException {
+        List<String> lines = new ArrayList<>(entryPoints.size() + classes.size());
+        entryPoints.forEach(name -> lines.add("main " + name));
+        classes.forEach((name, bytes) -> lines.add("class " + name + " " + bytes));
+        Files.write(dir.resolve(FILE_NAME), lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The class to launch: {@code requested} if given, otherwise the first entry point.
+     *
+     * @throws IllegalArgumentException if {@code requested} cannot be launched or there is no entry point
+     */
+    public String mainClass(String requested) {
+        if (requested != null && !requested.isBlank()) {
+            if (entryPoints.contains(requested)) return requested;
+            throw new IllegalArgumentException(classes.containsKey(requested)
+                    ? "Class " + requested + " has no 'public static void main(String[] args)'."
+                    : "Main class " + requested + " not found. Entry points: " + String.join(", ", entryPoints));
+        }
+        if (entryPoints.isEmpty()) {
+            throw new IllegalArgumentException("No main method found. Please ensure your file contains 'public static void main(String[] args)'.");
+        }
+        return entryPoints.getFirst();
+    }
+
+    public long classBytes() {
+        return classes.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,247 @@
+package com.ganesh.java_cloud_IDE_backend.service.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk, content-addressed home of compiled projects.
+ *
+ * <p>Layout under the cache root:
+ * <pre>
+ *   objects/ab/abcdef.../   one directory per project hash
+ *   tmp/                    artifacts being compiled, moved into objects/ when complete
+ *   index.log               append-only log of "P hash bytes crc" and "D hash" records
+ * </pre>
+ * Startup only replays the index, so cached artifacts are usable right after boot without reading
+ * any of them. Each artifact's checksum is recorded in the index and verified the first time the
+ * artifact is read after a restart.
+ */
+@Component
+public class ArtifactStore {
+
+    private static final String INDEX = "index.log";
+
+    private final Path root;
+    private final Path objects;
+    private final Path tmp;
+    private final Path indexFile;
+    private FileChannel index;
+    private int indexRecords;
+
+    public ArtifactStore(@Value("${execution.cache.dir:${java.io.tmpdir}/java-cloud-ide/cache}") Path root) throws IOException {
+        this.root = root;
+        this.objects = Files.createDirectories(root.resolve("objects"));
+        this.tmp = Files.createDirectories(root.resolve("tmp"));
+        // Unfinished compiles and undeleted evictions from the previous process
+        deleteTree(tmp, false);
+        this.indexFile = root.resolve(INDEX);
+        this.index = openIndex();
+    }
+
+    /**
+     * Live artifacts recorded in the index, least recently stored first.
+     */
+    public synchronized List<Artifact> load() throws IOException {
+        Map<String, Artifact> live = new LinkedHashMap<>();
+        indexRecords = 0;
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                indexRecords++;
+                if (parts.length == 4 && parts[0].equals("P") && parts[1].length() >= 8) {
+                    Artifact artifact;
+                    try {
+                        artifact = new Artifact(parts[1], dirOf(parts[1]), Long.parseLong(parts[2]),
+                                Long.parseUnsignedLong(parts[3], 16));
+                    } catch (NumberFormatException | InvalidPathException e) {
+                        continue;
+                    }
+                    live.remove(parts[1]);
+                    live.put(parts[1], artifact);
+                } else if (parts.length == 2 && parts[0].equals("D")) {
+                    live.remove(parts[1]);
+                }
+                // Anything else is a torn or damaged record: skip it, the rest of the log still counts
+            }
+        }
+        return new ArrayList<>(live.values());
+    }
+
+    /**
+     * Every artifact directory on disk, whether or not the index knows it. Used to find orphans
+     * left behind by a crash between writing an artifact and recording it.
+     */
+    public List<Path> listObjectDirs() {
+        List<Path> dirs = new ArrayList<>();
+        try (var shards = Files.list(objects)) {
+            for (Path shard : shards.toList()) {
+                try (var stream = Files.list(shard)) {
+                    stream.forEach(dirs::add);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Artifact listing failed: " + e.getMessage());
+        }
+        return dirs;
+    }
+
+    public Path newWorkDir(String hash) throws IOException {
+        return Files.createTempDirectory(tmp, "java-cache-" + hash.substring(0, 8) + "-");
+    }
+
+    /**
+     * Size and checksum of a finished work directory; computed before taking any cache lock.
+     */
+    public Artifact describe(String hash, Path workDir) throws IOException {
+        long[] sizeAndCrc = checksum(workDir);
+        return new Artifact(hash, workDir, sizeAndCrc[0], sizeAndCrc[1]);
+    }
+
+    /**
+     * Moves a described work directory to its content-addressed location and records it.
+     */
+    public synchronized Artifact commit(Artifact pending) throws IOException {
+        Path target = dirOf(pending.hash());
+        if (Files.exists(target)) {
+            // An orphan not yet swept, or a corrupt artifact that was dropped
+            deleteTree(target, true);
+        }
+        Files.createDirectories(target.getParent());
+        Files.move(pending.dir(), target, StandardCopyOption.ATOMIC_MOVE);
+        Artifact stored = new Artifact(pending.hash(), target, pending.bytes(), pending.checksum());
+        record(stored);
+        return stored;
+    }
+
+    /** Re-records an artifact whose directory is still on disk. */
+    public synchronized void record(Artifact artifact) throws IOException {
+        append("P " + artifact.hash() + " " + artifact.bytes() + " " + Long.toHexString(artifact.checksum()));
+    }
+
+    /** Removes an artifact from the index; its directory is deleted separately via {@link #detach}. */
+    public synchronized void forget(String hash) {
+        try {
+            append("D " + hash);
+        } catch (IOException e) {
+            System.err.println("Failed to update cache index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves a directory out of its content-addressed location so it can be deleted at leisure
+     * without racing a new artifact stored under the same hash. Returns null if it is already gone.
+     */
+    public synchronized Path detach(Path dir) {
+        try {
+            Path trash = tmp.resolve("trash-" + dir.getFileName() + "-" + System.nanoTime());
+            Files.move(dir, trash, StandardCopyOption.ATOMIC_MOVE);
+            return trash;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void delete(Path dir) {
+        if (dir != null) deleteTree(dir, true);
+    }
+
+    /** True when the artifact's files still match the checksum recorded when it was stored. */
+    public boolean verify(Artifact artifact) {
+        try {
+            long[] sizeAndCrc = checksum(artifact.dir());
+            return sizeAndCrc[0] == artifact.bytes() && sizeAndCrc[1] == artifact.checksum();
+        } catch (IOException | UncheckedIOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Rewrites the index with only the live artifacts once dead records dominate it.
+     */
+    public synchronized void compactIfNeeded(Collection<Artifact> live) {
+        if (indexRecords < 2 * live.size() + 1024) return;
+        Path compacted = root.resolve(INDEX + ".tmp");
+        try {
+            List<String> lines = new ArrayList<>(live.size());
+            for (Artifact a : live) {
+                lines.add("P " + a.hash() + " " + a.bytes() + " " + Long.toHexString(a.checksum()));
+            }
+            Files.write(compacted, lines, StandardCharsets.US_ASCII);
+            index.close();
+            Files.move(compacted, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            indexRecords = lines.size();
+        } catch (IOException e) {
+            System.err.println("Cache index compaction failed: " + e.getMessage());
+        } finally {
+            try {
+                if (!index.isOpen()) index = openIndex();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private Path dirOf(String hash) {
+        return objects.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private FileChannel openIndex() throws IOException {
+        // A torn last record must not swallow the first one appended after it
+        boolean torn = false;
+        if (Files.exists(indexFile)) {
+            try (FileChannel reader = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+                java.nio.ByteBuffer last = java.nio.ByteBuffer.allocate(1);
+                torn = reader.size() > 0 && reader.read(last, reader.size() - 1) == 1 && last.get(0) != '\n';
+            }
+        }
+        FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (torn) channel.write(java.nio.ByteBuffer.wrap(new byte[]{'\n'}));
+        return channel;
+    }
+
+    private void append(String record) throws IOException {
+        index.write(java.nio.ByteBuffer.wrap((record + "\n").getBytes(StandardCharsets.US_ASCII)));
+        indexRecords++;
+    }
+
+    /** Total bytes and a CRC32C over every file's relative path and content, in path order. */
+    private static long[] checksum(Path dir) throws IOException {
+        CRC32C crc = new CRC32C();
+        long bytes = 0;
+        List<Path> files;
+        try (var stream = Files.walk(dir)) {
+            files = stream.filter(Files::isRegularFile).sorted().toList();
+        }
+        for (Path file : files) {
+            crc.update(dir.relativize(file).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+            byte[] content = Files.readAllBytes(file);
+            crc.update(content);
+            bytes += content.length;
+        }
+        return new long[]{bytes, crc.getValue()};
+    }
+
+    private static void deleteTree(Path dir, boolean includingSelf) {
+        try (var stream = Files.walk(dir)) {
+            stream.sorted(Comparator.reverseOrder())
+                    .filter(p -> includingSelf || !p.equals(dir))
+                    .forEach(p -> {
+                        try { Files.deleteIfExists(p); }
+                        catch (IOException ignored) {}
+                    });
+        } catch (IOException ignored) {}
+    }
+
+    public record Artifact(String hash, Path dir, long bytes, long checksum) {
+    }
+}
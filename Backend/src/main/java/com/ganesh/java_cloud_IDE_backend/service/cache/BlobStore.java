@@ -0,0 +1,141 @@
+package com.ganesh.java_cloud_IDE_backend.service.cache;
+
+import com.ganesh.java_cloud_IDE_backend.service.SourceHasher;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed store of source file contents, keyed by {@link SourceHasher#fileHash}.
+ *
+ * <p>Clients send a manifest of path -> hash pairs, upload only the contents the store is missing,
+ * and then run the manifest; unchanged files never cross the wire again. A blob counts as
+ * referenced whenever a manifest, upload or run mentions it. Blobs not referenced for
+ * {@code ttl} are dropped, and past {@code max-bytes} the least recently referenced go first; a
+ * client that finds a blob gone just uploads it again. Sizes are counted in UTF-8 bytes.
+ */
+@Component
+public class BlobStore {
+
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final Map<String, Blob> blobs = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "blob-sweep");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public BlobStore(@Value("${execution.blobs.max-bytes:67108864}") long maxBytes,
+                     @Value("${execution.blobs.ttl:1h}") Duration ttl) {
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttl.toNanos();
+        long period = Math.max(1, ttl.toSeconds() / 4);
+        sweeper.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.SECONDS);
+    }
+
+    /** Stores {@code content} and returns its hash. */
+    public String put(String content) {
+        byte[] utf8 = content.getBytes(StandardCharsets.UTF_8);
+        String hash = SourceHasher.fileHash(utf8);
+        Blob blob = blobs.computeIfAbsent(hash, h -> {
+            totalBytes.addAndGet(utf8.length);
+            return new Blob(content, utf8.length);
+        });
+        blob.touch();
+        if (totalBytes.get() > maxBytes) evictOverflow();
+        return hash;
+    }
+
+    /** Content for {@code hash}, or null if the store does not have it. */
+    public String get(String hash) {
+        Blob blob = blobs.get(hash);
+        if (blob == null) return null;
+        blob.touch();
+        return blob.content;
+    }
+
+    /** The hashes among {@code hashes} the store does not have, in order, without duplicates. */
+    public List<String> missing(Collection<String> hashes) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String hash : hashes) {
+            Blob blob = blobs.get(hash);
+            if (blob == null) {
+                missing.add(hash);
+            } else {
+                blob.touch();
+            }
+        }
+        return new ArrayList<>(missing);
+    }
+
+    public int size() {
+        return blobs.size();
+    }
+
+    public long totalBytes() {
+        return totalBytes.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    /** Drops blobs not referenced for {@code ttl}; runs every quarter of it. */
+    void sweep() {
+        long cutoff = System.nanoTime() - ttlNanos;
+        blobs.forEach((hash, blob) -> {
+            if (blob.lastUsed - cutoff < 0) remove(hash, blob);
+        });
+    }
+
+    private synchronized void evictOverflow() {
+        if (totalBytes.get() <= maxBytes) return;
+        List<Map.Entry<String, Blob>> oldestFirst = new ArrayList<>(blobs.entrySet());
+        oldestFirst.sort(Comparator.comparingLong(e -> e.getValue().lastUsed));
+        // Down to 90% so a burst of uploads does not sort the store on every put
+        long target = maxBytes / 10 * 9;
+        for (Map.Entry<String, Blob> entry : oldestFirst) {
+            if (totalBytes.get() <= target) break;
+            remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void remove(String hash, Blob blob) {
+        if (blobs.remove(hash, blob)) {
+            totalBytes.addAndGet(-blob.bytes);
+            evictions.incrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private static final class Blob {
+        final String content;
+        final long bytes;
+        volatile long lastUsed = System.nanoTime();
+
+        Blob(String content, long bytes) {
+            this.content = content;
+            this.bytes = bytes;
+        }
+
+        void touch() {
+            lastUsed = System.nanoTime();
+        }
+    }
+}
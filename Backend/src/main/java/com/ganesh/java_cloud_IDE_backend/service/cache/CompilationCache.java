@@ -0,0 +1,282 @@
+package com.ganesh.java_cloud_IDE_backend.service.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of compiled project directories, keyed by project hash and backed by the
+ * persistent {@link ArtifactStore}.
+ *
+ * <p>Limits apply to both the number of entries and the total bytes on disk; evicting an entry
+ * also deletes its directory. Callers hold a {@link Lease} while they use a directory, so an entry
+ * evicted during a run is only deleted once its last lease is closed.
+ *
+ * <p>Entries found in the store's index at startup are available immediately; each is checked
+ * against its recorded checksum on its first hit and dropped if corrupt.
+ */
+@Component
+public class CompilationCache {
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final ArtifactStore store;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Evicted entries whose directories are still leased; revived if the same hash is stored again
+    private final Map<String, Entry> retired = new HashMap<>();
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong corruptions = new AtomicLong();
+
+    public CompilationCache(@Value("${execution.cache.max-entries:500}") int maxEntries,
+                            @Value("${execution.cache.max-bytes:536870912}") long maxBytes,
+                            ArtifactStore store) throws IOException {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.store = store;
+
+        List<Path> toDelete = new ArrayList<>();
+        synchronized (this) {
+            for (ArtifactStore.Artifact artifact : store.load()) {
+                entries.put(artifact.hash(), new Entry(artifact, false));
+                totalBytes += artifact.bytes();
+            }
+            evictOverflow(null, toDelete);
+        }
+        toDelete.forEach(store::delete);
+
+        Thread sweeper = new Thread(this::sweepOrphans, "artifact-sweep");
+        sweeper.setDaemon(true);
+        sweeper.start();
+    }
+
+    /**
+     * Returns a lease on the cached directory for {@code hash}, or null on a miss.
+     */
+    public Lease acquire(String hash) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(hash);
+            if (entry == null) {
+                entry = retired.remove(hash);
+                if (entry != null) revive(entry);
+            }
+            if (entry != null) entry.leases++;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        // Restored from the index: check it once before anybody runs it
+        if (!entry.verified) {
+            if (Files.isDirectory(entry.artifact.dir()) && store.verify(entry.artifact)) {
+                entry.verified = true;
+            } else {
+                corruptions.incrementAndGet();
+                System.err.println("compile cache: dropping corrupt artifact " + hash.substring(0, 8));
+                synchronized (this) {
+                    if (entries.get(hash) == entry) {
+                        entries.remove(hash);
+                        totalBytes -= entry.bytes();
+                        store.forget(hash);
+                        entry.retired = true;
+                    }
+                }
+                release(entry);
+                misses.incrementAndGet();
+                return null;
+            }
+        }
+        hits.incrementAndGet();
+        return new Lease(entry);
+    }
+
+    /**
+     * Creates an empty directory for a new artifact. It becomes visible to other callers only
+     * once passed to {@link #put}.
+     */
+    public Path newArtifactDir(String hash) throws IOException {
+        return store.newWorkDir(hash);
+    }
+
+    /**
+     * Moves a fully written artifact directory into the store and returns a lease on it. Least
+     * recently used entries are evicted until both limits hold again.
+     */
+    public Lease put(String hash, Path workDir) throws IOException {
+        ArtifactStore.Artifact pending = store.describe(hash, workDir);
+        List<Path> toDelete = new ArrayList<>();
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(hash);
+            if (entry == null) {
+                entry = retired.remove(hash);
+                if (entry != null) revive(entry);
+            }
+            if (entry != null) {
+                // Same hash, same content: keep the directory that is already in place
+                toDelete.add(workDir);
+            } else {
+                entry = new Entry(store.commit(pending), true);
+                entries.put(hash, entry);
+                totalBytes += entry.bytes();
+            }
+            entry.leases++;
+            evictOverflow(entry, toDelete);
+            store.compactIfNeeded(entries.values().stream().map(e -> e.artifact).toList());
+        }
+        toDelete.forEach(store::delete);
+        return new Lease(entry);
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public long corruptions() {
+        return corruptions.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Deletes artifact directories the index does not know about, e.g. after a crash between
+     * moving an artifact into place and recording it. Runs in the background after startup.
+     */
+    private void sweepOrphans() {
+        for (Path dir : store.listObjectDirs()) {
+            String hash = dir.getFileName().toString();
+            Path trash;
+            synchronized (this) {
+                if (entries.containsKey(hash) || retired.containsKey(hash)) continue;
+                trash = store.detach(dir);
+            }
+            store.delete(trash);
+        }
+    }
+
+    /** Must hold the lock. */
+    private void evictOverflow(Entry keep, List<Path> toDelete) {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+            Entry victim = eldest.next();
+            if (victim == keep) continue;
+            eldest.remove();
+            totalBytes -= victim.bytes();
+            evictions.incrementAndGet();
+            store.forget(victim.artifact.hash());
+            victim.retired = true;
+            if (victim.leases == 0) {
+                toDelete.add(store.detach(victim.artifact.dir()));
+            } else {
+                retired.put(victim.artifact.hash(), victim);
+            }
+        }
+    }
+
+    /** Must hold the lock. */
+    private void revive(Entry entry) {
+        entry.retired = false;
+        entries.put(entry.artifact.hash(), entry);
+        totalBytes += entry.bytes();
+        try {
+            store.record(entry.artifact);
+        } catch (IOException e) {
+            System.err.println("Failed to update cache index: " + e.getMessage());
+        }
+    }
+
+    private void release(Entry entry) {
+        Path trash;
+        synchronized (this) {
+            entry.leases--;
+            if (!entry.retired || entry.leases > 0) return;
+            String hash = entry.artifact.hash();
+            retired.remove(hash, entry);
+            // A newer entry may already occupy the same content-addressed directory
+            if (entries.containsKey(hash)) return;
+            trash = store.detach(entry.artifact.dir());
+        }
+        store.delete(trash);
+    }
+
+    private static final class Entry {
+        final ArtifactStore.Artifact artifact;
+        volatile boolean verified;
+        volatile ArtifactMetadata metadata;
+        int leases;
+        boolean retired;
+
+        Entry(ArtifactStore.Artifact artifact, boolean verified) {
+            this.artifact = artifact;
+            this.verified = verified;
+        }
+
+        long bytes() {
+            return artifact.bytes();
+        }
+    }
+
+    /**
+     * Keeps a cached directory on disk while a compile result is being used.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public String hash() {
+            return entry.artifact.hash();
+        }
+
+        public Path dir() {
+            return entry.artifact.dir();
+        }
+
+        /** What the artifact contains; read from its directory once, then kept with the entry. */
+        public ArtifactMetadata metadata() throws IOException {
+            ArtifactMetadata metadata = entry.metadata;
+            if (metadata == null) {
+                metadata = ArtifactMetadata.read(dir());
+                entry.metadata = metadata;
+            }
+            return metadata;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+            }
+            release(entry);
+        }
+    }
+}
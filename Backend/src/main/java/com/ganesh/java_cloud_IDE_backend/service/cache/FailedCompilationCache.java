@@ -0,0 +1,72 @@
+package com.ganesh.java_cloud_IDE_backend.service.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived memory of sources known not to compile, so a broken snippet resubmitted in a loop
+ * gets its diagnostics replayed instead of being recompiled every time.
+ */
+@Component
+public class FailedCompilationCache {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+
+    public FailedCompilationCache(@Value("${execution.cache.failure-ttl-seconds:30}") long ttlSeconds,
+                                  @Value("${execution.cache.failure-max-entries:1000}") int maxEntries) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Diagnostics of a recent failed compile of {@code hash}, or null.
+     */
+    public String get(String hash) {
+        Failure failure = failures.get(hash);
+        if (failure == null) return null;
+        if (failure.expiresAt < System.currentTimeMillis()) {
+            failures.remove(hash, failure);
+            return null;
+        }
+        hits.incrementAndGet();
+        return failure.diagnostics;
+    }
+
+    public void put(String hash, String diagnostics) {
+        if (ttlMillis <= 0) return;
+        if (failures.size() >= maxEntries) {
+            prune();
+        }
+        failures.put(hash, new Failure(diagnostics, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public int size() {
+        return failures.size();
+    }
+
+    private void prune() {
+        long now = System.currentTimeMillis();
+        failures.values().removeIf(f -> f.expiresAt < now);
+        // Still full of live entries: drop arbitrary ones, they are cheap to recompute
+        Iterator<String> it = failures.keySet().iterator();
+        while (failures.size() >= maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private record Failure(String diagnostics, long expiresAt) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.ganesh.java_cloud_IDE_backend.service.cache;
+
+import java.util.List;
+
+/**
+ * A request refers to blobs by hash that the {@link BlobStore} does not have; the client should
+ * upload them and retry.
+ */
+public class MissingBlobsException extends RuntimeException {
+
+    private final List<String> missing;
+
+    public MissingBlobsException(List<String> missing) {
+        super("Missing blobs, upload them and retry: " + String.join(", ", missing));
+        this.missing = List.copyOf(missing);
+    }
+
+    public List<String> missing() {
+        return missing;
+    }
+}
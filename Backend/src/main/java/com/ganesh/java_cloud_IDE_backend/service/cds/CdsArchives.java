@@ -0,0 +1,382 @@
+package com.ganesh.java_cloud_IDE_backend.service.cds;
+
+import com.ganesh.java_cloud_IDE_backend.service.SourceHasher;
+import com.ganesh.java_cloud_IDE_backend.service.docker.ContainerPool;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Class Data Sharing archives for the JVMs that run user programs.
+ *
+ * <p>A base archive holds the JDK classes typical programs load; it is built from the class list
+ * of {@link CdsTraining} once per JDK (the file name carries a hash of {@code java -version}) and
+ * reused across restarts. When Docker is available a second base archive is built inside a
+ * sandbox container, because an archive only works with the JVM that dumped it. A builder
+ * container writes it to a directory of its own, which the pooled containers mount read-only, so
+ * no program can replace the archive that later runs map.
+ *
+ * <p>With {@code per-artifact} enabled, the second local run of a compiled artifact also dumps a
+ * dynamic archive of the artifact's own classes, used by all later local runs of it. The JVM only
+ * archives classes loaded from jars, so those runs use a jar of the artifact as class path.
+ *
+ * <p>Startup savings are measured once per base archive, by timing the training program with
+ * and without it, and reported with every run that uses the archive.
+ */
+@Component
+public class CdsArchives {
+
+    private static final int CALIBRATION_RUNS = 3;
+    private static final int MAX_TRACKED_ARTIFACTS = 10_000;
+
+    private final boolean enabled;
+    private final boolean perArtifact;
+    private final int maxArtifactArchives;
+    private final Path dir;
+    private final Path artifactDir;
+    private final ContainerPool containerPool;
+
+    private volatile Archive local;
+    private volatile Archive container;
+    // Runs of artifacts that have no archive yet; the second run dumps one
+    private final ConcurrentHashMap<String, Integer> artifactRuns = new ConcurrentHashMap<>();
+    private final Set<String> dumping = ConcurrentHashMap.newKeySet();
+
+    public CdsArchives(@Value("${execution.cds.enabled:true}") boolean enabled,
+                       @Value("${execution.cds.per-artifact:false}") boolean perArtifact,
+                       @Value("${execution.cds.max-artifact-archives:200}") int maxArtifactArchives,
+                       @Value("${execution.cds.dir:${java.io.tmpdir}/java-cloud-ide/cds}") Path dir,
+                       ContainerPool containerPool) {
+        this.enabled = enabled;
+        this.perArtifact = perArtifact;
+        this.maxArtifactArchives = maxArtifactArchives;
+        this.dir = dir;
+        this.artifactDir = dir.resolve("artifacts");
+        this.containerPool = containerPool;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        Thread builder = new Thread(() -> {
+            try {
+                local = buildLocal();
+                System.out.println("cds: local base archive ready, ~" + local.savedMillis() + " ms saved per launch");
+            } catch (Exception e) {
+                System.err.println("cds: local base archive unavailable: " + e.getMessage());
+            }
+            if (containerPool.isAvailable()) {
+                try {
+                    container = buildInContainer();
+                    System.out.println("cds: container base archive ready, ~" + container.savedMillis() + " ms saved per launch");
+                } catch (Exception e) {
+                    System.err.println("cds: container base archive unavailable: " + e.getMessage());
+                }
+            }
+        }, "cds-archives");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /** Options for JVMs started on this host that run no particular artifact, e.g. warm runners. */
+    public List<String> localBaseOptions() {
+        Archive base = local;
+        return base == null ? List.of() : options(base.path());
+    }
+
+    /**
+     * Archive options for a JVM forked on this host to run the artifact in {@code classDir}. The
+     * returned launch must be told about the started process via {@link Launch#started}.
+     */
+    public Launch forLocalRun(Path classDir) {
+        Archive base = local;
+        if (base == null) return Launch.NONE;
+        if (!perArtifact || classDir == null) {
+            return new Launch(options(base.path()), "base", base.savedMillis(), null, null);
+        }
+
+        String hash = classDir.getFileName().toString();
+        Path archive = artifactDir.resolve(hash + ".jsa");
+        Path jar = artifactDir.resolve(hash + ".jar");
+        if (Files.isRegularFile(archive) && Files.isRegularFile(jar)) {
+            try {
+                Files.setLastModifiedTime(archive, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException ignored) {}
+            return new Launch(options(base.path() + File.pathSeparator + archive), "base+artifact", base.savedMillis(),
+                    jar.toString(), null);
+        }
+
+        if (artifactRuns.size() > MAX_TRACKED_ARTIFACTS) artifactRuns.clear();
+        if (artifactRuns.merge(hash, 1, Integer::sum) == 2 && dumping.add(hash)) {
+            try {
+                writeJar(classDir, jar);
+            } catch (IOException e) {
+                dumping.remove(hash);
+                return new Launch(options(base.path()), "base", base.savedMillis(), null, null);
+            }
+            Path pending = artifactDir.resolve(hash + ".jsa.tmp-" + System.nanoTime());
+            List<String> options = new ArrayList<>(options(base.path()));
+            options.add("-XX:ArchiveClassesAtExit=" + pending);
+            return new Launch(options, "base", base.savedMillis(), jar.toString(), process -> process.onExit().thenRun(() -> {
+                try {
+                    if (Files.isRegularFile(pending) && Files.size(pending) > 0) {
+                        Files.move(pending, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                        trimArtifactArchives();
+                    } else {
+                        // Killed or failed to dump; the counter is past 2 now, so it is not retried
+                        Files.deleteIfExists(jar);
+                    }
+                } catch (IOException e) {
+                    System.err.println("cds: failed to keep archive for " + hash.substring(0, 8) + ": " + e.getMessage());
+                } finally {
+                    try { Files.deleteIfExists(pending); } catch (IOException ignored) {}
+                    dumping.remove(hash);
+                }
+            }));
+        }
+        return new Launch(options(base.path()), "base", base.savedMillis(), null, null);
+    }
+
+    /** Archive options for a JVM started inside a sandbox container. */
+    public Launch forContainerRun() {
+        Archive base = container;
+        if (base == null) return Launch.NONE;
+        return new Launch(options(base.path()), "base", base.savedMillis(), null, null);
+    }
+
+    private Archive buildLocal() throws IOException, InterruptedException {
+        Files.createDirectories(artifactDir);
+        Path training = extractTraining(dir);
+        String key = SourceHasher.fileHash(run(List.of("java", "-version"))).substring(0, 12);
+        Path archive = dir.resolve("base-" + key + ".jsa");
+        if (!Files.isRegularFile(archive)) {
+            Path classList = dir.resolve("base-" + key + ".classlist");
+            Path pending = dir.resolve("base-" + key + ".jsa.tmp");
+            dump(Function.identity(), file -> Files.readString(Path.of(file)),
+                    training.toString(), classList.toString(), classList, pending.toString());
+            Files.move(pending, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        long saved = calibrate(Function.identity(), training.toString(), archive.toString());
+        return new Archive(archive.toString(), saved);
+    }
+
+    /**
+     * Same as {@link #buildLocal} but with every JVM run through {@code docker exec} in a builder
+     * container, reading and writing files through the CDS mount.
+     */
+    private Archive buildInContainer() throws Exception {
+        Path hostDir = Files.createDirectories(containerPool.cdsHostRoot());
+        extractTraining(hostDir);
+        String id = containerPool.createCdsBuilder();
+        try {
+            String containerDir = containerPool.cdsContainerRoot();
+            Function<List<String>, List<String>> inContainer = command -> containerPool.execCommand(id, containerDir, command);
+
+            String key = SourceHasher.fileHash(run(inContainer.apply(List.of("java", "-version")))).substring(0, 12);
+            String archive = containerDir + "/base-" + key + ".jsa";
+            if (!Files.isRegularFile(hostDir.resolve("base-" + key + ".jsa"))) {
+                String pending = "base-" + key + ".jsa.tmp";
+                dump(inContainer, file -> run(inContainer.apply(List.of("cat", file))),
+                        containerDir + "/training", containerDir + "/base-" + key + ".classlist",
+                        hostDir.resolve("base-" + key + ".classlist"), containerDir + "/" + pending);
+                Files.move(hostDir.resolve(pending), hostDir.resolve("base-" + key + ".jsa"),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            long saved = calibrate(inContainer, containerDir + "/training", archive);
+            return new Archive(archive, saved);
+        } finally {
+            containerPool.remove(id);
+        }
+    }
+
+    /**
+     * Dumps a static archive of the JDK's default class list plus the classes the training program
+     * loads. The archive has no application class path of its own, so it works with any {@code -cp}.
+     */
+    private void dump(Function<List<String>, List<String>> wrap, TextReader jvmFiles, String trainingClasspath,
+                      String classList, Path classListOnHost, String archive) throws IOException, InterruptedException {
+        run(wrap.apply(List.of("java", "-Xshare:off", "-XX:DumpLoadedClassList=" + classList,
+                "-cp", trainingClasspath, CdsTraining.class.getName())));
+
+        // The JDK's own list covers startup; without it the archive would hold less than the default one
+        String javaHome = null;
+        for (String line : run(wrap.apply(List.of("java", "-XshowSettings:properties", "-version"))).split("\\R")) {
+            if (line.strip().startsWith("java.home = ")) javaHome = line.strip().substring("java.home = ".length());
+        }
+        Set<String> classes = new LinkedHashSet<>();
+        if (javaHome != null) {
+            classes.addAll(jvmFiles.read(javaHome + "/lib/classlist").lines().toList());
+        }
+        // Keep JDK classes only: the training class itself is not on the runtime class path
+        String trainingClass = CdsTraining.class.getName().replace('.', '/');
+        Files.readAllLines(classListOnHost).stream()
+                .filter(line -> !line.contains(trainingClass))
+                .forEach(classes::add);
+        Files.write(classListOnHost.resolveSibling(classListOnHost.getFileName() + ".jdk"), classes);
+        // Heap objects (e.g. the module graph) are only archived when dumping with G1, which small
+        // machines would not pick on their own; any collector can use them at run time
+        run(wrap.apply(List.of("java", "-XX:+UseG1GC", "-Xshare:dump", "-XX:SharedClassListFile=" + classList + ".jdk",
+                "-XX:SharedArchiveFile=" + archive)));
+    }
+
+    private long calibrate(Function<List<String>, List<String>> wrap, String trainingClasspath, String archive)
+            throws IOException, InterruptedException {
+        List<String> plain = List.of("java", "-cp", trainingClasspath, CdsTraining.class.getName());
+        List<String> shared = new ArrayList<>(List.of("java"));
+        shared.addAll(options(archive));
+        shared.addAll(plain.subList(1, plain.size()));
+        long without = medianMillis(wrap.apply(plain));
+        long with = medianMillis(wrap.apply(shared));
+        return Math.max(0, without - with);
+    }
+
+    private static long medianMillis(List<String> command) throws IOException, InterruptedException {
+        long[] times = new long[CALIBRATION_RUNS];
+        for (int i = 0; i < times.length; i++) {
+            long start = System.nanoTime();
+            run(command);
+            times[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        Arrays.sort(times);
+        return times[times.length / 2];
+    }
+
+    private void trimArtifactArchives() throws IOException {
+        List<Path> archives;
+        try (var stream = Files.list(artifactDir)) {
+            archives = stream.filter(p -> p.toString().endsWith(".jsa")).toList();
+        }
+        if (archives.size() <= maxArtifactArchives) return;
+        List<Path> oldestFirst = new ArrayList<>(archives);
+        oldestFirst.sort(Comparator.comparing(p -> p.toFile().lastModified()));
+        for (Path p : oldestFirst.subList(0, archives.size() - maxArtifactArchives)) {
+            Files.deleteIfExists(p);
+            Files.deleteIfExists(p.resolveSibling(p.getFileName().toString().replace(".jsa", ".jar")));
+        }
+    }
+
+    /** Packs the class files of an artifact; the jar must not change once an archive refers to it. */
+    private static void writeJar(Path classDir, Path jar) throws IOException {
+        if (Files.isRegularFile(jar)) return;
+        Path pending = jar.resolveSibling(jar.getFileName() + ".tmp-" + System.nanoTime());
+        List<Path> classes;
+        try (var stream = Files.walk(classDir)) {
+            classes = stream.filter(p -> p.toString().endsWith(".class")).sorted().toList();
+        }
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(pending))) {
+            for (Path file : classes) {
+                out.putNextEntry(new JarEntry(classDir.relativize(file).toString().replace('\\', '/')));
+                Files.copy(file, out);
+                out.closeEntry();
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(pending);
+            throw e;
+        }
+        Files.move(pending, jar, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Writes the training class under {@code root/training} and returns that class path entry. */
+    private static Path extractTraining(Path root) throws IOException {
+        Path classpath = root.resolve("training");
+        String resource = CdsTraining.class.getName().replace('.', '/') + ".class";
+        Path target = classpath.resolve(resource);
+        Files.createDirectories(target.getParent());
+        try (InputStream in = CdsTraining.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) throw new IOException("Missing " + resource);
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return classpath;
+    }
+
+    private static List<String> options(String sharedArchiveFile) {
+        // cds warnings go to stdout by default and would end up in the program's output
+        return List.of("-XX:SharedArchiveFile=" + sharedArchiveFile, "-Xshare:auto", "-Xlog:cds*=off");
+    }
+
+    private static String run(List<String> command) throws IOException, InterruptedException {
+        // Into a file rather than a pipe, so waiting for the output cannot outlast the timeout
+        Path log = Files.createTempFile("cds-", ".log");
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+            if (!process.waitFor(120, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("timed out: " + String.join(" ", command));
+            }
+            String output = new String(Files.readAllBytes(log));
+            if (process.exitValue() != 0) {
+                throw new IOException("exit " + process.exitValue() + " from " + command.getFirst() + ": " + output.strip());
+            }
+            return output;
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+
+    private record Archive(String path, long savedMillis) {
+    }
+
+    /** Reads a file as seen by the JVM being archived, which may live in a container. */
+    private interface TextReader {
+        String read(String path) throws IOException, InterruptedException;
+    }
+
+    /**
+     * JVM options for one launch and what they bring: {@code archive} is "base", "base+artifact"
+     * or null, {@code savedMillis} the measured saving of the base archive.
+     */
+    public static final class Launch {
+        static final Launch NONE = new Launch(List.of(), null, null, null, null);
+
+        private final List<String> options;
+        private final String archive;
+        private final Long savedMillis;
+        private final String classpath;
+        private final Consumer<Process> onStart;
+
+        private Launch(List<String> options, String archive, Long savedMillis, String classpath, Consumer<Process> onStart) {
+            this.options = options;
+            this.archive = archive;
+            this.savedMillis = savedMillis;
+            this.classpath = classpath;
+            this.onStart = onStart;
+        }
+
+        public List<String> options() {
+            return options;
+        }
+
+        /** Class path to launch with: the artifact's jar for artifact archives, else {@code classDir}. */
+        public String classpath(Path classDir) {
+            return classpath != null ? classpath : classDir.toString();
+        }
+
+        public String archive() {
+            return archive;
+        }
+
+        public Long savedMillis() {
+            return savedMillis;
+        }
+
+        /** Must be called with the process started with {@link #options()}. */
+        public void started(Process process) {
+            if (onStart != null) onStart.accept(process);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.ganesh.java_cloud_IDE_backend.service.cds;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Training program for the base CDS archive: touches the library classes typical user programs
+ * load (Scanner, readers, collections, streams, formatting) so they end up in the class list.
+ *
+ * <p>Copied out of the backend and run on its own, so it may only use the JDK.
+ */
+public final class CdsTraining {
+
+    private CdsTraining() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Scanner scanner = new Scanner("3 4.5 word\nline two\n");
+        long sink = scanner.nextInt() + (long) scanner.nextDouble() + scanner.next().length();
+        scanner.nextLine();
+        sink += scanner.hasNextLine() ? scanner.nextLine().length() : 0;
+
+        BufferedReader reader = new BufferedReader(new StringReader("1 2 3\n"));
+        StringTokenizer tokens = new StringTokenizer(reader.readLine());
+        while (tokens.hasMoreTokens()) sink += Integer.parseInt(tokens.nextToken());
+
+        List<Integer> list = IntStream.rangeClosed(1, 50).boxed().collect(Collectors.toList());
+        Collections.sort(list, Comparator.reverseOrder());
+        Map<Boolean, List<Integer>> parts = list.stream().collect(Collectors.partitioningBy(n -> n % 2 == 0));
+        Map<Integer, Long> counts = list.stream()
+                .collect(Collectors.groupingBy(n -> n % 5, TreeMap::new, Collectors.counting()));
+        Set<Integer> set = new HashSet<>(list);
+        Deque<Integer> deque = new ArrayDeque<>(list);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(list);
+        Map<String, Integer> linked = new LinkedHashMap<>();
+        linked.put("a", 1);
+        int[] array = list.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(array);
+        sink += parts.size() + counts.size() + set.size() + deque.size() + heap.size() + linked.size()
+                + Arrays.stream(array).sum() + new LinkedList<>(list).size() + new TreeSet<>(list).size();
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10; i++) text.append(i).append(' ');
+        String formatted = String.format("%d %s %.3f %5s", sink, text.toString().trim(), Math.PI, "x");
+        System.out.println(formatted.length() + String.join(",", formatted.split(" ")).length()
+                + Objects.hash(sink, new Random(1).nextInt(10), Optional.of(1).orElse(0)));
+        System.out.printf("%s%n", String.valueOf(Math.max(sink, 0)).isEmpty());
+    }
+}
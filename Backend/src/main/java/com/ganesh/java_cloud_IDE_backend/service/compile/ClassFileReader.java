@@ -0,0 +1,156 @@
+package com.ganesh.java_cloud_IDE_backend.service.compile;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Minimal class-file parser: reads the constant pool and member descriptors to find which other
+ * classes a compiled class refers to, and whether it declares a launchable {@code main}. Only what
+ * the incremental build and the artifact metadata need is decoded.
+ */
+public final class ClassFileReader {
+
+    private final String className;
+    private final String sourceFile;
+    private final Set<String> referencedClasses;
+    private final boolean hasMainMethod;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final String MAIN_DESCRIPTOR = "([Ljava/lang/String;)V";
+
+    private ClassFileReader(String className, String sourceFile, Set<String> referencedClasses, boolean hasMainMethod) {
+        this.className = className;
+        this.sourceFile = sourceFile;
+        this.referencedClasses = referencedClasses;
+        this.hasMainMethod = hasMainMethod;
+    }
+
+    public static ClassFileReader read(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort(); // minor
+        in.readUnsignedShort(); // major
+
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classIndex = new int[count];
+        int[] descriptorIndex = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1 -> utf8[i] = in.readUTF();
+                case 7 -> classIndex[i] = in.readUnsignedShort();
+                case 12 -> {
+                    in.readUnsignedShort();
+                    descriptorIndex[i] = in.readUnsignedShort();
+                }
+                case 8, 16, 19, 20 -> in.readUnsignedShort();
+                case 15 -> in.skipBytes(3);
+                case 3, 4, 9, 10, 11, 17, 18 -> in.readInt();
+                case 5, 6 -> {
+                    in.readLong();
+                    i++; // long and double take two slots
+                }
+                default -> throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        Set<String> referenced = new TreeSet<>();
+        for (int i = 1; i < count; i++) {
+            if (classIndex[i] != 0) addClassName(utf8[classIndex[i]], referenced);
+            if (descriptorIndex[i] != 0) addDescriptor(utf8[descriptorIndex[i]], referenced);
+        }
+
+        in.readUnsignedShort(); // access flags
+        String thisClass = utf8[classIndex[in.readUnsignedShort()]];
+        in.readUnsignedShort(); // super class, already in the pool
+        in.skipBytes(2 * in.readUnsignedShort()); // interfaces, already in the pool
+
+        boolean hasMainMethod = false;
+        for (int members = 0; members < 2; members++) { // fields, then methods
+            int memberCount = in.readUnsignedShort();
+            for (int m = 0; m < memberCount; m++) {
+                int access = in.readUnsignedShort();
+                String name = utf8[in.readUnsignedShort()];
+                String descriptor = utf8[in.readUnsignedShort()];
+                addDescriptor(descriptor, referenced);
+                skipAttributes(in);
+                if (members == 1 && "main".equals(name) && MAIN_DESCRIPTOR.equals(descriptor)
+                        && (access & (ACC_PUBLIC | ACC_STATIC)) == (ACC_PUBLIC | ACC_STATIC)) {
+                    hasMainMethod = true;
+                }
+            }
+        }
+
+        String sourceFile = null;
+        int attributes = in.readUnsignedShort();
+        for (int a = 0; a < attributes; a++) {
+            String name = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if ("SourceFile".equals(name)) {
+                sourceFile = utf8[in.readUnsignedShort()];
+            } else {
+                in.skipBytes(length);
+            }
+        }
+
+        String binaryName = thisClass.replace('/', '.');
+        referenced.remove(binaryName);
+        return new ClassFileReader(binaryName, sourceFile, referenced, hasMainMethod);
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int a = 0; a < attributes; a++) {
+            in.readUnsignedShort();
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    /** Class entries hold either an internal name or an array descriptor. */
+    private static void addClassName(String name, Set<String> out) {
+        if (name == null) return;
+        if (name.startsWith("[")) {
+            addDescriptor(name, out);
+        } else {
+            out.add(name.replace('/', '.'));
+        }
+    }
+
+    /** Pulls every {@code Lpkg/Name;} out of a field or method descriptor. */
+    private static void addDescriptor(String descriptor, Set<String> out) {
+        if (descriptor == null) return;
+        int i = descriptor.indexOf('L');
+        while (i >= 0) {
+            int end = descriptor.indexOf(';', i);
+            if (end < 0) return;
+            out.add(descriptor.substring(i + 1, end).replace('/', '.'));
+            i = descriptor.indexOf('L', end);
+        }
+    }
+
+    /** Binary name, e.g. {@code com.example.Outer$Inner}. */
+    public String className() {
+        return className;
+    }
+
+    /** Value of the SourceFile attribute (file name only), or null when compiled without it. */
+    public String sourceFile() {
+        return sourceFile;
+    }
+
+    public Set<String> referencedClasses() {
+        return referencedClasses;
+    }
+
+    /** Whether the class declares {@code public static void main(String[])}, i.e. can be launched. */
+    public boolean hasMainMethod() {
+        return hasMainMethod;
+    }
+}
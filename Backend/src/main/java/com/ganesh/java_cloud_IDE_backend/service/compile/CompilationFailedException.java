@@ -0,0 +1,24 @@
+package com.ganesh.java_cloud_IDE_backend.service.compile;
+
+/**
+ * The submitted sources do not compile; the message carries javac's diagnostics. With
+ * {@link #compilerError()}, the compiler gave no verdict and the message says why.
+ */
+public class CompilationFailedException extends RuntimeException {
+
+    private final boolean compilerError;
+
+    public CompilationFailedException(String diagnostics) {
+        this(diagnostics, false);
+    }
+
+    public CompilationFailedException(String message, boolean compilerError) {
+        super(message);
+        this.compilerError = compilerError;
+    }
+
+    /** True when the failure says nothing about the sources, e.g. the compiler timed out. */
+    public boolean compilerError() {
+        return compilerError;
+    }
+}
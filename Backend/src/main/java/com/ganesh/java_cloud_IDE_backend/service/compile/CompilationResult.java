@@ -0,0 +1,47 @@
+package com.ganesh.java_cloud_IDE_backend.service.compile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Outcome of a single compile: class bytes keyed by binary class name, the source path each class
+ * was generated from, javac-style diagnostics and the time spent inside the compiler.
+ *
+ * @param compilerError the compiler gave no verdict on the sources (timed out, was interrupted,
+ *                      crashed or did not start), so {@code diagnostics} only says why
+ */
+public record CompilationResult(boolean success, Map<String, byte[]> classFiles, Map<String, String> classOrigins,
+                                String diagnostics, long elapsedNanos, boolean compilerError) {
+
+    public CompilationResult(boolean success, Map<String, byte[]> classFiles, Map<String, String> classOrigins,
+                             String diagnostics, long elapsedNanos) {
+        this(success, classFiles, classOrigins, diagnostics, elapsedNanos, false);
+    }
+
+    /** The sources do not compile; {@code diagnostics} are javac's. */
+    public static CompilationResult failure(String diagnostics, long elapsedNanos) {
+        return new CompilationResult(false, Map.of(), Map.of(), diagnostics, elapsedNanos, false);
+    }
+
+    /** The compiler could not judge the sources; compiling them again may well succeed. */
+    public static CompilationResult error(String message, long elapsedNanos) {
+        return new CompilationResult(false, Map.of(), Map.of(), message, elapsedNanos, true);
+    }
+
+    public long elapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    /**
+     * Writes every class file under {@code outputDir} using the usual package directory layout.
+     */
+    public void writeTo(Path outputDir) throws IOException {
+        for (Map.Entry<String, byte[]> entry : classFiles.entrySet()) {
+            Path classFile = outputDir.resolve(entry.getKey().replace('.', '/') + ".class");
+            Files.createDirectories(classFile.getParent());
+            Files.write(classFile, entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.ganesh.java_cloud_IDE_backend.service.compile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The original compile path: write sources to a temp dir and fork a {@code javac} process.
+ * Kept for JRE-only deployments and as a baseline for the in-process compiler.
+ */
+public class ForkedJavacCompiler implements JavaSourceCompiler {
+
+    private final Duration timeout;
+
+    public ForkedJavacCompiler() {
+        this(Duration.ofSeconds(30));
+    }
+
+    public ForkedJavacCompiler(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public CompilationResult compile(Map<String, String> sources, List<Path> classpath) {
+        long start = System.nanoTime();
+        Path workDir = null;
+        try {
+            workDir = Files.createTempDirectory("javac-fork-");
+            Path srcDir = Files.createDirectories(workDir.resolve("src"));
+            Path outDir = Files.createDirectories(workDir.resolve("out"));
+
+            List<String> command = new ArrayList<>(List.of("javac", "-proc:none", "-implicit:none", "-sourcepath", "",
+                    "-d", outDir.toString()));
+            if (!classpath.isEmpty()) {
+                command.add("-cp");
+                command.add(classpath.stream().map(Path::toString).collect(Collectors.joining(java.io.File.pathSeparator)));
+            }
+            for (Map.Entry<String, String> source : sources.entrySet()) {
+                Path file = srcDir.resolve(source.getKey());
+                Files.createDirectories(file.getParent());
+                Files.writeString(file, source.getValue());
+                command.add(file.toString());
+            }
+
+            ProcessBuilder pb = new ProcessBuilder(command);
+            pb.directory(srcDir.toFile());
+            pb.redirectErrorStream(true);
+            // Into a file rather than a pipe, so waiting for the output cannot outlast the timeout
+            Path log = workDir.resolve("javac.log");
+            pb.redirectOutput(log.toFile());
+            Process process = pb.start();
+
+            if (!process.waitFor(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                process.destroyForcibly();
+                return CompilationResult.error("Compilation timed out", System.nanoTime() - start);
+            }
+            String output = Files.readString(log, StandardCharsets.UTF_8);
+            // Report paths relative to the project, like the in-process compiler does
+            output = output.replace(srcDir + java.io.File.separator, "");
+            if (process.exitValue() != 0) {
+                return CompilationResult.failure(output, System.nanoTime() - start);
+            }
+
+            Map<String, byte[]> classFiles = new HashMap<>();
+            try (var stream = Files.walk(outDir)) {
+                for (Path classFile : stream.filter(p -> p.toString().endsWith(".class")).toList()) {
+                    String relative = outDir.relativize(classFile).toString();
+                    String className = relative.substring(0, relative.length() - ".class".length())
+                            .replace(java.io.File.separatorChar, '.');
+                    classFiles.put(className, Files.readAllBytes(classFile));
+                }
+            }
+            return new CompilationResult(true, classFiles, originsOf(classFiles, sources.keySet()), output,
+                    System.nanoTime() - start);
+        } catch (IOException e) {
+            return CompilationResult.error("javac failed to start: " + e.getMessage(), System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompilationResult.error("Compilation interrupted", System.nanoTime() - start);
+        } finally {
+            if (workDir != null) {
+                deleteDirectory(workDir);
+            }
+        }
+    }
+
+    /**
+     * javac does not say which source produced which class, so match the SourceFile attribute and
+     * package of every class against the submitted paths.
+     */
+    private Map<String, String> originsOf(Map<String, byte[]> classFiles, Set<String> sourcePaths) {
+        Map<String, String> origins = new HashMap<>();
+        for (Map.Entry<String, byte[]> entry : classFiles.entrySet()) {
+            try {
+                String sourceFile = ClassFileReader.read(entry.getValue()).sourceFile();
+                if (sourceFile == null) continue;
+                String className = entry.getKey();
+                String packageDir = className.contains(".")
+                        ? className.substring(0, className.lastIndexOf('.')).replace('.', '/') + "/" : "";
+                String best = null;
+                for (String path : sourcePaths) {
+                    String normalized = path.replace('\\', '/');
+                    if (normalized.equals(sourceFile) || normalized.endsWith("/" + sourceFile)) {
+                        if (best == null || normalized.endsWith(packageDir + sourceFile)) best = path;
+                    }
+                }
+                if (best != null) origins.put(className, best);
+            } catch (IOException ignored) {}
+        }
+        return origins;
+    }
+
+    @Override
+    public String mode() {
+        return "forked";
+    }
+
+    private void deleteDirectory(Path dir) {
+        try (var stream = Files.walk(dir)) {
+            stream.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try { Files.deleteIfExists(p); }
+                catch (IOException ignored) {}
+            });
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,277 @@
+package com.ganesh.java_cloud_IDE_backend.service.compile;
+
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compiles inside the backend JVM through {@code javax.tools}. Sources are read from memory and
+ * class bytes are collected in memory, so a compile costs no process fork and no disk I/O.
+ *
+ * <p>The {@link JavaCompiler} instance and a small pool of {@link StandardJavaFileManager}s are kept
+ * for the lifetime of the service: the file managers cache the platform class index, which is the
+ * expensive part of a cold javac start. A file manager is not thread-safe, so each compile borrows
+ * one from the pool.
+ *
+ * <p>A compile is bounded by {@code timeout}, waiting for a file manager included. javac runs on a
+ * worker thread; when the caller gives up, javac is stopped at its next phase event and its file
+ * manager is replaced in the pool, so a pathological source cannot use up the pool.
+ */
+public class InMemoryJavaCompiler implements JavaSourceCompiler {
+
+    private static final List<String> OPTIONS = List.of("-proc:none", "-encoding", "UTF-8");
+    private static final String WARMUP_SOURCE =
+            "public class Warmup { public static void main(String[] a) { System.out.println(java.util.List.of(a).size()); } }";
+
+    private final JavaCompiler compiler;
+    private final BlockingQueue<StandardJavaFileManager> fileManagers;
+    private final Duration timeout;
+    private final ExecutorService compileThreads = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "javac");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public InMemoryJavaCompiler() {
+        this(Duration.ofSeconds(30));
+    }
+
+    public InMemoryJavaCompiler(Duration timeout) {
+        this.timeout = timeout;
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No system Java compiler available (running on a JRE?)");
+        }
+        int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors());
+        this.fileManagers = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            fileManagers.offer(newFileManager());
+        }
+
+        // Load and JIT the compiler before the first user request arrives
+        Thread warmup = new Thread(() -> compile(Map.of("Warmup.java", WARMUP_SOURCE), List.of()), "javac-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
+
+    @Override
+    public CompilationResult compile(Map<String, String> sources, List<Path> classpath) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        StandardJavaFileManager standard;
+        try {
+            standard = fileManagers.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompilationResult.error("Compilation interrupted", System.nanoTime() - start);
+        }
+        if (standard == null) {
+            return CompilationResult.error("Compilation timed out waiting for the compiler", System.nanoTime() - start);
+        }
+
+        // Set by whichever comes first: the compile finishing or the caller giving up on it
+        AtomicBoolean settled = new AtomicBoolean();
+        Future<CompilationResult> task = compileThreads.submit(() -> {
+            try {
+                return compile(standard, sources, classpath, settled, start);
+            } finally {
+                if (settled.compareAndSet(false, true)) {
+                    fileManagers.offer(standard);
+                } else {
+                    close(standard);
+                }
+            }
+        });
+        try {
+            return task.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return abandon(task, settled, "Compilation timed out", start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return abandon(task, settled, "Compilation interrupted", start);
+        } catch (ExecutionException e) {
+            // An Error out of javac, e.g. StackOverflowError on deeply nested expressions
+            return CompilationResult.error("Compiler error: " + e.getCause(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Gives up on a running compile: javac is told to stop and a fresh file manager takes the place
+     * of the one it holds. If the compile finished meanwhile, its result is returned after all.
+     */
+    private CompilationResult abandon(Future<CompilationResult> task, AtomicBoolean settled, String reason, long start) {
+        if (!settled.compareAndSet(false, true)) {
+            try {
+                return task.get();
+            } catch (InterruptedException | ExecutionException ignored) {
+                // Fall through and report the reason
+            }
+        } else {
+            task.cancel(true);
+            fileManagers.offer(newFileManager());
+        }
+        return CompilationResult.error(reason, System.nanoTime() - start);
+    }
+
+    private CompilationResult compile(StandardJavaFileManager standard, Map<String, String> sources, List<Path> classpath,
+                                      AtomicBoolean abandoned, long start) {
+        try {
+            // Options passed to a task mutate the file manager, so always reset the classpath explicitly
+            standard.setLocationFromPaths(StandardLocation.CLASS_PATH, classpath);
+            standard.setLocationFromPaths(StandardLocation.SOURCE_PATH, List.of());
+
+            List<JavaFileObject> units = new ArrayList<>(sources.size());
+            sources.forEach((path, content) -> units.add(new SourceObject(path, content)));
+
+            Map<String, byte[]> classFiles = new ConcurrentHashMap<>();
+            Map<String, String> classOrigins = new ConcurrentHashMap<>();
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            try (MemoryFileManager fileManager = new MemoryFileManager(standard, classFiles, classOrigins)) {
+                JavacTask task = (JavacTask) compiler.getTask(null, fileManager, diagnostics, OPTIONS, null, units);
+                task.addTaskListener(new TaskListener() {
+                    @Override
+                    public void started(TaskEvent e) {
+                        if (abandoned.get()) throw new CancellationException("Compilation abandoned");
+                    }
+                });
+                boolean success = task.call();
+                return new CompilationResult(success, classFiles, classOrigins, format(diagnostics), System.nanoTime() - start);
+            }
+        } catch (IOException | RuntimeException e) {
+            return CompilationResult.error("Compiler error: " + e.getMessage(), System.nanoTime() - start);
+        }
+    }
+
+    private StandardJavaFileManager newFileManager() {
+        return compiler.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8);
+    }
+
+    private static void close(StandardJavaFileManager fileManager) {
+        try {
+            fileManager.close();
+        } catch (IOException ignored) {}
+    }
+
+    @Override
+    public String mode() {
+        return "in-process";
+    }
+
+    /**
+     * Renders diagnostics the way command-line javac does: {@code File.java:3: error: message},
+     * followed by the offending line and a caret.
+     */
+    private String format(DiagnosticCollector<JavaFileObject> diagnostics) {
+        StringBuilder sb = new StringBuilder();
+        int errors = 0;
+        for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+            String kind = switch (d.getKind()) {
+                case ERROR -> "error";
+                case WARNING, MANDATORY_WARNING -> "warning";
+                default -> "note";
+            };
+            if (d.getKind() == Diagnostic.Kind.ERROR) errors++;
+
+            if (d.getSource() instanceof SourceObject source) {
+                sb.append(source.path).append(':').append(d.getLineNumber()).append(": ");
+                sb.append(kind).append(": ").append(d.getMessage(Locale.ROOT)).append('\n');
+                String line = source.line(d.getLineNumber());
+                if (line != null) {
+                    sb.append(line).append('\n');
+                    if (d.getColumnNumber() > 0) {
+                        sb.append(" ".repeat((int) d.getColumnNumber() - 1)).append("^\n");
+                    }
+                }
+            } else {
+                sb.append(kind).append(": ").append(d.getMessage(Locale.ROOT)).append('\n');
+            }
+        }
+        if (errors > 0) {
+            sb.append(errors).append(errors == 1 ? " error" : " errors").append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static final class SourceObject extends SimpleJavaFileObject {
+        private final String path;
+        private final String content;
+
+        SourceObject(String path, String content) {
+            super(URI.create("string:///" + path.replace('\\', '/')), Kind.SOURCE);
+            this.path = path;
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+
+        String line(long lineNumber) {
+            if (lineNumber < 1) return null;
+            return content.lines().skip(lineNumber - 1).findFirst().orElse(null);
+        }
+    }
+
+    private static final class ClassObject extends SimpleJavaFileObject {
+        private final String className;
+        private final Map<String, byte[]> sink;
+
+        ClassObject(String className, Map<String, byte[]> sink) {
+            super(URI.create("mem:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.className = className;
+            this.sink = sink;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    sink.put(className, toByteArray());
+                }
+            };
+        }
+    }
+
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Map<String, byte[]> classFiles;
+        private final Map<String, String> classOrigins;
+
+        MemoryFileManager(StandardJavaFileManager delegate, Map<String, byte[]> classFiles, Map<String, String> classOrigins) {
+            super(delegate);
+            this.classFiles = classFiles;
+            this.classOrigins = classOrigins;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                   JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+            if (kind == JavaFileObject.Kind.CLASS) {
+                // javac passes the source being compiled as the sibling of each generated class
+                if (sibling instanceof SourceObject source) {
+                    classOrigins.put(className, source.path);
+                }
+                return new ClassObject(className, classFiles);
+            }
+            return super.getJavaFileForOutput(location, className, kind, sibling);
+        }
+
+        @Override
+        public void close() {
+            // The underlying standard file manager is pooled and outlives this compile
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.ganesh.java_cloud_IDE_backend.service.compile;
+
+import com.ganesh.java_cloud_IDE_backend.service.SourceHasher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Recompiles only what changed since the previous build of the same project.
+ *
+ * <p>A project is identified by its set of file paths, so edits to file contents map to the same
+ * project while adding or removing a file starts a fresh build. For every project the last build's
+ * per-file hashes, the classes each file produced and a file-level dependency graph are kept. On
+ * the next build the changed files plus everything that transitively depends on them are
+ * recompiled against the previous build's class files; the class files of untouched sources are
+ * linked into the new output directory unchanged.
+ *
+ * <p>Dependencies come from two places: class references in the compiled bytecode, and simple
+ * class names mentioned in the source text. The latter catches uses javac erases from bytecode,
+ * such as inlined {@code static final} constants.
+ */
+@Component
+public class IncrementalCompiler {
+
+    private static final int MAX_PROJECTS = 512;
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+
+    private final JavaSourceCompiler compiler;
+    private final Map<String, BuildState> builds = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BuildState> eldest) {
+                    return size() > MAX_PROJECTS;
+                }
+            });
+
+    public IncrementalCompiler(JavaSourceCompiler compiler) {
+        this.compiler = compiler;
+    }
+
+    public String mode() {
+        return compiler.mode();
+    }
+
+    /**
+     * Compiles {@code sources} (path -> content) and writes all class files of the project into
+     * {@code outputDir}, reusing unchanged class files from the previous build where possible.
+     * A successful build only becomes the base for later ones once passed to {@link #remember}.
+     */
+    public Result compile(Map<String, String> sources, Path outputDir) throws IOException {
+        Map<String, String> fileHashes = new TreeMap<>();
+        sources.forEach((path, content) -> fileHashes.put(path, SourceHasher.fileHash(content)));
+        String projectKey = SourceHasher.projectHash(projectShape(fileHashes.keySet()));
+
+        BuildState previous = builds.get(projectKey);
+        if (previous != null && Files.isDirectory(previous.outputDir())) {
+            Set<String> changed = new TreeSet<>();
+            fileHashes.forEach((path, hash) -> {
+                if (!hash.equals(previous.fileHashes().get(path))) changed.add(path);
+            });
+            Set<String> dirty = previous.withDependents(changed);
+
+            if (dirty.size() < sources.size()) {
+                try {
+                    Result result = compileIncrementally(projectKey, sources, fileHashes, dirty, previous, outputDir);
+                    // A compiler that timed out on part of the project would not do better on all of it
+                    if (result.compilation().success() || result.compilation().compilerError()) {
+                        return result;
+                    }
+                } catch (IOException e) {
+                    // The previous build was evicted or is unreadable; fall through to a full build
+                }
+                clear(outputDir);
+            }
+        }
+
+        CompilationResult compilation = compiler.compile(sources, List.of());
+        if (!compilation.success()) {
+            return new Result(projectKey, compilation, sources.size(), sources.size(), null);
+        }
+        compilation.writeTo(outputDir);
+        BuildState state = buildState(outputDir, fileHashes, sources, compilation.classOrigins(), compilation.classFiles(), Map.of());
+        return new Result(projectKey, compilation, sources.size(), sources.size(), state);
+    }
+
+    /**
+     * Records a successful build as the base for the next build of the same project, once its
+     * output has reached its final location.
+     */
+    public void remember(Result result, Path outputDir) {
+        if (result.state() == null) return;
+        BuildState state = result.state();
+        builds.put(result.projectKey(), new BuildState(outputDir, state.fileHashes(), state.classesBySource(), state.dependencies()));
+    }
+
+    private Result compileIncrementally(String projectKey, Map<String, String> sources, Map<String, String> fileHashes, Set<String> dirty,
+                                        BuildState previous, Path outputDir) throws IOException {
+        // Bring over the classes of every clean source; they form the classpath of the partial compile
+        Map<String, String> classOrigins = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : previous.classesBySource().entrySet()) {
+            if (dirty.contains(entry.getKey())) continue;
+            for (String className : entry.getValue()) {
+                String relative = className.replace('.', '/') + ".class";
+                Path target = outputDir.resolve(relative);
+                Files.createDirectories(target.getParent());
+                linkOrCopy(previous.outputDir().resolve(relative), target);
+                classOrigins.put(className, entry.getKey());
+            }
+        }
+
+        Map<String, String> dirtySources = new LinkedHashMap<>();
+        dirty.forEach(path -> dirtySources.put(path, sources.get(path)));
+        CompilationResult compilation = dirtySources.isEmpty()
+                ? new CompilationResult(true, Map.of(), Map.of(), "", 0)
+                : compiler.compile(dirtySources, List.of(outputDir));
+        if (!compilation.success()) {
+            return new Result(projectKey, compilation, dirty.size(), sources.size(), null);
+        }
+        compilation.writeTo(outputDir);
+        classOrigins.putAll(compilation.classOrigins());
+
+        Map<String, Set<String>> cleanDependencies = new HashMap<>(previous.dependencies());
+        cleanDependencies.keySet().removeAll(dirty);
+        BuildState state = buildState(outputDir, fileHashes, sources, classOrigins, compilation.classFiles(), cleanDependencies);
+        return new Result(projectKey, compilation, dirty.size(), sources.size(), state);
+    }
+
+    /**
+     * Builds the dependency graph for the new output. Edges of clean sources are carried over from
+     * the previous build; recompiled sources are analysed from their fresh class files and text.
+     */
+    private BuildState buildState(Path outputDir, Map<String, String> fileHashes, Map<String, String> sources,
+                                  Map<String, String> classOrigins, Map<String, byte[]> freshClasses,
+                                  Map<String, Set<String>> carriedDependencies) {
+        Map<String, Set<String>> classesBySource = new HashMap<>();
+        Map<String, String> sourceBySimpleName = new HashMap<>();
+        classOrigins.forEach((className, path) -> {
+            classesBySource.computeIfAbsent(path, k -> new TreeSet<>()).add(className);
+            sourceBySimpleName.putIfAbsent(simpleName(className), path);
+        });
+
+        Map<String, Set<String>> dependencies = new HashMap<>(carriedDependencies);
+        for (Map.Entry<String, byte[]> entry : freshClasses.entrySet()) {
+            String from = classOrigins.get(entry.getKey());
+            if (from == null) continue;
+            Set<String> deps = dependencies.computeIfAbsent(from, k -> new TreeSet<>());
+            try {
+                for (String referenced : ClassFileReader.read(entry.getValue()).referencedClasses()) {
+                    String to = classOrigins.get(referenced);
+                    if (to != null && !to.equals(from)) deps.add(to);
+                }
+            } catch (IOException ignored) {}
+        }
+        for (String path : sources.keySet()) {
+            if (carriedDependencies.containsKey(path)) continue;
+            Set<String> deps = dependencies.computeIfAbsent(path, k -> new TreeSet<>());
+            Matcher m = IDENTIFIER.matcher(sources.get(path));
+            while (m.find()) {
+                String to = sourceBySimpleName.get(m.group());
+                if (to != null && !to.equals(path)) deps.add(to);
+            }
+        }
+        return new BuildState(outputDir, Map.copyOf(fileHashes), classesBySource, dependencies);
+    }
+
+    private static String simpleName(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        return name.substring(name.lastIndexOf('$') + 1);
+    }
+
+    private static Map<String, String> projectShape(Set<String> paths) {
+        Map<String, String> shape = new TreeMap<>();
+        paths.forEach(path -> shape.put(path, ""));
+        return shape;
+    }
+
+    private static void linkOrCopy(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void clear(Path dir) throws IOException {
+        try (var stream = Files.walk(dir)) {
+            for (Path p : stream.sorted(Comparator.reverseOrder()).toList()) {
+                if (!p.equals(dir)) Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * @param compiledFiles number of sources handed to javac
+     * @param totalFiles    number of sources in the project
+     * @param state         the build to remember for the next request, null when compilation failed
+     */
+    public record Result(String projectKey, CompilationResult compilation, int compiledFiles, int totalFiles, BuildState state) {
+    }
+
+    /**
+     * @param dependencies source path -> source paths it depends on
+     */
+    public record BuildState(Path outputDir, Map<String, String> fileHashes,
+                             Map<String, Set<String>> classesBySource, Map<String, Set<String>> dependencies) {
+
+        /** The given paths plus every source that transitively depends on one of them. */
+        Set<String> withDependents(Set<String> changed) {
+            Set<String> result = new TreeSet<>(changed);
+            Deque<String> queue = new ArrayDeque<>(changed);
+            while (!queue.isEmpty()) {
+                String path = queue.poll();
+                dependencies.forEach((from, deps) -> {
+                    if (deps.contains(path) && result.add(from)) queue.add(from);
+                });
+            }
+            return result;
+        }
+    }
+}
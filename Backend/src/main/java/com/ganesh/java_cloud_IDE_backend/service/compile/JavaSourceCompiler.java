@@ -0,0 +1,18 @@
+package com.ganesh.java_cloud_IDE_backend.service.compile;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles a set of in-memory sources (relative path -> content) into class bytes.
+ */
+public interface JavaSourceCompiler {
+
+    CompilationResult compile(Map<String, String> sources, List<Path> classpath);
+
+    /**
+     * Short name used in logs so the in-process and forked paths can be compared.
+     */
+    String mode();
+}
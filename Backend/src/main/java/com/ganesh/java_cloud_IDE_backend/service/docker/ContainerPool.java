@@ -0,0 +1,442 @@
+package com.ganesh.java_cloud_IDE_backend.service.docker;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of long-running sandbox containers that programs are exec'ed into.
+ *
+ * <p>The pool keeps between {@code min} and {@code max} containers. It grows when callers are
+ * waiting and no container is idle, and shrinks back to {@code min} once containers have been
+ * idle longer than the idle timeout. A background probe checks idle containers are still running
+ * and replaces dead ones; a container whose post-run reset fails is replaced as well.
+ *
+ * <p>Every container mounts a workspace directory of its own read-write, at /workspace, which
+ * {@link WorkspaceProvisioner} fills for each run. It is emptied after each run, and no other
+ * container can see it. The artifact store is not mounted: it holds every tenant's sources. The
+ * directory holding the container CDS archive is mounted read-only; only a separate builder
+ * container, which never runs user code, writes it (see {@link #createCdsBuilder}).
+ *
+ * <p>Pooled containers run as {@code user} (a numeric {@code uid:gid}, nobody by default) rather
+ * than whatever user the image names, so the host knows which uid runs programs; blank keeps the
+ * image's user.
+ *
+ * <p>The docker binary is configurable so tests and load tests can use a stand-in CLI.
+ */
+@Component
+public class ContainerPool {
+
+    private final String docker;
+    private final String image;
+    private final String user;
+    private final int minSize;
+    private final int maxSize;
+    private final Duration idleTimeout;
+    private final Duration probeInterval;
+    private final Path workspaceHostRoot;
+    private final String workspaceContainerRoot;
+    private final Path cdsHostRoot;
+    private final String cdsContainerRoot;
+
+    // Most recently used first, so surplus containers collect at the tail and age out
+    private final LinkedBlockingDeque<Container> idle = new LinkedBlockingDeque<>();
+    private final Map<String, Container> containers = new ConcurrentHashMap<>();
+    private final AtomicInteger starting = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong acquireTimeouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong replaced = new AtomicLong();
+
+    private final ExecutorService workers = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "container-pool-maintenance");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile boolean available;
+
+    public ContainerPool(@Value("${execution.docker.binary:docker}") String docker,
+                         @Value("${execution.docker.image:java-runner:25}") String image,
+                         @Value("${execution.docker.pool.min:1}") int minSize,
+                         @Value("${execution.docker.pool.max:4}") int maxSize,
+                         @Value("${execution.docker.pool.idle-timeout:2m}") Duration idleTimeout,
+                         @Value("${execution.docker.pool.probe-interval:15s}") Duration probeInterval,
+                         @Value("${execution.docker.workspace-root:/tmp/workspace}") Path workspaceHostRoot,
+                         @Value("${execution.cds.dir:${java.io.tmpdir}/java-cloud-ide/cds}") Path cdsRoot,
+                         @Value("${execution.docker.user:65534:65534}") String user) {
+        this.docker = docker;
+        this.image = image;
+        this.user = user.trim();
+        this.minSize = minSize;
+        this.maxSize = Math.max(minSize, maxSize);
+        this.idleTimeout = idleTimeout;
+        this.probeInterval = probeInterval;
+        this.workspaceHostRoot = workspaceHostRoot;
+        this.workspaceContainerRoot = "/workspace";
+        this.cdsHostRoot = cdsRoot.resolve("container").toAbsolutePath();
+        this.cdsContainerRoot = "/cds";
+    }
+
+    @PostConstruct
+    public void start() {
+        available = checkDockerAvailability();
+        if (!available) return;
+        try {
+            Files.createDirectories(workspaceHostRoot);
+            // Containers reach their own workspace through its mount; nobody needs to pass through the root
+            Files.setPosixFilePermissions(workspaceHostRoot, PosixFilePermissions.fromString("rwx------"));
+            deleteStaleWorkspaces();
+            // Created here rather than by the docker daemon, which would make it root-owned
+            Files.createDirectories(cdsHostRoot);
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("Failed to create workspace root: " + e.getMessage());
+        }
+        for (int i = 0; i < minSize; i++) {
+            grow();
+        }
+        long period = probeInterval.toMillis();
+        maintenance.scheduleWithFixedDelay(this::maintain, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Takes an idle container, waiting up to {@code timeout} for one. Returns null on timeout.
+     */
+    public String acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            Container container = idle.pollFirst();
+            if (container == null) {
+                growForWaiters();
+                container = idle.pollFirst(timeout, unit);
+            }
+            if (container == null) {
+                acquireTimeouts.incrementAndGet();
+                return null;
+            }
+            acquisitions.incrementAndGet();
+            return container.id;
+        } finally {
+            waiting.decrementAndGet();
+            long waited = System.nanoTime() - start;
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+    }
+
+    /**
+     * Resets a container after a run and returns it to the pool, replacing it if the reset fails.
+     */
+    public void release(String id) {
+        Container container = containers.get(id);
+        if (container == null) return;
+        if (reset(id)) {
+            container.lastUsed = System.nanoTime();
+            idle.offerFirst(container);
+        } else {
+            replace(container);
+        }
+    }
+
+    /**
+     * Command line that runs {@code command} inside container {@code id} with stdin attached.
+     */
+    public List<String> execCommand(String id, String workDir, List<String> command) {
+        List<String> cmd = new ArrayList<>(List.of(docker, "exec", "-i", "-w", workDir, id));
+        cmd.addAll(command);
+        return cmd;
+    }
+
+    /**
+     * Host directory mounted as the workspace of container {@code id}.
+     *
+     * @throws IllegalArgumentException if {@code id} is not a pooled container
+     */
+    public Path workspaceHostDir(String id) {
+        Container container = containers.get(id);
+        if (container == null) throw new IllegalArgumentException("Unknown container " + id);
+        return container.workspace;
+    }
+
+    public String workspaceContainerRoot() {
+        return workspaceContainerRoot;
+    }
+
+    /** The uid programs run as in pooled containers, or -1 if the image's user decides it. */
+    public int containerUid() {
+        String uid = user.contains(":") ? user.substring(0, user.indexOf(':')) : user;
+        try {
+            return Integer.parseInt(uid);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Host directory of the container CDS archive; see {@link #createCdsBuilder}. */
+    public Path cdsHostRoot() {
+        return cdsHostRoot;
+    }
+
+    public String cdsContainerRoot() {
+        return cdsContainerRoot;
+    }
+
+    /**
+     * Starts a container outside the pool that mounts the CDS directory read-write, and nothing
+     * else, with root as its user so the files it writes cannot be changed by the unprivileged
+     * user that runs programs. Only trusted commands may be exec'ed into it; remove it with
+     * {@link #remove} when done.
+     */
+    public String createCdsBuilder() throws Exception {
+        return startContainer("--user", "0",
+                "-v", cdsHostRoot + ":" + cdsContainerRoot);
+    }
+
+    /** Removes a container that is not part of the pool. */
+    public void remove(String id) {
+        run(10, docker, "rm", "-f", id);
+    }
+
+    public int idleCount() {
+        return idle.size();
+    }
+
+    public int size() {
+        return containers.size();
+    }
+
+    public int busyCount() {
+        return Math.max(0, containers.size() - idle.size());
+    }
+
+    public int waitingCount() {
+        return waiting.get();
+    }
+
+    public long acquisitions() {
+        return acquisitions.get();
+    }
+
+    public long acquireTimeouts() {
+        return acquireTimeouts.get();
+    }
+
+    public long totalWaitNanos() {
+        return totalWaitNanos.get();
+    }
+
+    public long maxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    public long replacedCount() {
+        return replaced.get();
+    }
+
+    /**
+     * One maintenance pass: replace dead idle containers, retire surplus idle ones, top up to
+     * the minimum and grow for queued callers.
+     */
+    void maintain() {
+        try {
+            long now = System.nanoTime();
+            for (Container container : List.copyOf(idle)) {
+                if (!isRunning(container.id)) {
+                    // Only act if nobody took it meanwhile
+                    if (idle.remove(container)) replace(container);
+                } else if (containers.size() > minSize
+                        && now - container.lastUsed > idleTimeout.toNanos()
+                        && idle.removeLastOccurrence(container)) {
+                    destroy(container);
+                }
+            }
+            while (containers.size() + starting.get() < minSize) {
+                grow();
+            }
+            growForWaiters();
+        } catch (Exception e) {
+            System.err.println("Container pool maintenance failed: " + e.getMessage());
+        }
+    }
+
+    private void growForWaiters() {
+        while (waiting.get() > starting.get() && containers.size() + starting.get() < maxSize) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        starting.incrementAndGet();
+        workers.submit(() -> {
+            try {
+                Container container = createContainer();
+                containers.put(container.id, container);
+                idle.offerFirst(container);
+            } catch (Exception e) {
+                System.err.println("Failed to create container: " + e.getMessage());
+            } finally {
+                starting.decrementAndGet();
+            }
+        });
+    }
+
+    private void replace(Container container) {
+        replaced.incrementAndGet();
+        destroy(container);
+        grow();
+    }
+
+    private void destroy(Container container) {
+        containers.remove(container.id);
+        workers.submit(() -> {
+            run(10, docker, "rm", "-f", container.id);
+            deleteTree(container.workspace);
+        });
+    }
+
+    private boolean checkDockerAvailability() {
+        boolean ok = run(5, docker, "--version");
+        if (ok) {
+            System.out.println("✅ Docker is available");
+        } else {
+            System.err.println("❌ Docker is not available - will use fallback mode");
+        }
+        return ok;
+    }
+
+    private Container createContainer() throws Exception {
+        Path workspace = Files.createDirectory(workspaceHostRoot.resolve("c-" + UUID.randomUUID()));
+        // Writable for the image's unprivileged user, whose uid the host does not know; the root
+        // above it is private, so only this container reaches it
+        workspace.toFile().setWritable(true, false);
+        try {
+            List<String> options = new ArrayList<>();
+            if (!user.isEmpty()) options.addAll(List.of("--user", user));
+            options.addAll(List.of(
+                    "-v", workspace.toAbsolutePath() + ":" + workspaceContainerRoot,
+                    "-v", cdsHostRoot + ":" + cdsContainerRoot + ":ro"));
+            String id = startContainer(options.toArray(String[]::new));
+            return new Container(id, workspace);
+        } catch (Exception e) {
+            deleteTree(workspace);
+            throw e;
+        }
+    }
+
+    /** Workspaces of containers from a previous run of the service, which stopped them on shutdown. */
+    private void deleteStaleWorkspaces() throws IOException {
+        try (var stream = Files.list(workspaceHostRoot)) {
+            stream.filter(dir -> dir.getFileName().toString().startsWith("c-")).forEach(ContainerPool::deleteTree);
+        }
+    }
+
+    private static void deleteTree(Path dir) {
+        try (var stream = Files.walk(dir)) {
+            stream.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try { Files.deleteIfExists(p); }
+                catch (IOException ignored) {}
+            });
+        } catch (IOException ignored) {}
+    }
+
+    private String startContainer(String... options) throws Exception {
+        List<String> command = new ArrayList<>(List.of(docker, "run", "-d", "-i",
+                "--cpus=0.5", "--memory=256m", "--network=none"));
+        command.addAll(List.of(options));
+        command.addAll(List.of("--tmpfs", "/tmp:rw,noexec,nosuid,size=50m", image, "tail", "-f", "/dev/null"));
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        Process process = pb.start();
+        String containerId;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            containerId = reader.readLine();
+        }
+        if (process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0 && containerId != null) {
+            return containerId.trim();
+        }
+        throw new RuntimeException("Docker startup failed");
+    }
+
+    /**
+     * Kills everything the previous run left behind inside the container (including a timed-out
+     * program, which outlives its {@code docker exec} client) and clears its /tmp and workspace.
+     * Files the program wrote into its workspace belong to the container's user, so they are
+     * removed from inside; the host removes what it put there itself.
+     */
+    private boolean reset(String id) {
+        return run(5, docker, "exec", id,
+                "sh", "-c", "kill -9 -1 2>/dev/null; rm -rf /tmp/* /tmp/.[!.]* "
+                        + workspaceContainerRoot + "/* " + workspaceContainerRoot + "/.[!.]* 2>/dev/null; true");
+    }
+
+    private boolean isRunning(String id) {
+        try {
+            Process inspect = new ProcessBuilder(docker, "inspect", "-f", "{{.State.Running}}", id)
+                    .redirectErrorStream(true).start();
+            String out = new String(inspect.getInputStream().readAllBytes()).trim();
+            return inspect.waitFor(5, TimeUnit.SECONDS) && inspect.exitValue() == 0 && out.equals("true");
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static boolean run(int timeoutSeconds, String... command) {
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            process.getInputStream().transferTo(OutputStream.nullOutputStream());
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintenance.shutdownNow();
+        for (String id : containers.keySet()) {
+            try { new ProcessBuilder(docker, "stop", id).start(); } catch (Exception ignored) {}
+        }
+        workers.shutdown();
+    }
+
+    private static final class Container {
+        final String id;
+        final Path workspace;
+        volatile long lastUsed = System.nanoTime();
+
+        Container(String id, Path workspace) {
+            this.id = id;
+            this.workspace = workspace;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.ganesh.java_cloud_IDE_backend.service.docker;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives a Docker run a working directory holding the compiled project: the artifact is put into
+ * the workspace of the container the run got, and the workspace is emptied again after the run.
+ *
+ * <p>In {@code link} mode (the default) the artifact's files are hard-linked into the workspace,
+ * so a run costs one link per file and no data is copied, however large the project. The linked
+ * files are shared with the cache, so they are made writable by their owner only, and links are
+ * used only when the container's user ({@link ContainerPool#containerUid}) is neither root nor
+ * the artifact's owner: the program can read the files and unlink them, but not write through
+ * them. Otherwise, and where the workspace root is on another filesystem than the cache, the
+ * files are copied.
+ *
+ * <p>In {@code copy} mode the files are always copied. In {@code reflink} mode they are cloned
+ * with {@code cp --reflink=auto}, which shares blocks on btrfs and XFS and copies elsewhere; if
+ * cp fails the files are copied here.
+ */
+@Component
+public class WorkspaceProvisioner {
+
+    private final ContainerPool containerPool;
+    private final String mode;
+
+    public WorkspaceProvisioner(ContainerPool containerPool,
+                                @Value("${execution.docker.workspace-mode:link}") String mode) {
+        this.containerPool = containerPool;
+        this.mode = mode.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param compiledDir   the cached artifact to run
+     * @param hostWorkspace host directory mounted as the workspace of the container the run got;
+     *                      see {@link ContainerPool#workspaceHostDir}
+     */
+    public Workspace provision(Path compiledDir, Path hostWorkspace) throws IOException {
+        Workspace workspace = new Workspace(containerPool.workspaceContainerRoot(), hostWorkspace);
+        if (mode.equals("link") && linkable(compiledDir)) {
+            if (linked(compiledDir, hostWorkspace)) return workspace;
+            workspace.close();
+        } else if (mode.equals("reflink")) {
+            if (cloned(compiledDir, hostWorkspace)) return workspace;
+            // Drop whatever cp got to before it failed
+            workspace.close();
+        }
+        copy(compiledDir, hostWorkspace, workspace);
+        return workspace;
+    }
+
+    /** Whether the container's user can neither override nor own the artifact's files. */
+    private boolean linkable(Path compiledDir) {
+        int uid = containerPool.containerUid();
+        if (uid <= 0) return false;
+        try {
+            return (Integer) Files.getAttribute(compiledDir, "unix:uid") != uid;
+        } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean linked(Path compiledDir, Path hostWorkspace) {
+        try (var stream = Files.walk(compiledDir)) {
+            for (Path source : (Iterable<Path>) stream::iterator) {
+                Path target = hostWorkspace.resolve(compiledDir.relativize(source).toString());
+                if (Files.isDirectory(source)) {
+                    Files.createDirectories(target);
+                    continue;
+                }
+                Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(source);
+                if (permissions.remove(PosixFilePermission.GROUP_WRITE) | permissions.remove(PosixFilePermission.OTHERS_WRITE)) {
+                    Files.setPosixFilePermissions(source, permissions);
+                }
+                Files.createLink(target, source);
+            }
+            return true;
+        } catch (IOException | UncheckedIOException | UnsupportedOperationException e) {
+            // e.g. the workspace root is on another filesystem than the cache
+            return false;
+        }
+    }
+
+    private static boolean cloned(Path compiledDir, Path hostWorkspace) {
+        try {
+            Process cp = new ProcessBuilder("cp", "-R", "--reflink=auto", compiledDir + "/.", hostWorkspace.toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (!cp.waitFor(30, TimeUnit.SECONDS)) {
+                cp.destroyForcibly();
+                return false;
+            }
+            return cp.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void copy(Path compiledDir, Path hostWorkspace, Workspace workspace) throws IOException {
+        try (var stream = Files.walk(compiledDir)) {
+            stream.forEach(source -> {
+                try {
+                    Path target = hostWorkspace.resolve(compiledDir.relativize(source));
+                    if (Files.isDirectory(source)) {
+                        Files.createDirectories(target);
+                    } else {
+                        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            workspace.close();
+            throw e;
+        }
+    }
+
+    private static void deleteContents(Path dir) {
+        try (var stream = Files.walk(dir)) {
+            stream.sorted(Comparator.reverseOrder())
+                    .filter(p -> !p.equals(dir))
+                    .forEach(p -> {
+                        try { Files.deleteIfExists(p); }
+                        catch (IOException ignored) {}
+                    });
+        } catch (IOException ignored) {}
+    }
+
+    /**
+     * @param containerDir working directory of the run inside the container
+     * @param hostCopy     container workspace holding the copy, emptied afterwards
+     */
+    public record Workspace(String containerDir, Path hostCopy) implements AutoCloseable {
+        @Override
+        public void close() {
+            if (hostCopy != null) deleteContents(hostCopy);
+        }
+    }
+}
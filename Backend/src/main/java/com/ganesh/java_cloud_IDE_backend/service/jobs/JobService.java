@@ -0,0 +1,299 @@
+package com.ganesh.java_cloud_IDE_backend.service.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ganesh.java_cloud_IDE_backend.model.BatchRequest;
+import com.ganesh.java_cloud_IDE_backend.model.ExecutionRequest;
+import com.ganesh.java_cloud_IDE_backend.model.ExecutionResponse;
+import com.ganesh.java_cloud_IDE_backend.model.JobResponse;
+import com.ganesh.java_cloud_IDE_backend.service.BatchExecutionService;
+import com.ganesh.java_cloud_IDE_backend.service.OptimizedJavaExecutionService;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ExecutionMetrics;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionRejectedException;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionScheduler;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executions submitted without waiting for them: the caller gets a job ID at once and collects
+ * the result later, by polling or through a completion callback.
+ *
+ * <p>Jobs run as {@link ExecutionScheduler.Priority#BATCH} work, since nobody sits in front of
+ * them. No request thread waits on a job; a single run is just a scheduler task, and a batch is
+ * driven from a virtual thread. Jobs are kept in memory, at most {@code max-jobs} of them, and
+ * dropped {@code ttl} after they finish. When the store is full the oldest finished job makes
+ * room; if none has finished, new jobs are rejected.
+ *
+ * <p>A callback URL receives the finished job as a JSON POST, once, with no retries. Callbacks are
+ * off unless {@code callback-hosts} lists the hosts that may be called back. A listed host that
+ * resolves to a loopback, link-local or private address is refused too, both when the job is
+ * submitted and again when the callback is sent, so a callback cannot reach this machine or its
+ * network; {@code callback-allow-private} lifts that for a receiver on the local network, such as
+ * a webhook stub in development. The HTTP client resolves the host once more when it connects, so
+ * a host whose DNS answer changes between the check and the connection (DNS rebinding) still gets
+ * through: only list hosts whose DNS is under trusted control.
+ */
+@Service
+public class JobService {
+
+    private final OptimizedJavaExecutionService executionService;
+    private final BatchExecutionService batchService;
+    private final ExecutionScheduler scheduler;
+    private final ExecutorService orchestrators;
+    private final ObjectMapper objectMapper;
+    private final int maxJobs;
+    private final Duration ttl;
+    private final Set<String> callbackHosts;
+    private final boolean callbackAllowPrivate;
+    private final Duration callbackTimeout;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final HttpClient http;
+    private final AtomicLong callbackFailures = new AtomicLong();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "job-sweep");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public JobService(OptimizedJavaExecutionService executionService, BatchExecutionService batchService,
+                      ExecutionScheduler scheduler, ExecutorService executionExecutor, ObjectMapper objectMapper,
+                      ExecutionMetrics metrics,
+                      @Value("${execution.jobs.max-jobs:10000}") int maxJobs,
+                      @Value("${execution.jobs.ttl:15m}") Duration ttl,
+                      @Value("${execution.jobs.callback-hosts:}") List<String> callbackHosts,
+                      @Value("${execution.jobs.callback-allow-private:false}") boolean callbackAllowPrivate,
+                      @Value("${execution.jobs.callback-timeout:10s}") Duration callbackTimeout) {
+        this.executionService = executionService;
+        this.batchService = batchService;
+        this.scheduler = scheduler;
+        this.orchestrators = executionExecutor;
+        this.objectMapper = objectMapper;
+        this.maxJobs = maxJobs;
+        this.ttl = ttl;
+        this.callbackHosts = new HashSet<>(callbackHosts.stream().map(String::trim).filter(h -> !h.isEmpty()).toList());
+        this.callbackAllowPrivate = callbackAllowPrivate;
+        this.callbackTimeout = callbackTimeout;
+        this.http = HttpClient.newBuilder().connectTimeout(callbackTimeout).build();
+
+        long period = Math.max(1, ttl.toSeconds() / 4);
+        sweeper.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.SECONDS);
+
+        metrics.gauge("execution.jobs.stored", "Jobs kept in memory, finished or not", jobs, Map::size);
+        metrics.gauge("execution.jobs.active", "Jobs queued or running", this, JobService::activeCount);
+        metrics.counter("execution.jobs.callback.failures", "Completion callbacks that failed", callbackFailures, AtomicLong::get);
+    }
+
+    /**
+     * Queues a single execution.
+     *
+     * @throws ExecutionRejectedException if the job store or the scheduler queue is full
+     * @throws IllegalArgumentException   if the callback URL is not acceptable
+     */
+    public Job submit(ExecutionRequest request, String tenant, String callbackUrl) {
+        Job job = register("java", callbackUri(callbackUrl));
+        try {
+            scheduler.submit(tenant, ExecutionScheduler.Priority.BATCH, 1, waited -> {
+                job.started();
+                ExecutionResponse response = executionService.execute(request);
+                response.setQueueWaitMillis(TimeUnit.NANOSECONDS.toMillis(waited));
+                return response;
+            }).whenComplete(job::finish);
+        } catch (ExecutionRejectedException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * Queues a batch of cases; see {@link BatchExecutionService}.
+     *
+     * @throws ExecutionRejectedException if the job store is full
+     * @throws IllegalArgumentException   if the callback URL is not acceptable
+     */
+    public Job submitBatch(BatchRequest request, String tenant, String callbackUrl) {
+        Job job = register("batch", callbackUri(callbackUrl));
+        CompletableFuture.supplyAsync(() -> {
+            job.started();
+            try {
+                return batchService.execute(request, tenant);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, orchestrators).whenComplete(job::finish);
+        return job;
+    }
+
+    /** The job with {@code id}, or null if it never existed or has expired. */
+    public Job get(String id) {
+        return jobs.get(id);
+    }
+
+    public int activeCount() {
+        return (int) jobs.values().stream().filter(job -> !job.done.isDone()).count();
+    }
+
+    private Job register(String kind, URI callback) {
+        if (jobs.size() >= maxJobs) {
+            jobs.values().stream()
+                    .filter(job -> job.done.isDone())
+                    .min(Comparator.comparing(job -> job.finishedAt))
+                    .ifPresent(oldest -> jobs.remove(oldest.id, oldest));
+            if (jobs.size() >= maxJobs) throw new ExecutionRejectedException("Too many unfinished jobs");
+        }
+        Job job = new Job(UUID.randomUUID().toString(), kind, callback);
+        jobs.put(job.id, job);
+        return job;
+    }
+
+    private URI callbackUri(String url) {
+        if (url == null || url.isBlank()) return null;
+        if (callbackHosts.isEmpty()) throw new IllegalArgumentException("Callbacks are disabled");
+        URI uri;
+        try {
+            uri = URI.create(url.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid callback URL: " + url);
+        }
+        if (!"http".equals(uri.getScheme()) && !"https".equals(uri.getScheme()) || uri.getHost() == null) {
+            throw new IllegalArgumentException("Callback URL must be an absolute http(s) URL: " + url);
+        }
+        checkCallbackHost(uri.getHost());
+        return uri;
+    }
+
+    /**
+     * Throws {@link IllegalArgumentException} unless {@code host} is listed and resolves only to
+     * public addresses, or to any address with {@code callback-allow-private}.
+     */
+    private void checkCallbackHost(String host) {
+        if (!callbackHosts.contains(host)) {
+            throw new IllegalArgumentException("Callback host not allowed: " + host);
+        }
+        if (callbackAllowPrivate) return;
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Callback host cannot be resolved: " + host);
+        }
+        for (InetAddress address : addresses) {
+            if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                    || address.isSiteLocalAddress()
+                    // IPv6 unique local addresses (fc00::/7), which isSiteLocalAddress does not cover
+                    || address instanceof Inet6Address && (address.getAddress()[0] & 0xfe) == 0xfc) {
+                throw new IllegalArgumentException("Callback host resolves to a non-public address: " + host);
+            }
+        }
+    }
+
+    private void callback(Job job) {
+        byte[] body;
+        try {
+            // The host may resolve differently now than when the job was submitted
+            checkCallbackHost(job.callback.getHost());
+            body = objectMapper.writeValueAsBytes(job.view());
+        } catch (Exception e) {
+            callbackFailures.incrementAndGet();
+            System.err.println("Job " + job.id + ": callback not sent: " + e.getMessage());
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(job.callback)
+                .timeout(callbackTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error != null || response.statusCode() >= 300) {
+                callbackFailures.incrementAndGet();
+                System.err.println("Job " + job.id + ": callback to " + job.callback + " failed: "
+                        + (error != null ? error.getMessage() : "HTTP " + response.statusCode()));
+            }
+        });
+    }
+
+    void sweep() {
+        Instant cutoff = Instant.now().minus(ttl);
+        jobs.values().removeIf(job -> job.done.isDone() && job.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        http.shutdownNow();
+    }
+
+    /**
+     * A submitted execution. {@link #done()} completes once the result (or error) is in.
+     */
+    public final class Job {
+        private final String id;
+        private final String kind;
+        private final URI callback;
+        private final Instant submittedAt = Instant.now();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile Object result;
+        private volatile String error;
+
+        private Job(String id, String kind, URI callback) {
+            this.id = id;
+            this.kind = kind;
+            this.callback = callback;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public CompletableFuture<Void> done() {
+            return done;
+        }
+
+        public JobResponse view() {
+            JobResponse view = new JobResponse();
+            view.setId(id);
+            view.setKind(kind);
+            view.setSubmittedAt(submittedAt);
+            view.setStartedAt(startedAt);
+            view.setFinishedAt(finishedAt);
+            view.setResult(result);
+            view.setError(error);
+            view.setStatus(finishedAt != null ? (error != null ? "failed" : "completed")
+                    : startedAt != null ? "running" : "queued");
+            return view;
+        }
+
+        private void started() {
+            startedAt = Instant.now();
+        }
+
+        private void finish(Object value, Throwable failure) {
+            if (failure instanceof CompletionException && failure.getCause() != null) failure = failure.getCause();
+            if (failure != null) {
+                error = failure.getMessage() != null ? failure.getMessage() : failure.toString();
+            } else {
+                result = value;
+            }
+            finishedAt = Instant.now();
+            done.complete(null);
+            if (callback != null) callback(this);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.ganesh.java_cloud_IDE_backend.service.metrics;
+
+import com.ganesh.java_cloud_IDE_backend.service.cache.BlobStore;
+import com.ganesh.java_cloud_IDE_backend.service.cache.CompilationCache;
+import com.ganesh.java_cloud_IDE_backend.service.cache.FailedCompilationCache;
+import com.ganesh.java_cloud_IDE_backend.service.docker.ContainerPool;
+import com.ganesh.java_cloud_IDE_backend.service.runner.WarmRunnerPool;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionScheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer meters for the execution pipeline, published at {@code /actuator/prometheus}.
+ *
+ * <p>Each stage of a run (hashing, compiling, waiting for a container, running the program...) is
+ * a timer {@code execution.stage} tagged with the stage name. Percentile histograms for all
+ * {@code execution.*} timers are switched on in application.properties. Pools, caches and the
+ * scheduler already count what they do; their counters are published as they are. What each run
+ * consumed (see {@link ResourceMonitor}) is recorded per run mode.
+ */
+@Component
+public class ExecutionMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> stages = new ConcurrentHashMap<>();
+    private final Map<String, Timer> runs = new ConcurrentHashMap<>();
+    private final Map<String, Counter> timeouts = new ConcurrentHashMap<>();
+    private final Map<String, Counter> fallbacks = new ConcurrentHashMap<>();
+    private final Map<String, Timer> cpu = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> bytes = new ConcurrentHashMap<>();
+
+    public ExecutionMetrics(MeterRegistry registry, ContainerPool containerPool, WarmRunnerPool runnerPool,
+                            CompilationCache compilationCache, FailedCompilationCache failedCompilations,
+                            ExecutionScheduler scheduler, BlobStore blobStore) {
+        this.registry = registry;
+
+        gauge("execution.containers.idle", "Idle sandbox containers", containerPool, ContainerPool::idleCount);
+        gauge("execution.containers.busy", "Sandbox containers running a program", containerPool, ContainerPool::busyCount);
+        gauge("execution.containers.waiting", "Callers waiting for a container", containerPool, ContainerPool::waitingCount);
+        counter("execution.containers.acquisitions", "Containers handed out", containerPool, ContainerPool::acquisitions);
+        counter("execution.containers.acquire.timeouts", "Container waits that gave up", containerPool, ContainerPool::acquireTimeouts);
+        counter("execution.containers.replaced", "Containers replaced after a failed reset or probe", containerPool, ContainerPool::replacedCount);
+
+        gauge("execution.runners.idle", "Idle warm runner JVMs", runnerPool, WarmRunnerPool::idleCount);
+        gauge("execution.runners.busy", "Warm runner JVMs running a program", runnerPool, WarmRunnerPool::busyCount);
+        counter("execution.runners.warm.runs", "Runs served by a warm runner", runnerPool, WarmRunnerPool::warmRuns);
+        counter("execution.runners.cold.starts", "Local runs that had to fork a JVM", runnerPool, WarmRunnerPool::coldStarts);
+        counter("execution.runners.recycled", "Warm runners replaced", runnerPool, WarmRunnerPool::recycledCount);
+
+        gauge("execution.cache.entries", "Cached compiled projects", compilationCache, CompilationCache::size);
+        gauge("execution.cache.bytes", "Bytes on disk of cached compiled projects", compilationCache, CompilationCache::totalBytes);
+        gauge("execution.cache.failures.entries", "Remembered failed compiles", failedCompilations, FailedCompilationCache::size);
+        FunctionCounter.builder("execution.cache.requests", compilationCache, CompilationCache::hits)
+                .description("Compilation cache lookups").tag("result", "hit").register(registry);
+        FunctionCounter.builder("execution.cache.requests", compilationCache, CompilationCache::misses)
+                .description("Compilation cache lookups").tag("result", "miss").register(registry);
+        FunctionCounter.builder("execution.cache.requests", failedCompilations, FailedCompilationCache::hits)
+                .description("Compilation cache lookups").tag("result", "failed_hit").register(registry);
+        counter("execution.cache.evictions", "Cached projects evicted", compilationCache, CompilationCache::evictions);
+        gauge("execution.blobs.entries", "Uploaded source blobs", blobStore, BlobStore::size);
+        gauge("execution.blobs.bytes", "Characters held in uploaded source blobs", blobStore, BlobStore::totalBytes);
+        counter("execution.blobs.evictions", "Blobs dropped as unreferenced or over the size limit", blobStore, BlobStore::evictions);
+
+        gauge("execution.scheduler.running", "Executions holding a scheduler permit", scheduler, ExecutionScheduler::runningCount);
+        counter("execution.scheduler.submitted", "Executions accepted by the scheduler", scheduler, ExecutionScheduler::submittedCount);
+        counter("execution.scheduler.rejected", "Executions rejected because the queue was full", scheduler, ExecutionScheduler::rejectedCount);
+        for (ExecutionScheduler.Priority priority : ExecutionScheduler.Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            Gauge.builder("execution.scheduler.queued", scheduler, s -> s.queuedCount(priority))
+                    .description("Executions waiting for a permit").tag("priority", tag).register(registry);
+            Timer wait = Timer.builder("execution.scheduler.wait")
+                    .description("Time spent queued before running").tag("priority", tag).register(registry);
+            scheduler.onDispatch(priority, nanos -> wait.record(nanos, TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /**
+     * Records the time since {@code startNanos} under {@code stage} and returns the current time,
+     * so consecutive stages can be timed with one variable.
+     */
+    public long stage(String stage, long startNanos) {
+        long now = System.nanoTime();
+        stages.computeIfAbsent(stage, s -> Timer.builder("execution.stage")
+                        .description("Time spent in one stage of an execution").tag("stage", s).register(registry))
+                .record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /** Records a whole execution, from request to response, by how it ended. */
+    public void finished(String outcome, long startNanos) {
+        runs.computeIfAbsent(outcome, o -> Timer.builder("execution.duration")
+                        .description("Time from request to result").tag("outcome", o).register(registry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** A program killed for running past the execution timeout; {@code mode} is docker, local or stream. */
+    public void timeout(String mode) {
+        timeouts.computeIfAbsent(mode, m -> Counter.builder("execution.timeouts")
+                .description("Programs killed at the execution timeout").tag("mode", m).register(registry)).increment();
+    }
+
+    /** A run that went to a local JVM although Docker was wanted, or because it is not there. */
+    public void localFallback(String reason) {
+        fallbacks.computeIfAbsent(reason, r -> Counter.builder("execution.local.fallbacks")
+                .description("Runs executed locally instead of in a container").tag("reason", r).register(registry)).increment();
+    }
+
+    /** Records the CPU time, peak memory and I/O of one run; counters that were not measured are skipped. */
+    public void usage(ResourceMonitor.Usage usage) {
+        String mode = usage.mode();
+        if (usage.userCpuMillis() != null) {
+            cpuTimer(mode, "user").record(usage.userCpuMillis(), TimeUnit.MILLISECONDS);
+            cpuTimer(mode, "system").record(usage.systemCpuMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (usage.peakRssBytes() != null) {
+            summary("execution.run.memory.peak", "Peak resident memory of a run", mode, null).record(usage.peakRssBytes());
+        }
+        if (usage.readBytes() != null) {
+            summary("execution.run.io", "Bytes a run read from or wrote to storage", mode, "read").record(usage.readBytes());
+            summary("execution.run.io", "Bytes a run read from or wrote to storage", mode, "write").record(usage.writtenBytes());
+        }
+    }
+
+    private Timer cpuTimer(String mode, String type) {
+        return cpu.computeIfAbsent(mode + "/" + type, k -> Timer.builder("execution.run.cpu")
+                .description("CPU time used by a run").tag("mode", mode).tag("type", type).register(registry));
+    }
+
+    private DistributionSummary summary(String name, String description, String mode, String direction) {
+        return bytes.computeIfAbsent(name + "/" + mode + "/" + direction, k -> {
+            DistributionSummary.Builder builder = DistributionSummary.builder(name).description(description)
+                    .baseUnit("bytes").tag("mode", mode)
+                    .minimumExpectedValue(1024.0).maximumExpectedValue(4.0 * 1024 * 1024 * 1024);
+            if (direction != null) builder.tag("direction", direction);
+            return builder.register(registry);
+        });
+    }
+
+    public <T> void gauge(String name, String description, T source, ToDoubleFunction<T> value) {
+        Gauge.builder(name, source, value).description(description).register(registry);
+    }
+
+    public <T> void counter(String name, String description, T source, ToDoubleFunction<T> value) {
+        FunctionCounter.builder(name, source, value).description(description).register(registry);
+    }
+}
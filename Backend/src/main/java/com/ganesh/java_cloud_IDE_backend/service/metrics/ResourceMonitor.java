@@ -0,0 +1,292 @@
+package com.ganesh.java_cloud_IDE_backend.service.metrics;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what a run costs: CPU time, peak memory and disk I/O, read from Linux accounting files.
+ *
+ * <ul>
+ *   <li>A forked JVM is the run, so its {@code /proc/<pid>} counters are reported as they are and
+ *   its peak RSS is the kernel's high-water mark ({@code VmHWM}).</li>
+ *   <li>A warm runner JVM outlives the run, so its counters are reported as the difference over the
+ *   run, and peak RSS is the largest resident size seen while it ran, runner JVM included.</li>
+ *   <li>A container serves one run at a time and is reset between runs, so its cgroup v2 counters
+ *   ({@code cpu.stat}, {@code io.stat}) are reported as the difference over the run. Peak memory is
+ *   the cgroup's {@code memory.peak}, reset for the run, where the kernel allows that (Linux 6.12+);
+ *   elsewhere the container's lifetime peak would include earlier runs, so the largest anonymous
+ *   memory ({@code memory.stat}) seen while it ran is used. The cgroup is looked up under
+ *   {@code cgroup-root} for both the systemd and the cgroupfs driver layout.</li>
+ * </ul>
+ *
+ * Counters are sampled every {@code sample-interval} while runs are in progress and once more when
+ * they end. A forked process is reaped as soon as it exits, so its final interval can be missed.
+ * Where the files cannot be read (not Linux, cgroup v1, no access) only wall time is reported.
+ */
+@Component
+public class ResourceMonitor {
+
+    // Unit of the tick counts in /proc/<pid>/stat; fixed at 100 by the kernel ABI
+    private static final long MICROS_PER_TICK = 10_000;
+
+    /**
+     * Resources used by one run; the counters are null when they could not be measured.
+     *
+     * @param mode what ran the program: fork, runner or docker
+     */
+    public record Usage(String mode, long wallMillis, Long userCpuMillis, Long systemCpuMillis,
+                        Long peakRssBytes, Long readBytes, Long writtenBytes) {
+    }
+
+    private final boolean enabled;
+    private final Path cgroupRoot;
+    private final Set<Run> active = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "resource-sampler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ResourceMonitor(@Value("${execution.telemetry.enabled:true}") boolean enabled,
+                           @Value("${execution.telemetry.sample-interval:50ms}") Duration sampleInterval,
+                           @Value("${execution.telemetry.cgroup-root:/sys/fs/cgroup}") Path cgroupRoot) {
+        this.enabled = enabled;
+        this.cgroupRoot = cgroupRoot;
+        long period = Math.max(1, sampleInterval.toMillis());
+        if (enabled) {
+            sampler.scheduleWithFixedDelay(() -> active.forEach(Run::sample), period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Starts measuring a JVM forked for this run alone. */
+    public Run forked(long pid) {
+        return start("fork", new ProcProbe(Path.of("/proc", Long.toString(pid)), true), true);
+    }
+
+    /** Starts measuring a run in warm runner JVM {@code pid}. */
+    public Run runner(long pid) {
+        return start("runner", new ProcProbe(Path.of("/proc", Long.toString(pid)), false), false);
+    }
+
+    /** Starts measuring a run in container {@code containerId}. */
+    public Run container(String containerId) {
+        if (!enabled) return start("docker", null, false);
+        Path dir = null;
+        for (Path candidate : List.of(cgroupRoot.resolve("system.slice").resolve("docker-" + containerId + ".scope"),
+                cgroupRoot.resolve("docker").resolve(containerId))) {
+            if (Files.isRegularFile(candidate.resolve("cpu.stat"))) {
+                dir = candidate;
+                break;
+            }
+        }
+        return start("docker", dir != null ? new CgroupProbe(dir) : null, false);
+    }
+
+    Run start(String mode, Probe probe, boolean wholeProcess) {
+        Run run = new Run(mode, enabled ? probe : null, wholeProcess);
+        if (run.probe != null) active.add(run);
+        return run;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sampler.shutdownNow();
+    }
+
+    /** One run being measured. */
+    public final class Run {
+        private final String mode;
+        private final Probe probe;
+        private final boolean wholeProcess;
+        private final long startNanos = System.nanoTime();
+        private Counters base;
+        private Counters last;
+        private long peakRss;
+        private Usage usage;
+
+        private Run(String mode, Probe probe, boolean wholeProcess) {
+            this.mode = mode;
+            this.probe = probe;
+            this.wholeProcess = wholeProcess;
+            if (probe != null) {
+                sample();
+                base = wholeProcess ? Counters.ZERO : last;
+            }
+        }
+
+        synchronized void sample() {
+            if (usage != null) return;
+            try {
+                Counters counters = probe.read();
+                last = counters;
+                peakRss = Math.max(peakRss, counters.peakRss());
+            } catch (IOException | RuntimeException e) {
+                // Gone (the process exited) or unreadable: keep the last sample
+            }
+        }
+
+        /** Takes a final sample and stops measuring. Further calls return the same usage. */
+        public synchronized Usage stop() {
+            if (usage != null) return usage;
+            long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            if (probe != null) {
+                sample();
+                active.remove(this);
+                probe.close();
+            }
+            if (base == null || last == null) {
+                usage = new Usage(mode, wallMillis, null, null, null, null, null);
+            } else {
+                usage = new Usage(mode, wallMillis,
+                        (last.userMicros() - base.userMicros()) / 1000,
+                        (last.systemMicros() - base.systemMicros()) / 1000,
+                        peakRss,
+                        last.readBytes() < 0 ? null : last.readBytes() - base.readBytes(),
+                        last.writtenBytes() < 0 ? null : last.writtenBytes() - base.writtenBytes());
+            }
+            return usage;
+        }
+    }
+
+    /**
+     * Cumulative counters at one moment; I/O is -1 when it cannot be read. {@code peakRss} is the
+     * peak of the measured span: the process lifetime, the run, or just this moment.
+     */
+    record Counters(long userMicros, long systemMicros, long rss, long peakRss, long readBytes, long writtenBytes) {
+        static final Counters ZERO = new Counters(0, 0, 0, 0, 0, 0);
+    }
+
+    @FunctionalInterface
+    interface Probe {
+        Counters read() throws IOException;
+
+        default void close() {
+        }
+    }
+
+    /** {@code /proc/<pid>}; the kernel's high-water mark only counts when the process is the run. */
+    record ProcProbe(Path dir, boolean wholeProcess) implements Probe {
+        @Override
+        public Counters read() throws IOException {
+            String stat = Files.readString(dir.resolve("stat"));
+            // Fields after the command name, which is in parentheses and may contain spaces; utime is field 14
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            long user = Long.parseLong(fields[11]) * MICROS_PER_TICK;
+            long system = Long.parseLong(fields[12]) * MICROS_PER_TICK;
+            long rss = 0, peak = 0;
+            for (String line : Files.readAllLines(dir.resolve("status"))) {
+                if (line.startsWith("VmRSS:")) rss = kilobytes(line);
+                else if (line.startsWith("VmHWM:")) peak = kilobytes(line);
+            }
+            long read = -1, written = -1;
+            try {
+                for (String line : Files.readAllLines(dir.resolve("io"))) {
+                    if (line.startsWith("read_bytes:")) read = Long.parseLong(line.substring(11).trim());
+                    else if (line.startsWith("write_bytes:")) written = Long.parseLong(line.substring(12).trim());
+                }
+            } catch (IOException e) {
+                // Needs ptrace access to the process; CPU and memory are still worth reporting
+            }
+            return new Counters(user, system, rss, wholeProcess ? Math.max(peak, rss) : rss, read, written);
+        }
+
+        private static long kilobytes(String line) {
+            return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+        }
+    }
+
+    /** A container's cgroup v2 directory. */
+    static final class CgroupProbe implements Probe {
+        private final Path dir;
+        // memory.peak opened and reset for this run; null where sampled anonymous memory stands in
+        private final FileChannel peak;
+
+        CgroupProbe(Path dir) {
+            this.dir = dir;
+            this.peak = resetPeak(dir.resolve("memory.peak"));
+        }
+
+        /**
+         * Writing anything to memory.peak resets the peak seen through that file handle (Linux
+         * 6.12+). Older kernels refuse to open it for writing, and a peak that cannot be reset is
+         * not the run's.
+         */
+        private static FileChannel resetPeak(Path file) {
+            if (!Files.isRegularFile(file)) return null;
+            FileChannel channel = null;
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channel.write(ByteBuffer.wrap("0\n".getBytes(StandardCharsets.US_ASCII)), 0);
+                return channel;
+            } catch (IOException e) {
+                if (channel != null) {
+                    try {
+                        channel.close();
+                    } catch (IOException ignored) {}
+                }
+                return null;
+            }
+        }
+
+        @Override
+        public Counters read() throws IOException {
+            long user = 0, system = 0, anon = 0;
+            long read = 0, written = 0;
+            for (String line : Files.readAllLines(dir.resolve("cpu.stat"))) {
+                if (line.startsWith("user_usec ")) user = Long.parseLong(line.substring(10));
+                else if (line.startsWith("system_usec ")) system = Long.parseLong(line.substring(12));
+            }
+            for (String line : Files.readAllLines(dir.resolve("memory.stat"))) {
+                if (line.startsWith("anon ")) {
+                    anon = Long.parseLong(line.substring(5));
+                    break;
+                }
+            }
+            // One line per device: "8:0 rbytes=.. wbytes=.. rios=.. wios=.."
+            try {
+                for (String line : Files.readAllLines(dir.resolve("io.stat"))) {
+                    for (String field : line.split(" ")) {
+                        if (field.startsWith("rbytes=")) read += Long.parseLong(field.substring(7));
+                        else if (field.startsWith("wbytes=")) written += Long.parseLong(field.substring(7));
+                    }
+                }
+            } catch (IOException e) {
+                // The io controller is not enabled for this cgroup
+                read = written = -1;
+            }
+            return new Counters(user, system, anon, peak != null ? readPeak() : anon, read, written);
+        }
+
+        private long readPeak() throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(32);
+            // A read at offset 0 makes the kernel print the current value afresh
+            int length = Math.max(0, peak.read(buffer, 0));
+            return Long.parseLong(new String(buffer.array(), 0, length, StandardCharsets.US_ASCII).lines()
+                    .findFirst().orElse("").trim());
+        }
+
+        @Override
+        public void close() {
+            if (peak == null) return;
+            try {
+                peak.close();
+            } catch (IOException ignored) {}
+        }
+    }
+}
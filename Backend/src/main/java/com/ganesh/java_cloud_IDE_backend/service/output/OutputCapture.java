@@ -0,0 +1,182 @@
+package com.ganesh.java_cloud_IDE_backend.service.output;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Captures a program's output with bounded memory.
+ *
+ * <p>Only the first {@code head-bytes} and the last {@code tail-bytes} of the output are kept; what
+ * lies between is replaced by a marker saying how much was left out. Every byte is still counted,
+ * and once a run has written more than {@code max-bytes} the process is killed, so a runaway print
+ * loop stops burning CPU instead of running into the timeout.
+ */
+@Component
+public class OutputCapture {
+
+    private final int headBytes;
+    private final int tailBytes;
+    private final long maxBytes;
+
+    public OutputCapture(@Value("${execution.output.head-bytes:65536}") int headBytes,
+                         @Value("${execution.output.tail-bytes:16384}") int tailBytes,
+                         @Value("${execution.output.max-bytes:4194304}") long maxBytes) {
+        this.headBytes = headBytes;
+        this.tailBytes = tailBytes;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Output of one stream.
+     *
+     * @param text         captured output, with a marker in place of the omitted middle
+     * @param totalBytes   bytes the program wrote (up to the point it was stopped)
+     * @param truncated    whether part of the output was left out
+     * @param limitReached whether the process was killed for exceeding {@code max-bytes}
+     */
+    public record Result(String text, long totalBytes, boolean truncated, boolean limitReached) {
+    }
+
+    /**
+     * Reads {@code in} until EOF, keeping its head and tail. Kills {@code process} and stops reading
+     * when the output exceeds the limit.
+     */
+    public Result capture(InputStream in, Process process) {
+        byte[] head = new byte[headBytes];
+        byte[] tail = new byte[tailBytes];
+        int headLength = 0;
+        long tailWritten = 0; // bytes ever written to the ring; the next write goes to tailWritten % tailBytes
+        long total = 0;
+        boolean limitReached = false;
+
+        byte[] buffer = new byte[8192];
+        try (in) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                total += n;
+                int offset = 0;
+                if (headLength < headBytes) {
+                    int take = Math.min(n, headBytes - headLength);
+                    System.arraycopy(buffer, 0, head, headLength, take);
+                    headLength += take;
+                    offset = take;
+                }
+                int remaining = n - offset;
+                if (tailBytes > 0 && remaining > 0) {
+                    // Only the last tailBytes of this read can survive in the ring
+                    int skip = Math.max(0, remaining - tailBytes);
+                    tailWritten += skip;
+                    offset += skip;
+                    remaining -= skip;
+                    while (remaining > 0) {
+                        int position = (int) (tailWritten % tailBytes);
+                        int chunk = Math.min(remaining, tailBytes - position);
+                        System.arraycopy(buffer, offset, tail, position, chunk);
+                        tailWritten += chunk;
+                        offset += chunk;
+                        remaining -= chunk;
+                    }
+                }
+                if (total > maxBytes) {
+                    limitReached = true;
+                    process.destroyForcibly();
+                    break;
+                }
+            }
+        } catch (IOException ignored) {
+            // Stream closed
+        }
+
+        int tailLength = (int) Math.min(tailWritten, tailBytes);
+        long omitted = total - headLength - tailLength;
+        if (omitted == 0) {
+            byte[] all = Arrays.copyOf(head, headLength + tailLength);
+            copyRing(tail, tailWritten, tailLength, all, headLength);
+            return new Result(new String(all, StandardCharsets.UTF_8), total, false, limitReached);
+        }
+
+        byte[] last = new byte[tailLength];
+        copyRing(tail, tailWritten, tailLength, last, 0);
+        // Cut at character boundaries so the marker does not sit inside a multi-byte character
+        int headEnd = completeUtf8Prefix(head, headLength);
+        int tailStart = 0;
+        while (tailStart < last.length && (last[tailStart] & 0xC0) == 0x80) tailStart++;
+        omitted += (headLength - headEnd) + tailStart;
+
+        String text = new String(head, 0, headEnd, StandardCharsets.UTF_8)
+                + marker(omitted)
+                + new String(last, tailStart, last.length - tailStart, StandardCharsets.UTF_8);
+        return new Result(text, total, true, limitReached);
+    }
+
+    /**
+     * Passes {@code in} through while drawing from a budget shared by all streams of a run. When the
+     * budget is used up, {@code process} is killed and the stream ends.
+     */
+    public InputStream limit(InputStream in, AtomicLong budget, Process process) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (budget.get() < 0) return -1;
+                int n = super.read(b, off, len);
+                if (n <= 0) return n;
+                long left = budget.addAndGet(-n);
+                if (left < 0) {
+                    process.destroyForcibly();
+                    // Deliver what still fit in the budget; the rest is dropped
+                    n = (int) Math.max(0, n + left);
+                    return n == 0 ? -1 : n;
+                }
+                return n;
+            }
+        };
+    }
+
+    /** A fresh budget for {@link #limit}. */
+    public AtomicLong newBudget() {
+        return new AtomicLong(maxBytes);
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public static String marker(long omittedBytes) {
+        return "\n... [" + omittedBytes + " bytes of output omitted] ...\n";
+    }
+
+    private static void copyRing(byte[] ring, long written, int length, byte[] target, int offset) {
+        if (length == 0) return;
+        int start = (int) ((written - length) % ring.length);
+        int first = Math.min(length, ring.length - start);
+        System.arraycopy(ring, start, target, offset, first);
+        System.arraycopy(ring, 0, target, offset + first, length - first);
+    }
+
+    /** Length of {@code bytes[0, length)} without a trailing incomplete UTF-8 sequence. */
+    private static int completeUtf8Prefix(byte[] bytes, int length) {
+        int i = length - 1;
+        int continuation = 0;
+        while (i >= 0 && (bytes[i] & 0xC0) == 0x80 && continuation < 3) {
+            i--;
+            continuation++;
+        }
+        if (i < 0) return length;
+        int lead = bytes[i] & 0xFF;
+        int expected = lead >= 0xF0 ? 3 : lead >= 0xE0 ? 2 : lead >= 0xC0 ? 1 : 0;
+        return expected > continuation ? i : length;
+    }
+}
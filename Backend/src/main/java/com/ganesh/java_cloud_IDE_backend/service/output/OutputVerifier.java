@@ -0,0 +1,172 @@
+package com.ganesh.java_cloud_IDE_backend.service.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Compares a program's output with the expected output while it is being written, and kills the
+ * program at the first byte that cannot match, so a wrong answer that keeps printing stops at once
+ * instead of running into the timeout.
+ *
+ * <p>Both sides are normalized the same way before comparing:
+ * <ul>
+ *   <li>{@code exact}: byte for byte.</li>
+ *   <li>{@code lines} (default): CRLF equals LF, whitespace at line ends and newlines at the end
+ *   of the output are ignored.</li>
+ *   <li>{@code tokens}: any run of whitespace equals any other; only the tokens matter.</li>
+ * </ul>
+ * Normalization is incremental: whitespace that may turn out to be ignorable is held back until
+ * the next byte decides, so the verdict never depends on how the output was split into reads.
+ */
+public final class OutputVerifier {
+
+    public enum Comparison {
+        EXACT, LINES, TOKENS;
+
+        /** Parses a request value; null or blank means {@link #LINES}. */
+        public static Comparison of(String value) {
+            if (value == null || value.isBlank()) return LINES;
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown comparison '" + value + "', expected exact, lines or tokens");
+            }
+        }
+    }
+
+    /**
+     * @param accepted       whether the whole output matched
+     * @param mismatchOffset byte offset in the program's output at which it diverged, null when accepted;
+     *                       the output length when the output ended too early, and the first line
+     *                       break of the run when it diverged within a run of blank lines
+     */
+    public record Verdict(boolean accepted, Long mismatchOffset) {
+    }
+
+    private final byte[] expected;
+    private final Normalizer actual;
+    private final Sink comparer = this::compare;
+    private int matched;      // normalized bytes matched so far
+    private long offset;      // raw bytes of program output consumed
+    private Long mismatchOffset;
+
+    public OutputVerifier(String expectedOutput, Comparison comparison) {
+        Normalizer normalizer = new Normalizer(comparison);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte b : expectedOutput.getBytes(StandardCharsets.UTF_8)) normalizer.accept(b, 0, (x, at) -> out.write(x));
+        this.expected = out.toByteArray();
+        this.actual = new Normalizer(comparison);
+    }
+
+    /**
+     * Passes {@code in} through while checking every byte. At the first mismatch {@code process}
+     * is killed and the stream ends.
+     */
+    public InputStream verify(InputStream in, Process process) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (mismatchOffset != null) return -1;
+                int n = super.read(b, off, len);
+                if (n <= 0) return n;
+                int good = accept(b, off, n);
+                if (good < n) {
+                    process.destroyForcibly();
+                    // Deliver output up to and including the diverging byte, so the capture shows it
+                    return good + 1;
+                }
+                return n;
+            }
+        };
+    }
+
+    /** Checks {@code n} bytes; returns how many were consumed before a mismatch, {@code n} if none. */
+    synchronized int accept(byte[] bytes, int off, int n) {
+        for (int i = 0; i < n; i++) {
+            actual.accept(bytes[off + i], offset, comparer);
+            if (mismatchOffset != null) return i;
+            offset++;
+        }
+        return n;
+    }
+
+    private void compare(int b, long at) {
+        if (mismatchOffset != null) return;
+        if (matched >= expected.length || expected[matched] != (byte) b) {
+            mismatchOffset = at;
+        } else {
+            matched++;
+        }
+    }
+
+    /** The verdict once the output has ended. */
+    public synchronized Verdict finish() {
+        if (mismatchOffset == null && matched < expected.length) mismatchOffset = offset;
+        return new Verdict(mismatchOffset == null, mismatchOffset);
+    }
+
+    /**
+     * Turns raw output into its normalized form one byte at a time. Held-back whitespace is only
+     * emitted once a byte that makes it significant arrives; whatever is held at the end is dropped.
+     * Emitted bytes carry the raw offset they stand for, so a mismatch can be located in the output.
+     */
+    private static final class Normalizer {
+        private final Comparison comparison;
+        // Spaces, tabs and CRs since the last newline; they end right before the current byte
+        private final ByteArrayOutputStream heldBlanks = new ByteArrayOutputStream();
+        private int heldNewlines;
+        private long heldFrom;    // raw offset of the first held newline or separator byte
+        private boolean heldSeparator;
+        private boolean emittedAny;
+
+        Normalizer(Comparison comparison) {
+            this.comparison = comparison;
+        }
+
+        void accept(byte b, long at, Sink out) {
+            switch (comparison) {
+                case EXACT -> out.write(b, at);
+                case LINES -> {
+                    if (b == '\n') {
+                        if (heldNewlines++ == 0) heldFrom = at;
+                        heldBlanks.reset();
+                    } else if (b == ' ' || b == '\t' || b == '\r') {
+                        heldBlanks.write(b);
+                    } else {
+                        for (; heldNewlines > 0; heldNewlines--) out.write('\n', heldFrom);
+                        long blankAt = at - heldBlanks.size();
+                        for (byte blank : heldBlanks.toByteArray()) out.write(blank, blankAt++);
+                        heldBlanks.reset();
+                        out.write(b, at);
+                    }
+                }
+                case TOKENS -> {
+                    if (b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == '\f' || b == 0x0B) {
+                        if (!heldSeparator) heldFrom = at;
+                        heldSeparator = emittedAny;
+                    } else {
+                        if (heldSeparator) out.write(' ', heldFrom);
+                        heldSeparator = false;
+                        emittedAny = true;
+                        out.write(b, at);
+                    }
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Sink {
+        void write(int b, long at);
+    }
+}
@@ -0,0 +1,354 @@
+package com.ganesh.java_cloud_IDE_backend.service.runner;
+
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Entry point of a warm runner JVM (see {@link WarmRunnerPool}).
+ *
+ * <p>The runner talks to the backend over its own stdin/stdout. Every message in either direction
+ * is a frame: one type byte, an int payload length, then the payload. A run loads the user's
+ * classes into a fresh class loader, points System.in/out/err at that run's frames and reports an
+ * exit code plus whether the JVM still looks clean enough to be reused.
+ *
+ * <p>Stdin frames are handed to a thread of the run's own, so a program that stops reading cannot
+ * stall the loop reading frames. Input the program never took makes the runner dirty.
+ *
+ * <p>This class is copied out of the backend and started on its own, so it may only use the JDK.
+ */
+public final class RunnerMain {
+
+    // backend -> runner
+    static final byte RUN = 1;        // class directory (UTF), main class (UTF)
+    static final byte STDIN = 2;
+    static final byte STDIN_EOF = 3;
+    // runner -> backend
+    static final byte READY = 4;
+    static final byte STDOUT = 5;
+    static final byte STDERR = 6;
+    static final byte EXIT = 7;       // exit code (int), dirty (boolean)
+
+    // Retained heap above the post-warmup baseline that marks a runner as dirty
+    private static final long HEAP_GROWTH_LIMIT = 64L * 1024 * 1024;
+
+    private static DataOutputStream channel;
+    private static PrintStream out;
+    private static PrintStream err;
+    private static long baselineHeap;
+
+    private RunnerMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+        channel = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16));
+        out = new PrintStream(new FrameOutputStream(STDOUT), true);
+        err = new PrintStream(new FrameOutputStream(STDERR), true);
+        System.setOut(out);
+        System.setErr(err);
+
+        warmUp();
+        System.gc();
+        baselineHeap = usedHeap();
+        send(READY, new byte[0]);
+
+        Stdin stdin = null;
+        while (true) {
+            byte type;
+            byte[] payload;
+            try {
+                type = in.readByte();
+                payload = new byte[in.readInt()];
+                in.readFully(payload);
+            } catch (EOFException e) {
+                // The backend closed the channel: retire, even if a run is still going
+                System.exit(0);
+                return;
+            }
+            switch (type) {
+                case RUN -> {
+                    stdin = new Stdin();
+                    startRun(payload, stdin);
+                }
+                case STDIN -> {
+                    if (stdin != null) stdin.write(payload);
+                }
+                case STDIN_EOF -> {
+                    if (stdin != null) stdin.write(Stdin.EOF);
+                    stdin = null;
+                }
+                default -> throw new IOException("Unknown frame type " + type);
+            }
+        }
+    }
+
+    private static void startRun(byte[] payload, Stdin stdin) throws IOException {
+        DataInputStream request = new DataInputStream(new ByteArrayInputStream(payload));
+        Path classDir = Path.of(request.readUTF());
+        String mainClass = request.readUTF();
+
+        Thread coordinator = new Thread(() -> {
+            // TimeZone.getDefault() sets user.timezone on first use, so read it before the properties
+            Locale locale = Locale.getDefault();
+            TimeZone timeZone = TimeZone.getDefault();
+            Properties properties = (Properties) System.getProperties().clone();
+            // The program may start threads in any group, so compare against every live thread
+            Set<Thread> threadsBefore = Thread.getAllStackTraces().keySet();
+            System.setIn(stdin.input());
+
+            ThreadGroup group = new ThreadGroup("user-program");
+            int exitCode = run(classDir, mainClass, group);
+            boolean unread = stdin.end();
+
+            boolean dirty = unread || threadsLeft(threadsBefore)
+                    || System.out != out || System.err != err
+                    || !properties.equals(System.getProperties())
+                    || !locale.equals(Locale.getDefault())
+                    || !timeZone.equals(TimeZone.getDefault())
+                    || heapGrew();
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream exit = new DataOutputStream(bytes);
+                exit.writeInt(exitCode);
+                exit.writeBoolean(dirty);
+                send(EXIT, bytes.toByteArray());
+            } catch (IOException e) {
+                System.exit(1);
+            }
+        }, "run-coordinator");
+        coordinator.start();
+    }
+
+    /**
+     * Runs {@code main} on a thread of its own and, like the JVM itself, waits for every non-daemon
+     * thread the program started before reporting the exit code.
+     */
+    private static int run(Path classDir, String mainClass, ThreadGroup group) {
+        int[] exitCode = {0};
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classDir.toUri().toURL()},
+                ClassLoader.getPlatformClassLoader())) {
+            Method main;
+            try {
+                main = loader.loadClass(mainClass).getMethod("main", String[].class);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                err.println("Error: Could not find or load main class " + mainClass);
+                err.println("Caused by: " + e);
+                return 1;
+            }
+            if (!Modifier.isStatic(main.getModifiers())) {
+                err.println("Error: Main method is not static in class " + mainClass);
+                return 1;
+            }
+            // The java launcher also starts mains of non-public and nested classes
+            main.setAccessible(true);
+
+            Thread program = new Thread(group, () -> {
+                try {
+                    main.invoke(null, (Object) new String[0]);
+                } catch (InvocationTargetException e) {
+                    exitCode[0] = 1;
+                    err.print("Exception in thread \"main\" ");
+                    hideReflectionFrames(e.getCause());
+                    e.getCause().printStackTrace();
+                } catch (IllegalAccessException e) {
+                    exitCode[0] = 1;
+                    err.println("Error: " + e.getMessage());
+                }
+            }, "main");
+            program.setContextClassLoader(loader);
+            program.start();
+            awaitNonDaemonThreads(group);
+        } catch (IOException e) {
+            err.println("Error: " + e.getMessage());
+            return 1;
+        }
+        return exitCode[0];
+    }
+
+    /** Cuts the trace at the reflective call into main, so it reads as if the JVM had called it. */
+    private static void hideReflectionFrames(Throwable t) {
+        StackTraceElement[] trace = t.getStackTrace();
+        for (int i = 0; i < trace.length; i++) {
+            if (trace[i].getClassName().startsWith("jdk.internal.reflect.")
+                    || trace[i].getClassName().equals("java.lang.reflect.Method")) {
+                t.setStackTrace(Arrays.copyOf(trace, i));
+                return;
+            }
+        }
+    }
+
+    private static void awaitNonDaemonThreads(ThreadGroup group) {
+        while (true) {
+            Thread[] threads = new Thread[group.activeCount() + 8];
+            int count = group.enumerate(threads);
+            Thread pending = null;
+            for (int i = 0; i < count && pending == null; i++) {
+                if (threads[i].isAlive() && !threads[i].isDaemon()) pending = threads[i];
+            }
+            if (pending == null) return;
+            try {
+                pending.join();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /** Whether a thread started during the run is still alive, whatever its thread group. */
+    private static boolean threadsLeft(Set<Thread> before) {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && !before.contains(thread)) return true;
+        }
+        return false;
+    }
+
+    private static boolean heapGrew() {
+        if (usedHeap() < baselineHeap + HEAP_GROWTH_LIMIT) return false;
+        System.gc();
+        return usedHeap() >= baselineHeap + HEAP_GROWTH_LIMIT;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Loads and exercises the library classes typical exercises use, so the first real run does
+     * not pay for their class loading and interpretation.
+     */
+    private static void warmUp() {
+        long sink = 0;
+        for (int round = 0; round < 200; round++) {
+            Scanner scanner = new Scanner("3 4 hello\n5\n");
+            sink += scanner.nextInt() + scanner.nextInt() + scanner.next().length();
+            scanner.nextLine();
+            sink += Integer.parseInt(scanner.nextLine().trim());
+
+            List<Integer> numbers = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+            Map<Integer, Long> counts = numbers.stream()
+                    .collect(Collectors.groupingBy(n -> n % 7, TreeMap::new, Collectors.counting()));
+            sink += counts.size() + new HashSet<>(numbers).size() + new ArrayDeque<>(numbers).size();
+            Collections.sort(numbers, Comparator.reverseOrder());
+
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 20; i++) text.append(i).append(',');
+            sink += String.format("%d %s %.2f", round, text, Math.sqrt(round)).length();
+            sink += String.join("-", text.toString().split(",")).hashCode();
+        }
+        if (sink == 42) System.err.print("");
+    }
+
+    private static void send(byte type, byte[] payload) throws IOException {
+        send(type, payload, 0, payload.length);
+    }
+
+    private static void send(byte type, byte[] payload, int offset, int length) throws IOException {
+        synchronized (channel) {
+            channel.writeByte(type);
+            channel.writeInt(length);
+            channel.write(payload, offset, length);
+            channel.flush();
+        }
+    }
+
+    /**
+     * A run's System.in. Frames are queued and written into the pipe the program reads by a feeder
+     * thread, which is the only one that can block on a program that does not read.
+     */
+    private static final class Stdin {
+        static final byte[] EOF = new byte[0];
+
+        private final Pipe pipe;
+        private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+        // Bytes queued but not yet in the pipe
+        private final AtomicLong pending = new AtomicLong();
+        private final Thread feeder;
+        private volatile boolean ended;
+
+        Stdin() throws IOException {
+            pipe = Pipe.open();
+            feeder = new Thread(this::feed, "stdin-feeder");
+            feeder.setDaemon(true);
+            feeder.start();
+        }
+
+        InputStream input() {
+            return Channels.newInputStream(pipe.source());
+        }
+
+        /** Queues a frame's bytes, or {@link #EOF}; dropped once the run has ended. */
+        void write(byte[] bytes) {
+            if (ended) return;
+            pending.addAndGet(bytes.length);
+            queue.add(bytes);
+        }
+
+        /**
+         * Stops feeding and closes both ends of the pipe. Returns whether any input was never
+         * handed to the program.
+         */
+        boolean end() {
+            ended = true;
+            boolean unread = pending.get() > 0;
+            // Interrupting a write blocked on the full pipe closes the sink and releases it
+            feeder.interrupt();
+            try {
+                pipe.source().close();
+            } catch (IOException ignored) {}
+            return unread;
+        }
+
+        private void feed() {
+            Pipe.SinkChannel sink = pipe.sink();
+            try {
+                while (true) {
+                    byte[] bytes = queue.take();
+                    if (bytes == EOF) break;
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                    while (buffer.hasRemaining()) sink.write(buffer);
+                    pending.addAndGet(-bytes.length);
+                }
+            } catch (IOException | InterruptedException e) {
+                // The run ended, or the program closed System.in
+            } finally {
+                try {
+                    sink.close();
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    /** Forwards a program's stdout or stderr to the backend as frames. */
+    private static final class FrameOutputStream extends OutputStream {
+        private final byte type;
+
+        FrameOutputStream(byte type) {
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            send(type, new byte[]{(byte) b});
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) send(type, b, off, len);
+        }
+    }
+}
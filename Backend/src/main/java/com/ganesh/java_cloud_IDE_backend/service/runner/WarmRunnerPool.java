@@ -0,0 +1,463 @@
+package com.ganesh.java_cloud_IDE_backend.service.runner;
+
+import com.ganesh.java_cloud_IDE_backend.service.cds.CdsArchives;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pre-started JVMs that run user programs without paying JVM startup on every run.
+ *
+ * <p>Each runner executes {@link RunnerMain} and serves one run at a time: the program's classes
+ * are loaded into a fresh class loader and its stdin/stdout/stderr are relayed over the runner's
+ * own pipes. A runner is replaced after {@code max-runs} runs, when it reports itself dirty
+ * (leftover threads, changed global state, retained heap), when the program calls
+ * {@code System.exit}, and when a run is destroyed, e.g. on timeout.
+ *
+ * <p>Each runner works in a scratch directory of its own, not in the project directory. It is
+ * emptied after every run, so no run sees the files of the one before, and deleted with the runner.
+ * A run that asks for a working directory gets that directory's entries linked into it.
+ */
+@Component
+public class WarmRunnerPool {
+
+    private final boolean enabled;
+    private final int size;
+    private final int maxRuns;
+    private final List<String> jvmOptions;
+    private final CdsArchives cdsArchives;
+
+    private final BlockingQueue<Runner> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger starting = new AtomicInteger();
+    private final AtomicInteger busy = new AtomicInteger();
+    private final AtomicLong warmRuns = new AtomicLong();
+    private final AtomicLong coldStarts = new AtomicLong();
+    private final AtomicLong recycled = new AtomicLong();
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private Path runnerClasspath;
+    private Path workDir;
+    private volatile boolean shutdown;
+
+    public WarmRunnerPool(@Value("${execution.runner.enabled:true}") boolean enabled,
+                          @Value("${execution.runner.pool-size:2}") int size,
+                          @Value("${execution.runner.max-runs:100}") int maxRuns,
+                          @Value("${execution.runner.jvm-options:-Xmx256m -XX:+UseSerialGC}") String jvmOptions,
+                          CdsArchives cdsArchives) {
+        this.enabled = enabled;
+        this.size = size;
+        this.maxRuns = maxRuns;
+        this.jvmOptions = jvmOptions.isBlank() ? List.of() : Arrays.asList(jvmOptions.trim().split("\\s+"));
+        this.cdsArchives = cdsArchives;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || size <= 0) return;
+        try {
+            runnerClasspath = extractRunnerClasses();
+            workDir = Files.createDirectories(runnerClasspath.resolve("work"));
+        } catch (IOException e) {
+            System.err.println("Warm runners disabled: " + e.getMessage());
+            return;
+        }
+        replenish();
+    }
+
+    /**
+     * Starts {@code mainClass} from {@code classDir} in a warm runner. Returns null when no runner
+     * is ready, in which case the caller should fork a JVM as before.
+     *
+     * <p>The returned process merges stderr into stdout, like {@code redirectErrorStream(true)}.
+     */
+    public Process start(Path classDir, String mainClass) {
+        return start(classDir, mainClass, true);
+    }
+
+    /**
+     * Like {@link #start(Path, String)}, but with {@code mergeErrors == false} the program's stderr
+     * is kept apart and read from {@link Process#getErrorStream()}.
+     */
+    public Process start(Path classDir, String mainClass, boolean mergeErrors) {
+        return start(classDir, mainClass, mergeErrors, null);
+    }
+
+    /**
+     * Like {@link #start(Path, String, boolean)}, for a program that expects {@code workingDir} as
+     * its working directory. A runner's working directory is fixed when its JVM starts, so the
+     * entries of {@code workingDir} are linked into it for the run: relative paths such as
+     * {@code data.txt} reach the same files.
+     */
+    public Process start(Path classDir, String mainClass, boolean mergeErrors, Path workingDir) {
+        Runner runner = idle.poll();
+        if (runner == null) {
+            coldStarts.incrementAndGet();
+            return null;
+        }
+        busy.incrementAndGet();
+        try {
+            if (workingDir != null) linkEntries(workingDir, runner.dir);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream request = new DataOutputStream(bytes);
+            request.writeUTF(classDir.toAbsolutePath().toString());
+            request.writeUTF(mainClass);
+            runner.send(RunnerMain.RUN, bytes.toByteArray(), 0, bytes.size());
+
+            RunnerProcess process = new RunnerProcess(runner, mergeErrors);
+            warmRuns.incrementAndGet();
+            workers.submit(() -> pump(runner, process));
+            return process;
+        } catch (IOException e) {
+            busy.decrementAndGet();
+            retire(runner);
+            coldStarts.incrementAndGet();
+            return null;
+        }
+    }
+
+    public int idleCount() {
+        return idle.size();
+    }
+
+    public int busyCount() {
+        return busy.get();
+    }
+
+    public long warmRuns() {
+        return warmRuns.get();
+    }
+
+    public long coldStarts() {
+        return coldStarts.get();
+    }
+
+    public long recycledCount() {
+        return recycled.get();
+    }
+
+    /**
+     * Relays one run's output until the runner reports the exit, then hands the runner back or
+     * retires it.
+     */
+    private void pump(Runner runner, RunnerProcess process) {
+        boolean reusable = false;
+        int exitCode;
+        try {
+            while (true) {
+                byte type = runner.in.readByte();
+                byte[] payload = new byte[runner.in.readInt()];
+                runner.in.readFully(payload);
+                if (type == RunnerMain.EXIT) {
+                    DataInputStream exit = new DataInputStream(new ByteArrayInputStream(payload));
+                    exitCode = exit.readInt();
+                    reusable = !exit.readBoolean();
+                    break;
+                }
+                process.output(type, payload);
+            }
+        } catch (IOException e) {
+            // System.exit in the program, a crash, or the run was destroyed
+            try {
+                if (!runner.jvm.waitFor(2, TimeUnit.SECONDS)) runner.kill();
+                exitCode = runner.jvm.waitFor();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                exitCode = 1;
+            }
+        }
+        busy.decrementAndGet();
+        process.exited(exitCode);
+
+        runner.runs++;
+        if (reusable && !process.destroyed && runner.runs < maxRuns && !shutdown && clean(runner.dir)) {
+            idle.offer(runner);
+        } else {
+            retire(runner);
+        }
+    }
+
+    private void retire(Runner runner) {
+        recycled.incrementAndGet();
+        runner.kill();
+        replenish();
+    }
+
+    private static void linkEntries(Path from, Path to) throws IOException {
+        try (var stream = Files.list(from)) {
+            for (Path entry : stream.toList()) {
+                Files.createSymbolicLink(to.resolve(entry.getFileName().toString()), entry.toAbsolutePath());
+            }
+        }
+    }
+
+    /** Empties a runner's work directory; false if something could not be deleted. */
+    private static boolean clean(Path dir) {
+        try (var stream = Files.list(dir)) {
+            for (Path entry : stream.toList()) {
+                deleteTree(entry);
+                if (Files.exists(entry, LinkOption.NOFOLLOW_LINKS)) return false;
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void deleteTree(Path dir) {
+        try (var stream = Files.walk(dir)) {
+            stream.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try { Files.deleteIfExists(p); }
+                catch (IOException ignored) {}
+            });
+        } catch (IOException ignored) {}
+    }
+
+    private void replenish() {
+        while (!shutdown && idle.size() + busy.get() + starting.get() < size) {
+            starting.incrementAndGet();
+            workers.submit(() -> {
+                try {
+                    idle.offer(launch());
+                } catch (Exception e) {
+                    System.err.println("Failed to start warm runner: " + e.getMessage());
+                } finally {
+                    starting.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private Runner launch() throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("java");
+        command.addAll(jvmOptions);
+        command.addAll(cdsArchives.localBaseOptions());
+        command.add("-cp");
+        command.add(runnerClasspath.toString());
+        command.add(RunnerMain.class.getName());
+        Path dir = Files.createTempDirectory(workDir, "runner-");
+        Process jvm;
+        try {
+            jvm = new ProcessBuilder(command)
+                    .directory(dir.toFile())
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+        } catch (IOException e) {
+            deleteTree(dir);
+            throw e;
+        }
+        Runner runner = new Runner(jvm, dir);
+        try {
+            byte type = runner.in.readByte();
+            runner.in.skipNBytes(runner.in.readInt());
+            if (type != RunnerMain.READY) throw new IOException("Unexpected frame " + type + " from runner");
+        } catch (IOException e) {
+            runner.kill();
+            throw e;
+        }
+        return runner;
+    }
+
+    /**
+     * Copies {@link RunnerMain} and its nested classes out of the application (which may be a
+     * packaged jar) so the runner JVMs can start from a plain directory.
+     */
+    private static Path extractRunnerClasses() throws IOException {
+        Path dir = Files.createTempDirectory("java-cloud-ide-runner-");
+        for (Class<?> type : RunnerMain.class.getNestMembers()) {
+            String resource = type.getName().replace('.', '/') + ".class";
+            try (InputStream in = RunnerMain.class.getClassLoader().getResourceAsStream(resource)) {
+                if (in == null) throw new IOException("Missing " + resource);
+                Path target = dir.resolve(resource);
+                Files.createDirectories(target.getParent());
+                Files.copy(in, target);
+            }
+        }
+        return dir;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shutdown = true;
+        Runner runner;
+        while ((runner = idle.poll()) != null) {
+            runner.kill();
+        }
+        workers.shutdownNow();
+    }
+
+    private static final class Runner {
+        final Process jvm;
+        final Path dir;
+        final DataInputStream in;
+        final DataOutputStream out;
+        int runs;
+
+        Runner(Process jvm, Path dir) {
+            this.jvm = jvm;
+            this.dir = dir;
+            this.in = new DataInputStream(new BufferedInputStream(jvm.getInputStream(), 1 << 16));
+            this.out = new DataOutputStream(new BufferedOutputStream(jvm.getOutputStream()));
+        }
+
+        void send(byte type, byte[] payload, int offset, int length) throws IOException {
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(length);
+                out.write(payload, offset, length);
+                out.flush();
+            }
+        }
+
+        /** Kills the JVM and deletes its work directory once it is gone. */
+        void kill() {
+            jvm.destroyForcibly();
+            jvm.onExit().thenRun(() -> deleteTree(dir));
+        }
+    }
+
+    /**
+     * A run inside a warm runner, presented as a {@link Process} so callers can treat it like a
+     * forked JVM. Destroying it kills the runner.
+     */
+    private static final class RunnerProcess extends Process {
+        private final Runner runner;
+        private final Pipe.SinkChannel outputSink;
+        private final InputStream output;
+        // Same as outputSink unless stderr is kept apart
+        private final Pipe.SinkChannel errorSink;
+        private final InputStream error;
+        private final OutputStream stdin;
+        private final CompletableFuture<Integer> exit = new CompletableFuture<>();
+        volatile boolean destroyed;
+
+        RunnerProcess(Runner runner, boolean mergeErrors) throws IOException {
+            this.runner = runner;
+            Pipe pipe = Pipe.open();
+            this.outputSink = pipe.sink();
+            this.output = java.nio.channels.Channels.newInputStream(pipe.source());
+            if (mergeErrors) {
+                this.errorSink = outputSink;
+                this.error = InputStream.nullInputStream();
+            } else {
+                Pipe errorPipe = Pipe.open();
+                this.errorSink = errorPipe.sink();
+                this.error = java.nio.channels.Channels.newInputStream(errorPipe.source());
+            }
+            this.stdin = new OutputStream() {
+                private boolean closed;
+
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    // After the exit the runner may already serve the next run
+                    if (closed || exit.isDone()) throw new IOException("Stream closed");
+                    if (len > 0) runner.send(RunnerMain.STDIN, b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (closed) return;
+                    closed = true;
+                    if (!exit.isDone()) runner.send(RunnerMain.STDIN_EOF, new byte[0], 0, 0);
+                }
+            };
+        }
+
+        void output(byte type, byte[] bytes) throws IOException {
+            Pipe.SinkChannel sink = type == RunnerMain.STDERR ? errorSink : outputSink;
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) sink.write(buffer);
+        }
+
+        void exited(int code) {
+            closeSinks();
+            exit.complete(code);
+        }
+
+        private void closeSinks() {
+            try {
+                outputSink.close();
+                errorSink.close();
+            } catch (IOException ignored) {}
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return stdin;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return output;
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return error;
+        }
+
+        @Override
+        public int waitFor() throws InterruptedException {
+            try {
+                return exit.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+            try {
+                exit.get(timeout, unit);
+                return true;
+            } catch (TimeoutException e) {
+                return false;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int exitValue() {
+            if (!exit.isDone()) throw new IllegalThreadStateException("process hasn't exited");
+            return exit.join();
+        }
+
+        @Override
+        public boolean isAlive() {
+            return !exit.isDone();
+        }
+
+        @Override
+        public void destroy() {
+            if (exit.isDone()) return;
+            destroyed = true;
+            runner.kill();
+            closeSinks();
+        }
+
+        @Override
+        public long pid() {
+            return runner.jvm.pid();
+        }
+    }
+}
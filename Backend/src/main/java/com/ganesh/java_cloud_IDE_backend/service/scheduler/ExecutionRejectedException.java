@@ -0,0 +1,11 @@
+package com.ganesh.java_cloud_IDE_backend.service.scheduler;
+
+/**
+ * Thrown by {@link ExecutionScheduler#submit} when a submission does not fit in the queue.
+ */
+public class ExecutionRejectedException extends RuntimeException {
+
+    public ExecutionRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,303 @@
+package com.ganesh.java_cloud_IDE_backend.service.scheduler;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Admission control and fair queuing in front of every execution.
+ *
+ * <p>At most {@code max-concurrent-runs} tasks run at once. The rest wait in a bounded queue:
+ * submissions beyond {@code max-queued} in total, or {@code max-queued-per-tenant} for one tenant,
+ * are rejected at once instead of piling up. Within a priority class tenants are served by deficit
+ * round-robin, so a tenant submitting in a loop gets its share and no more. Interactive work goes
+ * first, but every {@code batch-share}-th dispatch goes to waiting batch work so it cannot starve.
+ */
+@Component
+public class ExecutionScheduler {
+
+    public enum Priority { INTERACTIVE, BATCH }
+
+    /**
+     * Request header naming the tenant, set by whatever authenticates users in front of the
+     * backend. Without it the client address is the tenant.
+     */
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+
+    /** Work run by the scheduler; receives how long it waited in the queue. */
+    @FunctionalInterface
+    public interface Task<T> {
+        T run(long queueWaitNanos) throws Exception;
+    }
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final int maxQueuedPerTenant;
+    private final int quantum;
+    private final int batchShare;
+    private final ExecutorService workers;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Priority, FairQueue> queues = new EnumMap<>(Priority.class);
+    private final Map<String, Integer> queuedByTenant = new HashMap<>();
+    private int queued;
+    private int running;
+    private long dispatches;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final Map<Priority, AtomicLong> totalWaitNanos = new EnumMap<>(Priority.class);
+    private final Map<Priority, AtomicLong> maxWaitNanos = new EnumMap<>(Priority.class);
+    private final Map<Priority, AtomicLong> dispatched = new EnumMap<>(Priority.class);
+    private final Map<Priority, LongConsumer> dispatchListeners = new ConcurrentHashMap<>();
+
+    public ExecutionScheduler(@Value("${execution.max-concurrent-runs:0}") int maxConcurrent,
+                              @Value("${execution.scheduler.max-queued:200}") int maxQueued,
+                              @Value("${execution.scheduler.max-queued-per-tenant:20}") int maxQueuedPerTenant,
+                              @Value("${execution.scheduler.quantum:1}") int quantum,
+                              @Value("${execution.scheduler.batch-share:4}") int batchShare,
+                              ExecutorService executionExecutor) {
+        this.maxConcurrent = maxConcurrent > 0 ? maxConcurrent : Runtime.getRuntime().availableProcessors();
+        this.maxQueued = maxQueued;
+        this.maxQueuedPerTenant = maxQueuedPerTenant;
+        this.quantum = Math.max(1, quantum);
+        this.batchShare = Math.max(1, batchShare);
+        this.workers = executionExecutor;
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new FairQueue());
+            totalWaitNanos.put(priority, new AtomicLong());
+            maxWaitNanos.put(priority, new AtomicLong());
+            dispatched.put(priority, new AtomicLong());
+        }
+    }
+
+    /**
+     * Queues {@code task} for {@code tenant}. {@code cost} is what the task counts against the
+     * tenant's fair share (1 for a single run). Cancelling the returned future removes a queued task
+     * and interrupts a running one.
+     *
+     * @throws ExecutionRejectedException if the queue is full, for everyone or for this tenant
+     */
+    public <T> CompletableFuture<T> submit(String tenant, Priority priority, int cost, Task<T> task) {
+        Job<T> job = new Job<>(tenant, priority, Math.max(1, cost), task);
+        lock.lock();
+        try {
+            int tenantQueued = queuedByTenant.getOrDefault(tenant, 0);
+            boolean mustQueue = running >= maxConcurrent || queued > 0;
+            if (mustQueue && queued >= maxQueued) {
+                rejected.incrementAndGet();
+                throw new ExecutionRejectedException("Server busy: " + queued + " executions queued");
+            }
+            if (mustQueue && tenantQueued >= maxQueuedPerTenant) {
+                rejected.incrementAndGet();
+                throw new ExecutionRejectedException("Too many queued executions for this client");
+            }
+            submitted.incrementAndGet();
+            queues.get(priority).add(job, quantum);
+            queuedByTenant.merge(tenant, 1, Integer::sum);
+            queued++;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+        job.future.whenComplete((result, error) -> {
+            if (job.future.isCancelled()) cancel(job);
+        });
+        return job.future;
+    }
+
+    private void cancel(Job<?> job) {
+        lock.lock();
+        try {
+            if (queues.get(job.priority).remove(job)) {
+                queued--;
+                queuedByTenant.computeIfPresent(job.tenant, (t, n) -> n > 1 ? n - 1 : null);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        Thread thread = job.thread;
+        if (thread != null) thread.interrupt();
+    }
+
+    /** Calls {@code listener} with the queue wait, in nanoseconds, of every dispatched task of {@code priority}. */
+    public void onDispatch(Priority priority, LongConsumer listener) {
+        dispatchListeners.put(priority, listener);
+    }
+
+    public static String tenantOf(String tenantHeader, String remoteAddress) {
+        if (tenantHeader != null && !tenantHeader.isBlank()) return tenantHeader.trim();
+        return remoteAddress != null ? remoteAddress : "unknown";
+    }
+
+    public int runningCount() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queuedCount(Priority priority) {
+        lock.lock();
+        try {
+            return queues.get(priority).size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long submittedCount() {
+        return submitted.get();
+    }
+
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    public long dispatchedCount(Priority priority) {
+        return dispatched.get(priority).get();
+    }
+
+    public long totalWaitNanos(Priority priority) {
+        return totalWaitNanos.get(priority).get();
+    }
+
+    public long maxWaitNanos(Priority priority) {
+        return maxWaitNanos.get(priority).get();
+    }
+
+    /** Starts queued jobs while there is capacity. Called with the lock held. */
+    private void dispatch() {
+        while (running < maxConcurrent) {
+            Job<?> job = next();
+            if (job == null) return;
+            queued--;
+            queuedByTenant.computeIfPresent(job.tenant, (t, n) -> n > 1 ? n - 1 : null);
+            running++;
+            dispatches++;
+            workers.execute(() -> run(job));
+        }
+    }
+
+    private Job<?> next() {
+        FairQueue interactive = queues.get(Priority.INTERACTIVE);
+        FairQueue batch = queues.get(Priority.BATCH);
+        boolean batchTurn = batch.size > 0 && (interactive.size == 0 || dispatches % batchShare == batchShare - 1);
+        return batchTurn ? batch.poll(quantum) : interactive.poll(quantum);
+    }
+
+    private <T> void run(Job<T> job) {
+        long waited = System.nanoTime() - job.enqueuedNanos;
+        totalWaitNanos.get(job.priority).addAndGet(waited);
+        maxWaitNanos.get(job.priority).accumulateAndGet(waited, Math::max);
+        dispatched.get(job.priority).incrementAndGet();
+        LongConsumer listener = dispatchListeners.get(job.priority);
+        if (listener != null) listener.accept(waited);
+        job.thread = Thread.currentThread();
+        try {
+            if (!job.future.isDone()) job.future.complete(job.task.run(waited));
+        } catch (Throwable e) {
+            job.future.completeExceptionally(e);
+        } finally {
+            job.thread = null;
+            lock.lock();
+            try {
+                running--;
+                dispatch();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Job<T> {
+        final String tenant;
+        final Priority priority;
+        final int cost;
+        final Task<T> task;
+        final long enqueuedNanos = System.nanoTime();
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        volatile Thread thread;
+
+        Job(String tenant, Priority priority, int cost, Task<T> task) {
+            this.tenant = tenant;
+            this.priority = priority;
+            this.cost = cost;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Deficit round-robin over per-tenant FIFO queues. Each turn a tenant is credited
+     * {@code quantum} and serves jobs while their cost fits in its credit.
+     */
+    private static final class FairQueue {
+        private final Map<String, TenantQueue> tenants = new HashMap<>();
+        // Tenants with queued jobs, in service order
+        private final Deque<TenantQueue> active = new ArrayDeque<>();
+        int size;
+
+        void add(Job<?> job, int quantum) {
+            TenantQueue queue = tenants.computeIfAbsent(job.tenant, TenantQueue::new);
+            if (queue.jobs.isEmpty()) {
+                queue.deficit = quantum;
+                active.addLast(queue);
+            }
+            queue.jobs.addLast(job);
+            size++;
+        }
+
+        boolean remove(Job<?> job) {
+            TenantQueue queue = tenants.get(job.tenant);
+            if (queue == null || !queue.jobs.remove(job)) return false;
+            size--;
+            if (queue.jobs.isEmpty()) {
+                active.remove(queue);
+                tenants.remove(queue.tenant);
+            }
+            return true;
+        }
+
+        Job<?> poll(int quantum) {
+            while (!active.isEmpty()) {
+                TenantQueue queue = active.peekFirst();
+                Job<?> head = queue.jobs.peekFirst();
+                if (head.cost <= queue.deficit) {
+                    queue.jobs.pollFirst();
+                    queue.deficit -= head.cost;
+                    size--;
+                    if (queue.jobs.isEmpty()) {
+                        active.pollFirst();
+                        tenants.remove(queue.tenant);
+                    }
+                    return head;
+                }
+                // Turn over: to the back of the line with the next turn's credit
+                active.pollFirst();
+                queue.deficit += quantum;
+                active.addLast(queue);
+            }
+            return null;
+        }
+    }
+
+    private static final class TenantQueue {
+        final String tenant;
+        final Deque<Job<?>> jobs = new ArrayDeque<>();
+        long deficit;
+
+        TenantQueue(String tenant) {
+            this.tenant = tenant;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.ganesh.java_cloud_IDE_backend.handler;
+
+import com.ganesh.java_cloud_IDE_backend.handler.TerminalOutputPump.Counters;
+import com.ganesh.java_cloud_IDE_backend.handler.TerminalOutputPump.SlowConsumerPolicy;
+import com.ganesh.java_cloud_IDE_backend.handler.TerminalOutputPump.Stats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TerminalOutputPumpTests {
+
+	private static final int BUFFER = 8192;
+
+	private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+	private final FakeSession session = new FakeSession();
+	private final Counters counters = new Counters();
+	private final PipedOutputStream program = new PipedOutputStream();
+
+	@AfterEach
+	void tearDown() {
+		session.release();
+		threads.shutdownNow();
+	}
+
+	@Test
+	void tightWritesAreCoalescedIntoFramesOfAtMostFrameBytes() throws Exception {
+		TerminalOutputPump pump = pump(4096, 50, SlowConsumerPolicy.PAUSE, true);
+		byte[] line = "0123456789".getBytes(StandardCharsets.UTF_8);
+		for (int i = 0; i < 1000; i++) program.write(line);
+		program.close();
+		assertTrue(pump.awaitDone(10, TimeUnit.SECONDS));
+
+		assertEquals("0123456789".repeat(1000), session.received());
+		// 10 000 bytes need at least three frames, and far fewer than one per write
+		assertTrue(session.frames.size() >= 3 && session.frames.size() <= 20, "frames: " + session.frames.size());
+		for (byte[] frame : session.frames) assertTrue(frame.length <= 4096, "frame of " + frame.length);
+		Stats stats = counters.snapshot();
+		assertEquals(10000, stats.bytesRead());
+		assertEquals(10000, stats.bytesSent());
+		assertEquals(session.frames.size(), stats.framesSent());
+		assertEquals(0, stats.bytesDropped());
+	}
+
+	@Test
+	void outputIsHeldForTheFlushIntervalToCollectMore() throws Exception {
+		TerminalOutputPump pump = pump(4096, 500, SlowConsumerPolicy.PAUSE, false);
+		// A pipe reader only wakes at once on flush
+		program.write('a');
+		program.flush();
+		Thread.sleep(50);
+		program.write('b');
+		program.flush();
+		awaitFrames(1);
+		Thread.sleep(600);
+		program.write('c');
+		program.flush();
+		program.close();
+		assertTrue(pump.awaitDone(10, TimeUnit.SECONDS));
+
+		assertEquals(List.of("ab", "c"), session.texts());
+	}
+
+	@Test
+	void pausedPumpStopsReadingUntilTheBrowserCatchesUp() throws Exception {
+		TerminalOutputPump pump = pump(1024, 5, SlowConsumerPolicy.PAUSE, false);
+		session.hold();
+		byte[] output = output(4 * BUFFER);
+		Future<?> writer = write(output);
+
+		// The program is blocked on its writes, nothing is lost
+		assertThrows(TimeoutException.class, () -> writer.get(300, TimeUnit.MILLISECONDS));
+		assertTrue(counters.snapshot().pauses() >= 1);
+
+		session.release();
+		writer.get(10, TimeUnit.SECONDS);
+		assertTrue(pump.awaitDone(10, TimeUnit.SECONDS));
+		assertEquals(new String(output, StandardCharsets.UTF_8), session.received());
+		assertEquals(0, counters.snapshot().bytesDropped());
+		assertTrue(session.isOpen());
+	}
+
+	@Test
+	void droppingPumpKeepsReadingAndMarksTheGap() throws Exception {
+		TerminalOutputPump pump = pump(1024, 5, SlowConsumerPolicy.DROP, false);
+		session.hold();
+		byte[] output = output(4 * BUFFER);
+
+		// The program never blocks, even though the browser takes nothing
+		write(output).get(10, TimeUnit.SECONDS);
+		session.release();
+		assertTrue(pump.awaitDone(10, TimeUnit.SECONDS));
+
+		Stats stats = counters.snapshot();
+		assertEquals(output.length, stats.bytesRead());
+		assertTrue(stats.bytesDropped() > 0);
+		assertEquals(0, stats.pauses());
+		String received = session.received();
+		assertTrue(received.contains("bytes of output dropped: terminal too slow"), received);
+		assertEquals(stats.bytesSent(), received.getBytes(StandardCharsets.UTF_8).length);
+		assertTrue(session.isOpen());
+	}
+
+	@Test
+	void disconnectingPumpClosesTheSessionOnOverflow() throws Exception {
+		TerminalOutputPump pump = pump(1024, 5, SlowConsumerPolicy.DISCONNECT, false);
+		session.hold();
+		write(output(4 * BUFFER));
+
+		CloseStatus status = session.closed.get(10, TimeUnit.SECONDS);
+		assertEquals(CloseStatus.SESSION_NOT_RELIABLE.getCode(), status.getCode());
+		assertEquals("Terminal output buffer overflow", status.getReason());
+		session.release();
+		assertTrue(pump.awaitDone(10, TimeUnit.SECONDS));
+		assertEquals(0, counters.snapshot().bytesDropped());
+	}
+
+	@Test
+	void countersAddUpOverTheRunsOfASession() throws Exception {
+		TerminalOutputPump first = pump(4096, 5, SlowConsumerPolicy.PAUSE, false);
+		program.write("first run\n".getBytes(StandardCharsets.UTF_8));
+		program.close();
+		assertTrue(first.awaitDone(10, TimeUnit.SECONDS));
+
+		PipedOutputStream second = new PipedOutputStream();
+		TerminalOutputPump next = new TerminalOutputPump(session, new PipedInputStream(second, 1024), 4096, 5,
+				BUFFER, SlowConsumerPolicy.PAUSE, counters, false);
+		next.start(threads);
+		second.write("second\n".getBytes(StandardCharsets.UTF_8));
+		second.close();
+		assertTrue(next.awaitDone(10, TimeUnit.SECONDS));
+
+		assertEquals("first run\nsecond\n", session.received());
+		assertEquals(new Stats(17, 17, session.frames.size(), 0, 0), counters.snapshot());
+	}
+
+	private TerminalOutputPump pump(int frameBytes, long flushMillis, SlowConsumerPolicy policy, boolean binary)
+			throws IOException {
+		// A small pipe, so a pump that stops reading soon blocks the writer
+		TerminalOutputPump pump = new TerminalOutputPump(session, new PipedInputStream(program, 1024), frameBytes,
+				flushMillis, BUFFER, policy, counters, binary);
+		pump.start(threads);
+		return pump;
+	}
+
+	private Future<?> write(byte[] output) {
+		return threads.submit(() -> {
+			try (program) {
+				for (int offset = 0; offset < output.length; offset += 512) {
+					program.write(output, offset, Math.min(512, output.length - offset));
+				}
+			} catch (IOException e) {
+				// The pump stopped reading
+			}
+			return null;
+		});
+	}
+
+	private static byte[] output(int length) {
+		byte[] output = new byte[length];
+		for (int i = 0; i < length; i++) output[i] = (byte) ('a' + i % 26);
+		return output;
+	}
+
+	private void awaitFrames(int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (session.frames.size() < count) {
+			if (System.nanoTime() > deadline) fail("no frame sent");
+			Thread.sleep(10);
+		}
+	}
+
+	/** A session whose sends can be held back, like a browser that stopped reading. */
+	private static final class FakeSession implements WebSocketSession {
+		final List<byte[]> frames = new CopyOnWriteArrayList<>();
+		final CompletableFuture<CloseStatus> closed = new CompletableFuture<>();
+		private volatile CountDownLatch gate = new CountDownLatch(0);
+
+		void hold() {
+			gate = new CountDownLatch(1);
+		}
+
+		void release() {
+			gate.countDown();
+		}
+
+		String received() {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			frames.forEach(bytes::writeBytes);
+			return bytes.toString(StandardCharsets.UTF_8);
+		}
+
+		List<String> texts() {
+			return frames.stream().map(frame -> new String(frame, StandardCharsets.UTF_8)).toList();
+		}
+
+		@Override
+		public void sendMessage(WebSocketMessage<?> message) throws IOException {
+			try {
+				if (!gate.await(10, TimeUnit.SECONDS)) throw new IOException("send timed out");
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+			if (message instanceof BinaryMessage binary) {
+				ByteBuffer payload = binary.getPayload().duplicate();
+				assertEquals(TerminalProtocol.OUTPUT, payload.get());
+				byte[] frame = new byte[payload.remaining()];
+				payload.get(frame);
+				frames.add(frame);
+			} else {
+				frames.add(((TextMessage) message).getPayload().getBytes(StandardCharsets.UTF_8));
+			}
+		}
+
+		@Override
+		public boolean isOpen() {
+			return !closed.isDone();
+		}
+
+		@Override
+		public void close() {
+			close(CloseStatus.NORMAL);
+		}
+
+		@Override
+		public void close(CloseStatus status) {
+			closed.complete(status);
+		}
+
+		@Override
+		public String getId() {
+			return "fake";
+		}
+
+		@Override
+		public URI getUri() {
+			return null;
+		}
+
+		@Override
+		public HttpHeaders getHandshakeHeaders() {
+			return new HttpHeaders();
+		}
+
+		@Override
+		public Map<String, Object> getAttributes() {
+			return new HashMap<>();
+		}
+
+		@Override
+		public Principal getPrincipal() {
+			return null;
+		}
+
+		@Override
+		public InetSocketAddress getLocalAddress() {
+			return null;
+		}
+
+		@Override
+		public InetSocketAddress getRemoteAddress() {
+			return null;
+		}
+
+		@Override
+		public String getAcceptedProtocol() {
+			return null;
+		}
+
+		@Override
+		public void setTextMessageSizeLimit(int messageSizeLimit) {
+		}
+
+		@Override
+		public int getTextMessageSizeLimit() {
+			return 0;
+		}
+
+		@Override
+		public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+		}
+
+		@Override
+		public int getBinaryMessageSizeLimit() {
+			return 0;
+		}
+
+		@Override
+		public List<WebSocketExtension> getExtensions() {
+			return List.of();
+		}
+	}
+}
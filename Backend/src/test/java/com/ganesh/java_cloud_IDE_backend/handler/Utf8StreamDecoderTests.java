@@ -0,0 +1,45 @@
+package com.ganesh.java_cloud_IDE_backend.handler;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Utf8StreamDecoderTests {
+
+	@Test
+	void carriesSplitCharactersOverToTheNextChunk() {
+		String text = "añ€😀z";
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+		// Every possible chunk size, including ones that split each multi-byte character
+		for (int chunk = 1; chunk <= bytes.length; chunk++) {
+			Utf8StreamDecoder decoder = new Utf8StreamDecoder();
+			StringBuilder decoded = new StringBuilder();
+			for (int offset = 0; offset < bytes.length; offset += chunk) {
+				decoded.append(decoder.decode(bytes, offset, Math.min(chunk, bytes.length - offset)));
+			}
+			decoded.append(decoder.finish());
+			assertEquals(text, decoded.toString(), "chunk size " + chunk);
+		}
+	}
+
+	@Test
+	void holdsBackOnlyTheIncompleteTail() {
+		Utf8StreamDecoder decoder = new Utf8StreamDecoder();
+		byte[] euro = "€".getBytes(StandardCharsets.UTF_8);
+
+		assertEquals("ok", decoder.decode(new byte[]{'o', 'k', euro[0], euro[1]}, 0, 4));
+		assertEquals("€!", decoder.decode(new byte[]{euro[2], '!'}, 0, 2));
+	}
+
+	@Test
+	void replacesMalformedAndDanglingBytes() {
+		Utf8StreamDecoder decoder = new Utf8StreamDecoder();
+
+		assertEquals("a�b", decoder.decode(new byte[]{'a', (byte) 0xFF, 'b'}, 0, 3));
+		assertEquals("", decoder.decode(new byte[]{(byte) 0xE2, (byte) 0x82}, 0, 2));
+		assertEquals("�", decoder.finish());
+	}
+}
@@ -0,0 +1,151 @@
+package com.ganesh.java_cloud_IDE_backend.service;
+
+import com.ganesh.java_cloud_IDE_backend.model.BatchCase;
+import com.ganesh.java_cloud_IDE_backend.model.BatchRequest;
+import com.ganesh.java_cloud_IDE_backend.model.BatchResponse;
+import com.ganesh.java_cloud_IDE_backend.model.ExecutionResponse;
+import com.ganesh.java_cloud_IDE_backend.model.SourceFile;
+import com.ganesh.java_cloud_IDE_backend.service.cache.ArtifactStore;
+import com.ganesh.java_cloud_IDE_backend.service.cache.BlobStore;
+import com.ganesh.java_cloud_IDE_backend.service.cache.CompilationCache;
+import com.ganesh.java_cloud_IDE_backend.service.cache.FailedCompilationCache;
+import com.ganesh.java_cloud_IDE_backend.service.cds.CdsArchives;
+import com.ganesh.java_cloud_IDE_backend.service.compile.InMemoryJavaCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.compile.IncrementalCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.docker.ContainerPool;
+import com.ganesh.java_cloud_IDE_backend.service.docker.WorkspaceProvisioner;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ExecutionMetrics;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ResourceMonitor;
+import com.ganesh.java_cloud_IDE_backend.service.output.OutputCapture;
+import com.ganesh.java_cloud_IDE_backend.service.runner.WarmRunnerPool;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchExecutionServiceTests {
+
+	// Prints the input after sleeping that many tenths of a second
+	private static final String SLEEPER = "public class Main { public static void main(String[] a) throws Exception {"
+			+ " String n = new java.util.Scanner(System.in).nextLine().trim();"
+			+ " Thread.sleep(Integer.parseInt(n) * 100L); System.out.println(n); } }";
+
+	// Registers itself in the directory named by the input, and prints how many runs were registered meanwhile
+	private static final String OVERLAP = "public class Main { public static void main(String[] a) throws Exception {"
+			+ " java.nio.file.Path dir = java.nio.file.Path.of(new java.util.Scanner(System.in).nextLine().trim());"
+			+ " java.nio.file.Path me = java.nio.file.Files.createTempFile(dir, \"run\", \"\"); Thread.sleep(800);"
+			+ " try (var runs = java.nio.file.Files.list(dir)) { System.out.println(runs.count()); }"
+			+ " java.nio.file.Files.delete(me); } }";
+
+	@TempDir
+	Path root;
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void resultsFollowCaseOrderWhateverOrderTheyFinishIn() throws Exception {
+		BatchExecutionService batches = batchService(new ExecutionScheduler(4, 100, 100, 1, 4, executor), 4, 30000);
+
+		BatchResponse response = batches.execute(batch(SLEEPER, "6", "1", "4", "0"), "t");
+
+		assertNull(response.getError());
+		assertEquals("Main", response.getMainClass());
+		assertEquals(List.of("6\n", "1\n", "4\n", "0\n"), response.getResults().stream().map(ExecutionResponse::getStdout).toList());
+	}
+
+	@Test
+	void parallelismIsSharedByAllBatchesOfATenant() throws Exception {
+		BatchExecutionService batches = batchService(new ExecutionScheduler(8, 100, 100, 1, 4, executor), 2, 30000);
+		String dir = Files.createDirectories(root.resolve("runs")).toString();
+
+		// Two batches at once, with four cases each: together never more than two cases at a time
+		Future<BatchResponse> first = executor.submit(() -> batches.execute(batch(OVERLAP, dir, dir, dir, dir), "t"));
+		Future<BatchResponse> second = executor.submit(() -> batches.execute(batch(OVERLAP, dir, dir, dir, dir), "t"));
+		for (Future<BatchResponse> batch : List.of(first, second)) {
+			BatchResponse response = batch.get(120, TimeUnit.SECONDS);
+			assertNull(response.getError());
+			assertEquals(4, response.getResults().size());
+			for (ExecutionResponse result : response.getResults()) {
+				int overlap = Integer.parseInt(result.getStdout().trim());
+				assertTrue(overlap >= 1 && overlap <= 2, "cases running at once: " + overlap);
+			}
+		}
+	}
+
+	@Test
+	void rejectedCasesAreRetriedUntilTheSchedulerTakesThem() throws Exception {
+		// One run at a time and one queued per tenant, so the third case is turned away at first
+		BatchExecutionService batches = batchService(new ExecutionScheduler(1, 100, 1, 1, 4, executor), 3, 30000);
+
+		BatchResponse response = batches.execute(batch(SLEEPER, "3", "3", "3"), "t");
+
+		assertNull(response.getError());
+		assertEquals(List.of("3\n", "3\n", "3\n"), response.getResults().stream().map(ExecutionResponse::getStdout).toList());
+	}
+
+	@Test
+	void casesStillRejectedAfterTheRetryTimeoutAreReportedFailed() throws Exception {
+		BatchExecutionService batches = batchService(new ExecutionScheduler(1, 100, 1, 1, 4, executor), 3, 0);
+
+		BatchResponse response = batches.execute(batch(SLEEPER, "3", "3", "3"), "t");
+
+		assertNull(response.getError());
+		assertEquals("3\n", response.getResults().getFirst().getStdout());
+		ExecutionResponse rejected = response.getResults().getLast();
+		assertEquals("", rejected.getStdout());
+		assertEquals("Too many queued executions for this client", rejected.getStderr());
+		assertEquals(1, rejected.getExitCode());
+	}
+
+	private static BatchRequest batch(String source, String... inputs) {
+		SourceFile file = new SourceFile();
+		file.setPath("Main.java");
+		file.setContent(source);
+		BatchRequest request = new BatchRequest();
+		request.setFiles(List.of(file));
+		request.setCases(Arrays.stream(inputs).map(input -> {
+			BatchCase batchCase = new BatchCase();
+			batchCase.setInput(input + "\n");
+			return batchCase;
+		}).toList());
+		return request;
+	}
+
+	/** Cases run on the local JVM fork path: no Docker, no warm runners. */
+	private BatchExecutionService batchService(ExecutionScheduler scheduler, int parallelism, long retryTimeoutMillis)
+			throws Exception {
+		ContainerPool containerPool = new ContainerPool("docker", "java-runner:25", 0, 0, Duration.ofMinutes(2),
+				Duration.ofSeconds(15), root.resolve("workspace"), root.resolve("cds"), "65534:65534");
+		CdsArchives cdsArchives = new CdsArchives(false, false, 0, root.resolve("cds"), containerPool);
+		WarmRunnerPool runnerPool = new WarmRunnerPool(false, 0, 0, "", cdsArchives);
+		CompilationCache compilationCache = new CompilationCache(50, 1L << 30, new ArtifactStore(root.resolve("cache")));
+		FailedCompilationCache failedCompilations = new FailedCompilationCache(30, 1000);
+		BlobStore blobStore = new BlobStore(1L << 26, Duration.ofHours(1));
+		ExecutionMetrics metrics = new ExecutionMetrics(new SimpleMeterRegistry(), containerPool, runnerPool,
+				compilationCache, failedCompilations, scheduler, blobStore);
+		OptimizedJavaExecutionService executionService = new OptimizedJavaExecutionService(
+				new IncrementalCompiler(new InMemoryJavaCompiler()), compilationCache, failedCompilations, containerPool,
+				runnerPool, cdsArchives, new WorkspaceProvisioner(containerPool, "copy"),
+				new OutputCapture(65536, 16384, 4194304), metrics, blobStore,
+				new ResourceMonitor(false, Duration.ofMillis(50), Path.of("/sys/fs/cgroup")));
+		return new BatchExecutionService(executionService, scheduler, metrics, 200, parallelism, retryTimeoutMillis);
+	}
+}
@@ -0,0 +1,183 @@
+package com.ganesh.java_cloud_IDE_backend.service;
+
+import com.ganesh.java_cloud_IDE_backend.model.ExecutionRequest;
+import com.ganesh.java_cloud_IDE_backend.model.ExecutionResponse;
+import com.ganesh.java_cloud_IDE_backend.model.SourceFile;
+import com.ganesh.java_cloud_IDE_backend.service.cache.ArtifactStore;
+import com.ganesh.java_cloud_IDE_backend.service.cache.BlobStore;
+import com.ganesh.java_cloud_IDE_backend.service.cache.CompilationCache;
+import com.ganesh.java_cloud_IDE_backend.service.cache.FailedCompilationCache;
+import com.ganesh.java_cloud_IDE_backend.service.cds.CdsArchives;
+import com.ganesh.java_cloud_IDE_backend.service.compile.*;
+import com.ganesh.java_cloud_IDE_backend.service.docker.ContainerPool;
+import com.ganesh.java_cloud_IDE_backend.service.docker.WorkspaceProvisioner;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ExecutionMetrics;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ResourceMonitor;
+import com.ganesh.java_cloud_IDE_backend.service.output.OutputCapture;
+import com.ganesh.java_cloud_IDE_backend.service.runner.WarmRunnerPool;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizedJavaExecutionServiceTests {
+
+	private static final String HASH = "ab" + "0".repeat(62);
+
+	@TempDir
+	Path root;
+
+	private final StubCompiler javac = new StubCompiler();
+	private OptimizedJavaExecutionService service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		ContainerPool containerPool = new ContainerPool("docker", "java-runner:25", 0, 0, Duration.ofMinutes(2),
+				Duration.ofSeconds(15), root.resolve("workspace"), root.resolve("cds"), "65534:65534");
+		CdsArchives cdsArchives = new CdsArchives(false, false, 0, root.resolve("cds"), containerPool);
+		WarmRunnerPool runnerPool = new WarmRunnerPool(false, 0, 0, "", cdsArchives);
+		CompilationCache compilationCache = new CompilationCache(50, 1L << 30, new ArtifactStore(root.resolve("cache")));
+		FailedCompilationCache failedCompilations = new FailedCompilationCache(30, 1000);
+		ExecutionScheduler scheduler = new ExecutionScheduler(1, 1, 1, 1, 1, Executors.newVirtualThreadPerTaskExecutor());
+		BlobStore blobStore = new BlobStore(1L << 26, Duration.ofHours(1));
+		ExecutionMetrics metrics = new ExecutionMetrics(new SimpleMeterRegistry(), containerPool, runnerPool,
+				compilationCache, failedCompilations, scheduler, blobStore);
+		service = new OptimizedJavaExecutionService(new IncrementalCompiler(javac), compilationCache, failedCompilations,
+				containerPool, runnerPool, cdsArchives, new WorkspaceProvisioner(containerPool, "copy"),
+				new OutputCapture(65536, 16384, 4194304), metrics, blobStore,
+				new ResourceMonitor(false, Duration.ofMillis(50), Path.of("/sys/fs/cgroup")));
+	}
+
+	@Test
+	void concurrentMissesShareOneCompile() throws Exception {
+		javac.delayMillis = 300;
+		ExecutorService callers = Executors.newFixedThreadPool(8);
+		List<Future<CompilationCache.Lease>> leases = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			leases.add(callers.submit(() -> service.getOrCompile(project(), HASH)));
+		}
+		Set<Path> dirs = new HashSet<>();
+		for (Future<CompilationCache.Lease> lease : leases) {
+			try (CompilationCache.Lease l = lease.get(30, TimeUnit.SECONDS)) {
+				dirs.add(l.dir());
+			}
+		}
+		callers.shutdown();
+
+		assertEquals(1, javac.calls.get());
+		assertEquals(1, dirs.size());
+	}
+
+	@Test
+	void diagnosticsAreReplayedWithoutRecompiling() throws Exception {
+		javac.next = CompilationResult.failure("Main.java:1: error: ';' expected", 0);
+
+		for (int i = 0; i < 3; i++) {
+			CompilationFailedException e = compileFailure();
+			assertEquals("Main.java:1: error: ';' expected", e.getMessage());
+			assertFalse(e.compilerError());
+		}
+		assertEquals(1, javac.calls.get());
+	}
+
+	@Test
+	void compilerErrorsAreNotRemembered() throws Exception {
+		javac.next = CompilationResult.error("Compilation timed out", 0);
+		CompilationFailedException e = compileFailure();
+		assertEquals("Compilation timed out", e.getMessage());
+		assertTrue(e.compilerError());
+
+		// The same sources are compiled again, and this time they build
+		javac.next = null;
+		try (CompilationCache.Lease lease = service.getOrCompile(project(), HASH)) {
+			assertNotNull(lease);
+		}
+		assertEquals(2, javac.calls.get());
+	}
+
+	@Test
+	void onlyStdoutIsVerifiedAndStderrIsReturnedApart() {
+		SourceFile file = new SourceFile();
+		file.setPath("Main.java");
+		file.setContent("public class Main { public static void main(String[] a) {"
+				+ " System.err.println(\"debug: summing\"); System.out.println(1 + 2 + 3); } }");
+		ExecutionRequest request = new ExecutionRequest();
+		request.setFiles(List.of(file));
+		request.setExpectedOutput("6\n");
+
+		ExecutionResponse response = service.execute(request);
+		assertEquals("accepted", response.getVerdict());
+		assertEquals(0, response.getExitCode());
+		assertEquals("6\n", response.getStdout());
+		assertEquals("debug: summing\n", response.getStderr());
+	}
+
+	@Test
+	void fileWithoutContentOrHashIsReportedAsInvalid() {
+		SourceFile file = new SourceFile();
+		file.setPath("Main.java");
+		ExecutionRequest request = new ExecutionRequest();
+		request.setFiles(List.of(file));
+
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> service.missingBlobs(request.getFiles()));
+		assertEquals("File Main.java has neither content nor hash", e.getMessage());
+		ExecutionResponse response = service.execute(request);
+		assertEquals("File Main.java has neither content nor hash", response.getStderr());
+		assertEquals(1, response.getExitCode());
+	}
+
+	private CompilationFailedException compileFailure() throws Exception {
+		try {
+			service.getOrCompile(project(), HASH).close();
+		} catch (CompilationFailedException e) {
+			return e;
+		}
+		return fail("expected the compile to fail");
+	}
+
+	private static List<SourceFile> project() {
+		SourceFile file = new SourceFile();
+		file.setPath("Main.java");
+		file.setContent("public class Main { public static void main(String[] a) { System.out.println(1); } }");
+		return List.of(file);
+	}
+
+	/** The in-process compiler, counting its calls and answering {@code next} instead when set. */
+	private static final class StubCompiler implements JavaSourceCompiler {
+		private final InMemoryJavaCompiler delegate = new InMemoryJavaCompiler();
+		final AtomicInteger calls = new AtomicInteger();
+		volatile CompilationResult next;
+		volatile long delayMillis;
+
+		@Override
+		public CompilationResult compile(Map<String, String> sources, List<Path> classpath) {
+			calls.incrementAndGet();
+			try {
+				Thread.sleep(delayMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			CompilationResult result = next;
+			return result != null ? result : delegate.compile(sources, classpath);
+		}
+
+		@Override
+		public String mode() {
+			return delegate.mode();
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package com.ganesh.java_cloud_IDE_backend.service.cache;
+
+import com.ganesh.java_cloud_IDE_backend.service.compile.InMemoryJavaCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.compile.IncrementalCompiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactMetadataTests {
+
+	@TempDir
+	Path tmp;
+
+	@Test
+	void topLevelEntryPointsComeFirstThenByName() throws Exception {
+		compile();
+		ArtifactMetadata metadata = ArtifactMetadata.scan(tmp);
+
+		assertEquals(List.of("Alpha", "Zeta", "app.Tool", "Alpha$Nested"), metadata.entryPoints());
+		assertEquals(List.of("Alpha", "Alpha$Nested", "NoMain", "Zeta", "app.Tool"), List.copyOf(metadata.classes().keySet()));
+		assertEquals(Files.size(tmp.resolve("NoMain.class")), (long) metadata.classes().get("NoMain"));
+		assertEquals("Alpha", metadata.mainClass(null));
+		assertEquals("Alpha$Nested", metadata.mainClass("Alpha$Nested"));
+	}
+
+	@Test
+	void requestedClassMustDeclareMain() throws Exception {
+		compile();
+		ArtifactMetadata metadata = ArtifactMetadata.scan(tmp);
+
+		IllegalArgumentException noMain = assertThrows(IllegalArgumentException.class, () -> metadata.mainClass("NoMain"));
+		assertEquals("Class NoMain has no 'public static void main(String[] args)'.", noMain.getMessage());
+		IllegalArgumentException missing = assertThrows(IllegalArgumentException.class, () -> metadata.mainClass("Gone"));
+		assertEquals("Main class Gone not found. Entry points: Alpha, Zeta, app.Tool, Alpha$Nested", missing.getMessage());
+	}
+
+	@Test
+	void projectWithoutMainIsReported() {
+		ArtifactMetadata metadata = new ArtifactMetadata(List.of(), Map.of("NoMain", 100L));
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> metadata.mainClass(" "));
+		assertEquals("No main method found. Please ensure your file contains 'public static void main(String[] args)'.",
+				e.getMessage());
+	}
+
+	@Test
+	void recordedMetadataReadsBackUnchanged() throws Exception {
+		compile();
+		ArtifactMetadata scanned = ArtifactMetadata.scan(tmp);
+		scanned.writeTo(tmp);
+		assertTrue(Files.isRegularFile(tmp.resolve(ArtifactMetadata.FILE_NAME)));
+
+		// Read from the file, not the class files: entry point order included
+		Files.delete(tmp.resolve("Zeta.class"));
+		ArtifactMetadata read = ArtifactMetadata.read(tmp);
+		assertEquals(scanned, read);
+		assertEquals(scanned.classBytes(), read.classBytes());
+	}
+
+	@Test
+	void artifactsWithoutMetadataAreScanned() throws Exception {
+		compile();
+		assertFalse(Files.exists(tmp.resolve(ArtifactMetadata.FILE_NAME)));
+		assertEquals(ArtifactMetadata.scan(tmp), ArtifactMetadata.read(tmp));
+	}
+
+	private void compile() throws IOException {
+		assertTrue(new IncrementalCompiler(new InMemoryJavaCompiler()).compile(Map.of(
+				"Zeta.java", "public class Zeta { public static void main(String[] a) {} }",
+				"Alpha.java", "public class Alpha { public static void main(String[] a) {}"
+						+ " static class Nested { public static void main(String[] a) {} } }",
+				"app/Tool.java", "package app; class Tool { public static void main(String[] a) {} }",
+				"NoMain.java", "public class NoMain { void run() {} }"), tmp).compilation().success());
+	}
+}
@@ -0,0 +1,59 @@
+package com.ganesh.java_cloud_IDE_backend.service.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactStoreTests {
+
+	private static final String FIRST = "aa" + "1".repeat(62);
+	private static final String SECOND = "bb" + "2".repeat(62);
+	private static final String THIRD = "cc" + "3".repeat(62);
+
+	@TempDir
+	Path root;
+
+	@Test
+	void damagedIndexRecordsAreSkippedOnReload() throws IOException {
+		ArtifactStore store = new ArtifactStore(root);
+		store.commit(store.describe(FIRST, work(store, FIRST)));
+		append("P " + SECOND + " 12 not-a-crc\n" + "P x\u0000\u0000 7\n");
+		store.commit(store.describe(THIRD, work(store, THIRD)));
+		// Torn write at the end of the log
+		append("P " + SECOND + " 6");
+
+		List<String> live = new ArtifactStore(root).load().stream().map(ArtifactStore.Artifact::hash).toList();
+		assertEquals(List.of(FIRST, THIRD), live);
+	}
+
+	@Test
+	void recordAppendedAfterATornWriteIsKept() throws IOException {
+		ArtifactStore store = new ArtifactStore(root);
+		store.commit(store.describe(FIRST, work(store, FIRST)));
+		append("P " + SECOND + " 6");
+
+		ArtifactStore reopened = new ArtifactStore(root);
+		reopened.commit(reopened.describe(THIRD, work(reopened, THIRD)));
+
+		List<String> live = new ArtifactStore(root).load().stream().map(ArtifactStore.Artifact::hash).toList();
+		assertEquals(List.of(FIRST, THIRD), live);
+	}
+
+	private static Path work(ArtifactStore store, String hash) throws IOException {
+		Path dir = store.newWorkDir(hash);
+		Files.writeString(dir.resolve("Main.class"), hash);
+		return dir;
+	}
+
+	private void append(String text) throws IOException {
+		Files.writeString(root.resolve("index.log"), text, StandardCharsets.US_ASCII, StandardOpenOption.APPEND);
+	}
+}
@@ -0,0 +1,69 @@
+package com.ganesh.java_cloud_IDE_backend.service.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlobStoreTests {
+
+	private BlobStore store;
+
+	@AfterEach
+	void tearDown() {
+		if (store != null) store.shutdown();
+	}
+
+	@Test
+	void sweepCollectsOnlyUnreferencedBlobs() throws InterruptedException {
+		store = new BlobStore(Long.MAX_VALUE, Duration.ofMillis(500));
+		String stale = store.put("class Stale {}");
+		String used = store.put("class Used {}");
+		String listed = store.put("class Listed {}");
+
+		Thread.sleep(400);
+		// Each way of referencing a blob keeps it alive
+		assertEquals("class Used {}", store.get(used));
+		assertEquals(List.of(), store.missing(List.of(listed)));
+		Thread.sleep(200);
+		store.sweep();
+
+		assertEquals(List.of(stale), store.missing(List.of(stale, used, listed)));
+		assertEquals(2, store.size());
+		assertEquals("class Used {}".length() + "class Listed {}".length(), store.totalBytes());
+		assertEquals(1, store.evictions());
+	}
+
+	@Test
+	void overflowEvictsLeastRecentlyReferencedFirst() throws InterruptedException {
+		store = new BlobStore(100, Duration.ofHours(1));
+		String first = store.put("a".repeat(40));
+		Thread.sleep(2);
+		String second = store.put("b".repeat(40));
+		Thread.sleep(2);
+		store.get(first);
+		Thread.sleep(2);
+		String third = store.put("c".repeat(40));
+
+		assertNull(store.get(second));
+		assertNotNull(store.get(first));
+		assertNotNull(store.get(third));
+		assertEquals(80, store.totalBytes());
+	}
+
+	@Test
+	void sizesAreCountedInUtf8Bytes() {
+		store = new BlobStore(16, Duration.ofHours(1));
+		// Two, three and four bytes per character: nine bytes in four chars
+		String first = store.put("π€😀");
+		assertEquals(9, store.totalBytes());
+
+		store.put("€😀π");
+		assertNull(store.get(first));
+		assertEquals(9, store.totalBytes());
+		assertEquals(1, store.evictions());
+	}
+}
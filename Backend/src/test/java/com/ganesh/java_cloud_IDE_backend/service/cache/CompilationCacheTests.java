@@ -0,0 +1,65 @@
+package com.ganesh.java_cloud_IDE_backend.service.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompilationCacheTests {
+
+	private static final String FIRST = "aa" + "1".repeat(62);
+	private static final String SECOND = "bb" + "2".repeat(62);
+
+	@TempDir
+	Path root;
+
+	@Test
+	void evictingALeasedEntryDefersDeletionUntilRelease() throws IOException {
+		CompilationCache cache = new CompilationCache(1, Long.MAX_VALUE, new ArtifactStore(root));
+		CompilationCache.Lease running = store(cache, FIRST, "Main.class");
+
+		// Storing a second entry evicts the first while a run still holds it
+		store(cache, SECOND, "Main.class").close();
+		assertEquals(1, cache.evictions());
+		assertEquals(1, cache.size());
+		assertTrue(Files.isRegularFile(running.dir().resolve("Main.class")));
+
+		running.close();
+		assertFalse(Files.exists(running.dir()));
+	}
+
+	@Test
+	void corruptArtifactIsDroppedOnItsFirstHitAfterRestart() throws IOException {
+		CompilationCache before = new CompilationCache(10, Long.MAX_VALUE, new ArtifactStore(root));
+		Path dir;
+		try (CompilationCache.Lease lease = store(before, FIRST, "Main.class")) {
+			dir = lease.dir();
+		}
+		store(before, SECOND, "Main.class").close();
+		Files.writeString(dir.resolve("Main.class"), "tampered");
+
+		CompilationCache after = new CompilationCache(10, Long.MAX_VALUE, new ArtifactStore(root));
+		assertEquals(2, after.size());
+		assertNull(after.acquire(FIRST));
+		assertEquals(1, after.corruptions());
+		assertEquals(1, after.size());
+		assertFalse(Files.exists(dir));
+
+		try (CompilationCache.Lease intact = after.acquire(SECOND)) {
+			assertNotNull(intact);
+			assertEquals(SECOND, Files.readString(intact.dir().resolve("Main.class")));
+		}
+		// Forgotten in the index too, so the next restart does not bring it back
+		assertEquals(1, new ArtifactStore(root).load().size());
+	}
+
+	private static CompilationCache.Lease store(CompilationCache cache, String hash, String file) throws IOException {
+		Path work = cache.newArtifactDir(hash);
+		Files.writeString(work.resolve(file), hash);
+		return cache.put(hash, work);
+	}
+}
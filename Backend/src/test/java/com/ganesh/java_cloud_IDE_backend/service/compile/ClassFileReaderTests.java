@@ -0,0 +1,53 @@
+package com.ganesh.java_cloud_IDE_backend.service.compile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassFileReaderTests {
+
+	@TempDir
+	Path tmp;
+
+	@Test
+	void findsMainInNestedAndNonPublicClasses() throws Exception {
+		compile(Map.of(
+				"app/Outer.java", "package app; public class Outer { static class Inner {"
+						+ " public static void main(String[] a) {} } }",
+				"Hidden.java", "class Hidden { public static void main(String... a) {} }"));
+
+		ClassFileReader inner = read("app/Outer$Inner.class");
+		assertEquals("app.Outer$Inner", inner.className());
+		assertTrue(inner.hasMainMethod());
+		assertFalse(read("app/Outer.class").hasMainMethod());
+		assertTrue(read("Hidden.class").hasMainMethod());
+	}
+
+	@Test
+	void ignoresMethodsThatCannotBeLaunchedAsMain() throws Exception {
+		compile(Map.of(
+				"NotPublic.java", "public class NotPublic { static void main(String[] a) {} }",
+				"NotStatic.java", "public class NotStatic { public void main(String[] a) {} }",
+				"WrongReturn.java", "public class WrongReturn { public static int main(String[] a) { return 0; } }",
+				"WrongParameter.java", "public class WrongParameter { public static void main(String a) {} }",
+				"FieldOnly.java", "public class FieldOnly { public static String[] main; }"));
+
+		for (String name : new String[]{"NotPublic", "NotStatic", "WrongReturn", "WrongParameter", "FieldOnly"}) {
+			assertFalse(read(name + ".class").hasMainMethod(), name);
+		}
+	}
+
+	private void compile(Map<String, String> sources) throws IOException {
+		assertTrue(new IncrementalCompiler(new InMemoryJavaCompiler()).compile(sources, tmp).compilation().success());
+	}
+
+	private ClassFileReader read(String classFile) throws Exception {
+		return ClassFileReader.read(Files.readAllBytes(tmp.resolve(classFile)));
+	}
+}
@@ -0,0 +1,138 @@
+package com.ganesh.java_cloud_IDE_backend.service.compile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalCompilerTests {
+
+	@TempDir
+	Path tmp;
+
+	private final RecordingCompiler javac = new RecordingCompiler();
+	private final IncrementalCompiler compiler = new IncrementalCompiler(javac);
+
+	@Test
+	void recompilesOnlyTheEditedFileAndLinksTheRest() throws Exception {
+		build(project(), "b1");
+
+		// Nothing depends on Main, so it is compiled alone against the linked classes of the others
+		Map<String, String> edited = project();
+		edited.put("Main.java", MAIN.replace("\" \"", "\" - \""));
+		IncrementalCompiler.Result result = build(edited, "b2");
+
+		assertEquals(Set.of("Main.java"), javac.lastSources);
+		assertEquals(1, result.compiledFiles());
+		assertEquals(3, result.totalFiles());
+		assertEquals(inode(tmp.resolve("b1/Util.class")), inode(tmp.resolve("b2/Util.class")));
+		assertEquals(inode(tmp.resolve("b1/Other.class")), inode(tmp.resolve("b2/Other.class")));
+		assertEquals("4 - other\n", run("b2"));
+	}
+
+	@Test
+	void signatureChangeRecompilesDependents() throws Exception {
+		build(project(), "b1");
+
+		Map<String, String> edited = project();
+		edited.put("Util.java", "class Util { static long twice(long x) { return 2 * x + 1; } }");
+		IncrementalCompiler.Result result = build(edited, "b2");
+
+		// Main calls Util.twice, so its call site has to be relinked; Other is untouched
+		assertEquals(Set.of("Util.java", "Main.java"), javac.lastSources);
+		assertEquals(2, result.compiledFiles());
+		assertEquals(inode(tmp.resolve("b1/Other.class")), inode(tmp.resolve("b2/Other.class")));
+		assertEquals("5 other\n", run("b2"));
+	}
+
+	@Test
+	void failedPartialBuildFallsBackToFullBuild() throws Exception {
+		build(project(), "b1");
+
+		Map<String, String> edited = project();
+		edited.put("Other.java", "class Other { static String name() { return \"other-3\"; } }");
+		javac.failPartialBuilds = true;
+		IncrementalCompiler.Result result = build(edited, "b2");
+
+		assertTrue(result.compilation().success());
+		assertEquals(3, result.compiledFiles());
+		assertEquals(Set.of("Main.java", "Util.java", "Other.java"), javac.lastSources);
+		assertNotEquals(inode(tmp.resolve("b1/Main.class")), inode(tmp.resolve("b2/Main.class")));
+		assertEquals("4 other-3\n", run("b2"));
+	}
+
+	@Test
+	void failedBuildIsNotRemembered() throws Exception {
+		build(project(), "b1");
+
+		Map<String, String> broken = project();
+		broken.put("Util.java", "class Util { static int twice(int x) { return x * ; } }");
+		IncrementalCompiler.Result failed = build(broken, "b2");
+		assertFalse(failed.compilation().success());
+		assertNull(failed.state());
+
+		// The next build still starts from b1: only the file changed since then is compiled
+		Map<String, String> fixed = project();
+		fixed.put("Main.java", MAIN.replace("\" \"", "\" = \""));
+		assertEquals(1, build(fixed, "b3").compiledFiles());
+		assertEquals("4 = other\n", run("b3"));
+	}
+
+	private static final String MAIN =
+			"public class Main { public static void main(String[] a) { System.out.println(Util.twice(2) + \" \" + Other.name()); } }";
+
+	private static Map<String, String> project() {
+		Map<String, String> sources = new LinkedHashMap<>();
+		sources.put("Main.java", MAIN);
+		sources.put("Util.java", "class Util { static int twice(int x) { return 2 * x; } }");
+		sources.put("Other.java", "class Other { static String name() { return \"other\"; } }");
+		return sources;
+	}
+
+	private IncrementalCompiler.Result build(Map<String, String> sources, String dir) throws IOException {
+		Path out = tmp.resolve(dir);
+		IncrementalCompiler.Result result = compiler.compile(sources, out);
+		compiler.remember(result, out);
+		return result;
+	}
+
+	private String run(String dir) throws Exception {
+		Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+		Process process = new ProcessBuilder(java.toString(), "-cp", tmp.resolve(dir).toString(), "Main")
+				.redirectErrorStream(true).start();
+		String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+		assertEquals(0, process.waitFor(), output);
+		return output;
+	}
+
+	private static Object inode(Path file) throws IOException {
+		return Files.getAttribute(file, "unix:ino");
+	}
+
+	/** The in-process compiler, remembering what it was asked to compile. */
+	private static final class RecordingCompiler implements JavaSourceCompiler {
+		private final InMemoryJavaCompiler delegate = new InMemoryJavaCompiler();
+		Set<String> lastSources;
+		boolean failPartialBuilds;
+
+		@Override
+		public CompilationResult compile(Map<String, String> sources, List<Path> classpath) {
+			lastSources = new HashSet<>(sources.keySet());
+			if (failPartialBuilds && !classpath.isEmpty()) {
+				return CompilationResult.failure("stale classpath", 0);
+			}
+			return delegate.compile(sources, classpath);
+		}
+
+		@Override
+		public String mode() {
+			return delegate.mode();
+		}
+	}
+}
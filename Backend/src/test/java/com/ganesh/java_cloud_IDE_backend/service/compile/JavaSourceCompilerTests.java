@@ -0,0 +1,70 @@
+package com.ganesh.java_cloud_IDE_backend.service.compile;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JavaSourceCompilerTests {
+
+	private static final Map<String, String> HELLO = Map.of(
+			"app/Main.java", "package app; public class Main { public static void main(String[] a) { Greeter.hi(); } }",
+			"app/Greeter.java", "package app; class Greeter { static void hi() { System.out.println(\"hi\"); } }");
+
+	private static final Map<String, String> BROKEN = Map.of(
+			"Main.java", "public class Main {\n    int x = \"text\";\n}");
+
+	@Test
+	void inProcessCompilesAndRecordsOrigins() {
+		CompilationResult result = new InMemoryJavaCompiler().compile(HELLO, List.of());
+
+		assertTrue(result.success());
+		assertEquals(Map.of("app.Main", "app/Main.java", "app.Greeter", "app/Greeter.java"), result.classOrigins());
+		assertEquals(2, result.classFiles().size());
+	}
+
+	@Test
+	void inProcessReportsDiagnosticsLikeJavac() {
+		CompilationResult result = new InMemoryJavaCompiler().compile(BROKEN, List.of());
+
+		assertFalse(result.success());
+		assertTrue(result.diagnostics().startsWith("Main.java:2: error: incompatible types"));
+		assertTrue(result.diagnostics().endsWith("1 error\n"));
+	}
+
+	@Test
+	void inProcessTimeoutDoesNotUseUpTheFileManagers() {
+		InMemoryJavaCompiler compiler = new InMemoryJavaCompiler(Duration.ofMillis(1));
+		int pool = Runtime.getRuntime().availableProcessors();
+
+		// Each abandoned compile hands a fresh file manager back, so later compiles are not stuck waiting
+		for (int i = 0; i < pool * 3; i++) {
+			long start = System.nanoTime();
+			CompilationResult result = compiler.compile(HELLO, List.of());
+			assertFalse(result.success());
+			assertTrue(result.diagnostics().startsWith("Compilation timed out"));
+			assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+		}
+	}
+
+	@Test
+	void forkedCompilesWithPathsRelativeToTheProject() {
+		ForkedJavacCompiler compiler = new ForkedJavacCompiler();
+
+		assertTrue(compiler.compile(HELLO, List.of()).success());
+		CompilationResult broken = compiler.compile(BROKEN, List.of());
+		assertFalse(broken.success());
+		assertTrue(broken.diagnostics().startsWith("Main.java:2: error: incompatible types"));
+	}
+
+	@Test
+	void forkedTimeoutFiresWhileJavacRuns() {
+		CompilationResult result = new ForkedJavacCompiler(Duration.ofMillis(1)).compile(HELLO, List.of());
+
+		assertFalse(result.success());
+		assertEquals("Compilation timed out", result.diagnostics());
+	}
+}
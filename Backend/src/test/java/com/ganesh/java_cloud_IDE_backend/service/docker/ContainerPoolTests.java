@@ -0,0 +1,168 @@
+package com.ganesh.java_cloud_IDE_backend.service.docker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the pool against a shell script standing in for the docker CLI. A container "runs" while
+ * a file named after its id exists in the state directory.
+ */
+class ContainerPoolTests {
+
+	@TempDir
+	Path tmp;
+
+	private ContainerPool pool;
+
+	@AfterEach
+	void tearDown() {
+		if (pool != null) pool.shutdown();
+	}
+
+	@Test
+	void growsWhileCallersQueueAndShrinksWhenIdle() throws Exception {
+		pool = newPool(1, 3, Duration.ofMillis(300));
+		awaitTrue(() -> pool.idleCount() == 1);
+
+		String first = pool.acquire(5, TimeUnit.SECONDS);
+		String second = pool.acquire(5, TimeUnit.SECONDS);
+		String third = pool.acquire(5, TimeUnit.SECONDS);
+		assertNotNull(first);
+		assertNotNull(second);
+		assertNotNull(third);
+		assertEquals(3, pool.size());
+		assertEquals(3, pool.busyCount());
+
+		assertNull(pool.acquire(200, TimeUnit.MILLISECONDS));
+		assertEquals(1, pool.acquireTimeouts());
+
+		pool.release(first);
+		pool.release(second);
+		pool.release(third);
+		awaitTrue(() -> pool.size() == 1 && pool.idleCount() == 1);
+	}
+
+	@Test
+	void replacesContainersThatDied() throws Exception {
+		pool = newPool(2, 2, Duration.ofMinutes(1));
+		awaitTrue(() -> pool.idleCount() == 2);
+
+		String victim = pool.acquire(1, TimeUnit.SECONDS);
+		pool.release(victim);
+		Files.delete(tmp.resolve("state").resolve(victim));
+
+		awaitTrue(() -> pool.replacedCount() == 1 && pool.idleCount() == 2);
+		for (int i = 0; i < 2; i++) {
+			assertNotEquals(victim, pool.acquire(1, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	void replacesContainerWhoseResetFails() throws Exception {
+		pool = newPool(1, 1, Duration.ofMinutes(1));
+		awaitTrue(() -> pool.idleCount() == 1);
+
+		String container = pool.acquire(1, TimeUnit.SECONDS);
+		Files.delete(tmp.resolve("state").resolve(container));
+		pool.release(container);
+
+		String replacement = pool.acquire(5, TimeUnit.SECONDS);
+		assertNotNull(replacement);
+		assertNotEquals(container, replacement);
+		assertEquals(1, pool.replacedCount());
+	}
+
+	@Test
+	void eachContainerMountsAWorkspaceOfItsOwn() throws Exception {
+		pool = newPool(2, 2, Duration.ofMinutes(1));
+		awaitTrue(() -> pool.idleCount() == 2);
+		Path first = pool.workspaceHostDir(pool.acquire(1, TimeUnit.SECONDS));
+		Path second = pool.workspaceHostDir(pool.acquire(1, TimeUnit.SECONDS));
+
+		assertNotEquals(first, second);
+		String runs = Files.readString(tmp.resolve("state.log"));
+		assertTrue(runs.contains(" " + first.toAbsolutePath() + ":/workspace "));
+		assertTrue(runs.contains(" " + second.toAbsolutePath() + ":/workspace "));
+		assertFalse(runs.contains("/artifacts"));
+		// Programs run as the configured uid, not as whoever the image names
+		assertTrue(runs.contains("--user 65534:65534 -v " + first.toAbsolutePath() + ":/workspace "));
+
+		// A copied run lands in its container's workspace, which is emptied afterwards
+		Path artifact = Files.createDirectories(tmp.resolve("artifact/app"));
+		Files.writeString(artifact.resolve("Main.class"), "classes");
+		WorkspaceProvisioner provisioner = new WorkspaceProvisioner(pool, "copy");
+		try (WorkspaceProvisioner.Workspace workspace = provisioner.provision(artifact.getParent(), first)) {
+			assertEquals("/workspace", workspace.containerDir());
+			assertEquals("classes", Files.readString(first.resolve("app/Main.class")));
+			assertFalse(Files.exists(second.resolve("app")));
+		}
+		try (var left = Files.list(first)) {
+			assertEquals(0, left.count());
+		}
+	}
+
+	@Test
+	void onlyTheCdsBuilderCanWriteTheCdsArchive() throws Exception {
+		pool = newPool(1, 1, Duration.ofMinutes(1));
+		awaitTrue(() -> pool.idleCount() == 1);
+		String builder = pool.createCdsBuilder();
+		pool.remove(builder);
+
+		List<String> runs = Files.readAllLines(tmp.resolve("state.log"));
+		assertEquals(2, runs.size());
+		String cds = tmp.resolve("cds").resolve("container").toAbsolutePath() + ":/cds";
+		assertTrue(runs.get(0).contains(" " + cds + ":ro "));
+		assertTrue(runs.get(1).contains("--user 0 -v " + cds + " "));
+		assertFalse(runs.get(1).contains("/workspace"));
+		assertFalse(Files.exists(tmp.resolve("state").resolve(builder)));
+	}
+
+	private ContainerPool newPool(int min, int max, Duration idleTimeout) throws IOException {
+		ContainerPool pool = new ContainerPool(fakeDocker().toString(), "java-runner:25", min, max,
+				idleTimeout, Duration.ofMillis(50), tmp.resolve("workspace"), tmp.resolve("cds"), "65534:65534");
+		pool.start();
+		assertTrue(pool.isAvailable());
+		return pool;
+	}
+
+	private Path fakeDocker() throws IOException {
+		Path state = Files.createDirectories(tmp.resolve("state"));
+		Path script = tmp.resolve("docker");
+		Files.writeString(script, """
+				#!/bin/sh
+				state='%s'
+				case "$1" in
+				  --version) echo "Docker version 0.0.0-fake" ;;
+				  run) shift; echo "$*" >> "$state.log"; id="c$$$(date +%%N)"; touch "$state/$id"; echo "$id" ;;
+				  exec)
+				    shift
+				    while [ "$1" = "-i" ] || [ "$1" = "-w" ]; do [ "$1" = "-w" ] && shift; shift; done
+				    [ -f "$state/$1" ] ;;
+				  inspect) if [ -f "$state/$4" ]; then echo true; else echo false; fi ;;
+				  rm) rm -f "$state/$3" ;;
+				  stop) rm -f "$state/$2" ;;
+				esac
+				""".formatted(state));
+		script.toFile().setExecutable(true);
+		return script;
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline) fail("condition not reached");
+			Thread.sleep(20);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.ganesh.java_cloud_IDE_backend.service.docker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkspaceProvisionerTests {
+
+	@TempDir
+	Path tmp;
+
+	@Test
+	void copyModeFillsAndEmptiesTheContainerWorkspace() throws IOException {
+		provisionAndWriteThrough("copy", "65534:65534");
+	}
+
+	@Test
+	void reflinkModeNeverSharesFilesWithTheArtifact() throws IOException {
+		provisionAndWriteThrough("reflink", "65534:65534");
+	}
+
+	@Test
+	void linkModeCopiesWhenTheContainerUserOwnsTheArtifact() throws IOException {
+		Object owner = Files.getAttribute(Files.createDirectories(tmp.resolve("cache")), "unix:uid");
+		provisionAndWriteThrough("link", owner + ":" + owner);
+	}
+
+	@Test
+	void linkModeSharesFilesTheContainerUserCannotWrite() throws IOException {
+		Path artifact = artifact();
+		Files.setPosixFilePermissions(artifact.resolve("Main.java"), PosixFilePermissions.fromString("rw-rw-rw-"));
+		Path containerWorkspace = Files.createDirectories(tmp.resolve("workspace/c-1"));
+
+		try (WorkspaceProvisioner.Workspace workspace = new WorkspaceProvisioner(pool("65534:65534"), "link")
+				.provision(artifact, containerWorkspace)) {
+			assertEquals("/workspace", workspace.containerDir());
+			assertEquals("classes", Files.readString(containerWorkspace.resolve("app/Main.class")));
+			assertEquals(Files.getAttribute(artifact.resolve("app/Main.class"), "unix:ino"),
+					Files.getAttribute(containerWorkspace.resolve("app/Main.class"), "unix:ino"));
+			// Only the owner, which the container user is not, may write to a shared file
+			assertEquals("rw-r--r--", PosixFilePermissions.toString(
+					Files.getPosixFilePermissions(containerWorkspace.resolve("Main.java"))));
+		}
+
+		assertEquals("sources", Files.readString(artifact.resolve("Main.java")));
+		assertEquals("classes", Files.readString(artifact.resolve("app/Main.class")));
+		try (var left = Files.list(containerWorkspace)) {
+			assertEquals(0, left.count());
+		}
+	}
+
+	private void provisionAndWriteThrough(String mode, String containerUser) throws IOException {
+		Path artifact = artifact();
+		Path containerWorkspace = Files.createDirectories(tmp.resolve("workspace/c-1"));
+
+		try (WorkspaceProvisioner.Workspace workspace = new WorkspaceProvisioner(pool(containerUser), mode)
+				.provision(artifact, containerWorkspace)) {
+			assertEquals("/workspace", workspace.containerDir());
+			assertEquals("classes", Files.readString(containerWorkspace.resolve("app/Main.class")));
+			// What the program writes stays in its workspace
+			Files.writeString(containerWorkspace.resolve("Main.java"), "changed by the program");
+			assertNotEquals(Files.getAttribute(artifact.resolve("Main.java"), "unix:ino"),
+					Files.getAttribute(containerWorkspace.resolve("Main.java"), "unix:ino"));
+		}
+
+		assertEquals("sources", Files.readString(artifact.resolve("Main.java")));
+		assertTrue(Files.isDirectory(containerWorkspace));
+		try (var left = Files.list(containerWorkspace)) {
+			assertEquals(0, left.count());
+		}
+	}
+
+	private Path artifact() throws IOException {
+		Path artifact = Files.createDirectories(tmp.resolve("cache/objects/ab/abcdef"));
+		Files.createDirectories(artifact.resolve("app"));
+		Files.writeString(artifact.resolve("app/Main.class"), "classes");
+		Files.writeString(artifact.resolve("Main.java"), "sources");
+		return artifact;
+	}
+
+	private ContainerPool pool(String containerUser) {
+		return new ContainerPool("docker", "java-runner:25", 0, 0, Duration.ofMinutes(2),
+				Duration.ofSeconds(15), tmp.resolve("workspace"), tmp.resolve("cds"), containerUser);
+	}
+}
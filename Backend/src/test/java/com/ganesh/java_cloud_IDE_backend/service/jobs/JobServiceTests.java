@@ -0,0 +1,221 @@
+package com.ganesh.java_cloud_IDE_backend.service.jobs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.ganesh.java_cloud_IDE_backend.controller.JobController;
+import com.ganesh.java_cloud_IDE_backend.model.ExecutionRequest;
+import com.ganesh.java_cloud_IDE_backend.model.ExecutionResponse;
+import com.ganesh.java_cloud_IDE_backend.model.JobResponse;
+import com.ganesh.java_cloud_IDE_backend.model.SourceFile;
+import com.ganesh.java_cloud_IDE_backend.service.OptimizedJavaExecutionService;
+import com.ganesh.java_cloud_IDE_backend.service.cache.ArtifactStore;
+import com.ganesh.java_cloud_IDE_backend.service.cache.BlobStore;
+import com.ganesh.java_cloud_IDE_backend.service.cache.CompilationCache;
+import com.ganesh.java_cloud_IDE_backend.service.cache.FailedCompilationCache;
+import com.ganesh.java_cloud_IDE_backend.service.cds.CdsArchives;
+import com.ganesh.java_cloud_IDE_backend.service.compile.InMemoryJavaCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.compile.IncrementalCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.docker.ContainerPool;
+import com.ganesh.java_cloud_IDE_backend.service.docker.WorkspaceProvisioner;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ExecutionMetrics;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ResourceMonitor;
+import com.ganesh.java_cloud_IDE_backend.service.output.OutputCapture;
+import com.ganesh.java_cloud_IDE_backend.service.runner.WarmRunnerPool;
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionScheduler;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobServiceTests {
+
+	@TempDir
+	Path root;
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+	private final List<JobService> services = new ArrayList<>();
+	private HttpServer receiver;
+
+	@AfterEach
+	void tearDown() {
+		if (receiver != null) receiver.stop(0);
+		services.forEach(JobService::shutdown);
+		executor.shutdownNow();
+	}
+
+	@Test
+	void callbacksAreRefusedWhenNoHostIsListed() throws IOException {
+		JobService jobs = jobService(List.of());
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> jobs.submit(new ExecutionRequest(), "t", "https://hooks.example.com/done"));
+		assertEquals("Callbacks are disabled", e.getMessage());
+		assertEquals(0, jobs.activeCount());
+	}
+
+	@Test
+	void unlistedHostsAreRefused() throws IOException {
+		JobService jobs = jobService(List.of("hooks.example.com"));
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> jobs.submit(new ExecutionRequest(), "t", "https://other.example.com/done"));
+		assertEquals("Callback host not allowed: other.example.com", e.getMessage());
+	}
+
+	@Test
+	void listedHostsWithNonPublicAddressesAreRefused() throws IOException {
+		List<String> hosts = List.of("localhost", "127.0.0.1", "0.0.0.0", "169.254.169.254", "10.1.2.3",
+				"192.168.0.10", "[::1]", "[fd00::1]");
+		JobService jobs = jobService(hosts);
+		for (String host : hosts) {
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+					() -> jobs.submit(new ExecutionRequest(), "t", "http://" + host + ":8080/done"));
+			assertEquals("Callback host resolves to a non-public address: " + host, e.getMessage());
+		}
+		assertEquals(0, jobs.activeCount());
+	}
+
+	@Test
+	void submittedJobsArePolledUntilTheirResultIsIn() throws Exception {
+		JobService jobs = jobService(List.of(), false, Duration.ofMinutes(15));
+		String id = jobs.submit(program("System.out.println(\"hello\");"), "t", null).id();
+
+		JobResponse view = jobs.get(id).view();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (!"completed".equals(view.getStatus())) {
+			assertTrue(List.of("queued", "running").contains(view.getStatus()), view.getStatus());
+			if (System.nanoTime() > deadline) fail("job did not finish");
+			Thread.sleep(20);
+			view = jobs.get(id).view();
+		}
+		assertNull(view.getError());
+		assertNotNull(view.getFinishedAt());
+		ExecutionResponse result = (ExecutionResponse) view.getResult();
+		assertEquals(0, result.getExitCode());
+		assertEquals("hello\n", result.getStdout());
+		assertEquals(0, jobs.activeCount());
+	}
+
+	@Test
+	void longPollAnswersOnceTheJobFinishes() throws Exception {
+		JobService jobs = jobService(List.of(), false, Duration.ofMinutes(15));
+		JobController controller = new JobController(jobs, null);
+		String id = jobs.submit(program("Thread.sleep(500); System.out.println(\"late\");"), "t", null).id();
+
+		// Without wait the current state comes back at once; with it, nothing until the job is done
+		assertNotEquals("completed", body(controller.status(id, 0)).getStatus());
+		DeferredResult<ResponseEntity<JobResponse>> held = controller.status(id, 30);
+		assertFalse(held.hasResult());
+
+		jobs.get(id).done().get(30, TimeUnit.SECONDS);
+		assertTrue(held.hasResult());
+		JobResponse view = body(held);
+		assertEquals("completed", view.getStatus());
+		assertEquals("late\n", ((ExecutionResponse) view.getResult()).getStdout());
+		// A finished job answers a long poll right away
+		assertTrue(controller.status(id, 30).hasResult());
+	}
+
+	@Test
+	void finishedJobsAreDroppedAfterTheirTtl() throws Exception {
+		JobService jobs = jobService(List.of(), false, Duration.ofMillis(300));
+		String id = jobs.submit(program("System.out.println(1);"), "t", null).id();
+		jobs.get(id).done().get(30, TimeUnit.SECONDS);
+
+		jobs.sweep();
+		assertNotNull(jobs.get(id));
+		Thread.sleep(400);
+		jobs.sweep();
+		assertNull(jobs.get(id));
+	}
+
+	@Test
+	void finishedJobsArePostedToTheCallbackUrl() throws Exception {
+		CompletableFuture<String> delivered = new CompletableFuture<>();
+		receiver = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		receiver.createContext("/done", exchange -> {
+			String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(204, -1);
+			exchange.close();
+			delivered.complete(exchange.getRequestMethod() + " " + exchange.getRequestHeaders().getFirst("Content-Type")
+					+ " " + body);
+		});
+		receiver.start();
+		String url = "http://127.0.0.1:" + receiver.getAddress().getPort() + "/done";
+
+		// Loopback receivers need the opt-in
+		IllegalArgumentException refused = assertThrows(IllegalArgumentException.class,
+				() -> jobService(List.of("127.0.0.1"), false, Duration.ofMinutes(15)).submit(new ExecutionRequest(), "t", url));
+		assertEquals("Callback host resolves to a non-public address: 127.0.0.1", refused.getMessage());
+
+		JobService jobs = jobService(List.of("127.0.0.1"), true, Duration.ofMinutes(15));
+		String id = jobs.submit(program("System.out.println(\"called back\");"), "t", url).id();
+
+		String request = delivered.get(30, TimeUnit.SECONDS);
+		assertTrue(request.startsWith("POST application/json "), request);
+		JsonNode job = objectMapper.readTree(request.substring("POST application/json ".length()));
+		assertEquals(id, job.get("id").asText());
+		assertEquals("completed", job.get("status").asText());
+		assertEquals("called back\n", job.get("result").get("stdout").asText());
+	}
+
+	private static ExecutionRequest program(String body) {
+		SourceFile file = new SourceFile();
+		file.setPath("Main.java");
+		file.setContent("public class Main { public static void main(String[] a) throws Exception { " + body + " } }");
+		ExecutionRequest request = new ExecutionRequest();
+		request.setFiles(List.of(file));
+		return request;
+	}
+
+	private static JobResponse body(DeferredResult<ResponseEntity<JobResponse>> result) {
+		@SuppressWarnings("unchecked")
+		ResponseEntity<JobResponse> response = (ResponseEntity<JobResponse>) result.getResult();
+		return response.getBody();
+	}
+
+	private JobService jobService(List<String> callbackHosts) throws IOException {
+		return jobService(callbackHosts, false, Duration.ofMinutes(15));
+	}
+
+	/** Jobs run on the local JVM fork path: no Docker, no warm runners. */
+	private JobService jobService(List<String> callbackHosts, boolean allowPrivate, Duration ttl) throws IOException {
+		ContainerPool containerPool = new ContainerPool("docker", "java-runner:25", 0, 0, Duration.ofMinutes(2),
+				Duration.ofSeconds(15), root.resolve("workspace"), root.resolve("cds"), "65534:65534");
+		CdsArchives cdsArchives = new CdsArchives(false, false, 0, root.resolve("cds"), containerPool);
+		WarmRunnerPool runnerPool = new WarmRunnerPool(false, 0, 0, "", cdsArchives);
+		CompilationCache compilationCache = new CompilationCache(50, 1L << 30, new ArtifactStore(root.resolve("cache")));
+		FailedCompilationCache failedCompilations = new FailedCompilationCache(30, 1000);
+		ExecutionScheduler scheduler = new ExecutionScheduler(1, 1, 1, 1, 1, executor);
+		BlobStore blobStore = new BlobStore(1L << 26, Duration.ofHours(1));
+		ExecutionMetrics metrics = new ExecutionMetrics(new SimpleMeterRegistry(), containerPool, runnerPool,
+				compilationCache, failedCompilations, scheduler, blobStore);
+		OptimizedJavaExecutionService executionService = new OptimizedJavaExecutionService(
+				new IncrementalCompiler(new InMemoryJavaCompiler()), compilationCache, failedCompilations, containerPool,
+				runnerPool, cdsArchives, new WorkspaceProvisioner(containerPool, "copy"),
+				new OutputCapture(65536, 16384, 4194304), metrics, blobStore,
+				new ResourceMonitor(false, Duration.ofMillis(50), Path.of("/sys/fs/cgroup")));
+		JobService jobs = new JobService(executionService, null, scheduler, executor, objectMapper, metrics,
+				10, ttl, callbackHosts, allowPrivate, Duration.ofSeconds(10));
+		services.add(jobs);
+		return jobs;
+	}
+}
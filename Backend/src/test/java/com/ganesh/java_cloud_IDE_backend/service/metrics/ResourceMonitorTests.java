@@ -0,0 +1,138 @@
+package com.ganesh.java_cloud_IDE_backend.service.metrics;
+
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ResourceMonitor.ProcProbe;
+import com.ganesh.java_cloud_IDE_backend.service.metrics.ResourceMonitor.Usage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceMonitorTests {
+
+	private static final long MIB = 1 << 20;
+
+	@TempDir
+	Path root;
+
+	private ResourceMonitor monitor;
+
+	@BeforeEach
+	void setUp() {
+		// Samples are taken by the tests alone
+		monitor = new ResourceMonitor(true, Duration.ofHours(1), root.resolve("cgroup"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		monitor.shutdown();
+	}
+
+	@Test
+	void forkedProcessIsReportedWholeWithTheKernelsHighWaterMark() throws Exception {
+		Path proc = Files.createDirectories(root.resolve("proc/42"));
+		writeProc(proc, "java (main) x", 150, 20, 100 * MIB, 300 * MIB);
+		Files.writeString(proc.resolve("io"), "rchar: 1\nwchar: 2\nsyscr: 3\nread_bytes: 4096\nwrite_bytes: 8192\n");
+
+		Usage usage = monitor.start("fork", new ProcProbe(proc, true), true).stop();
+
+		assertEquals("fork", usage.mode());
+		assertEquals(1500L, usage.userCpuMillis());
+		assertEquals(200L, usage.systemCpuMillis());
+		assertEquals(300 * MIB, usage.peakRssBytes());
+		assertEquals(4096L, usage.readBytes());
+		assertEquals(8192L, usage.writtenBytes());
+	}
+
+	@Test
+	void runnerIsReportedOverTheRunWithTheLargestResidentSizeSeen() throws Exception {
+		Path proc = Files.createDirectories(root.resolve("proc/43"));
+		// The runner JVM's lifetime high-water mark is not the run's
+		writeProc(proc, "java", 1000, 300, 80 * MIB, 900 * MIB);
+		ResourceMonitor.Run run = monitor.start("runner", new ProcProbe(proc, false), false);
+
+		writeProc(proc, "java", 1040, 305, 120 * MIB, 900 * MIB);
+		run.sample();
+		writeProc(proc, "java", 1050, 310, 90 * MIB, 900 * MIB);
+		Usage usage = run.stop();
+
+		assertEquals(500L, usage.userCpuMillis());
+		assertEquals(100L, usage.systemCpuMillis());
+		assertEquals(120 * MIB, usage.peakRssBytes());
+		// No io file: it needs ptrace access
+		assertNull(usage.readBytes());
+		assertNull(usage.writtenBytes());
+	}
+
+	@Test
+	void containerWithoutMemoryPeakSamplesAnonymousMemory() throws Exception {
+		Path cgroup = Files.createDirectories(root.resolve("cgroup/system.slice/docker-abc.scope"));
+		writeCgroup(cgroup, 2_000_000, 500_000, 10 * MIB, 4096, 0);
+		ResourceMonitor.Run run = monitor.container("abc");
+
+		writeCgroup(cgroup, 2_700_000, 550_000, 64 * MIB, 4096 + 8192, 1 << 20);
+		run.sample();
+		writeCgroup(cgroup, 2_900_000, 600_000, 20 * MIB, 4096 + 8192, 1 << 20);
+		Usage usage = run.stop();
+
+		assertEquals("docker", usage.mode());
+		assertEquals(900L, usage.userCpuMillis());
+		assertEquals(100L, usage.systemCpuMillis());
+		assertEquals(64 * MIB, usage.peakRssBytes());
+		assertEquals(2 * 8192L, usage.readBytes());
+		assertEquals(2L << 20, usage.writtenBytes());
+	}
+
+	@Test
+	void containerMemoryPeakIsResetForTheRun() throws Exception {
+		Path cgroup = Files.createDirectories(root.resolve("cgroup/docker/def"));
+		writeCgroup(cgroup, 0, 0, 10 * MIB, 0, 0);
+		// Left by an earlier run in the same container
+		Path peak = cgroup.resolve("memory.peak");
+		Files.writeString(peak, Long.toString(900 * MIB) + "\n");
+		ResourceMonitor.Run run = monitor.container("def");
+		assertTrue(Files.readString(peak).startsWith("0\n"), "memory.peak was not reset");
+
+		// What the kernel reports through the reset handle: the peak since the reset, page cache included
+		Files.writeString(peak, Long.toString(48 * MIB) + "\n");
+		writeCgroup(cgroup, 1000, 0, 12 * MIB, 0, 0);
+		Usage usage = run.stop();
+
+		assertEquals(48 * MIB, usage.peakRssBytes());
+		assertEquals(1L, usage.userCpuMillis());
+	}
+
+	@Test
+	void unknownContainerReportsWallTimeOnly() {
+		Usage usage = monitor.container("missing").stop();
+		assertEquals("docker", usage.mode());
+		assertNull(usage.userCpuMillis());
+		assertNull(usage.peakRssBytes());
+		assertNull(usage.readBytes());
+	}
+
+	private static void writeProc(Path dir, String command, long userTicks, long systemTicks, long rss, long hwm)
+			throws IOException {
+		// pid (comm) state, then ppid .. cmajflt, utime, stime and the rest
+		Files.writeString(dir.resolve("stat"), "42 (" + command + ") S 1 42 42 0 -1 4194304 900 0 0 0 "
+				+ userTicks + " " + systemTicks + " 0 0 20 0 25 0 12345 1000000 200 18446744073709551615\n");
+		Files.writeString(dir.resolve("status"), "Name:\tjava\nVmPeak:\t 4000000 kB\nVmHWM:\t " + hwm / 1024
+				+ " kB\nVmRSS:\t " + rss / 1024 + " kB\nThreads:\t20\n");
+	}
+
+	private static void writeCgroup(Path dir, long userMicros, long systemMicros, long anon, long readPerDevice,
+			long writtenPerDevice) throws IOException {
+		Files.writeString(dir.resolve("cpu.stat"), "usage_usec " + (userMicros + systemMicros) + "\nuser_usec "
+				+ userMicros + "\nsystem_usec " + systemMicros + "\nnr_periods 0\n");
+		Files.writeString(dir.resolve("memory.stat"), "anon " + anon + "\nfile 4096\nkernel 8192\n");
+		Files.writeString(dir.resolve("io.stat"),
+				"8:0 rbytes=" + readPerDevice + " wbytes=" + writtenPerDevice + " rios=1 wios=1 dbytes=0 dios=0\n"
+						+ "8:16 rbytes=" + readPerDevice + " wbytes=" + writtenPerDevice + " rios=1 wios=1 dbytes=0 dios=0\n");
+	}
+}
@@ -0,0 +1,67 @@
+package com.ganesh.java_cloud_IDE_backend.service.output;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutputCaptureTests {
+
+	private Process process;
+
+	@AfterEach
+	void tearDown() {
+		if (process != null) process.destroyForcibly();
+	}
+
+	@Test
+	void keepsShortOutputWhole() throws IOException {
+		process = new ProcessBuilder("sleep", "30").start();
+		OutputCapture capture = new OutputCapture(8, 4, 1000);
+
+		OutputCapture.Result result = capture.capture(stream("hello\nworld\n"), process);
+
+		assertEquals("hello\nworld\n", result.text());
+		assertEquals(12, result.totalBytes());
+		assertFalse(result.truncated());
+		assertFalse(result.limitReached());
+		assertTrue(process.isAlive());
+	}
+
+	@Test
+	void keepsHeadAndTailOfLongOutput() throws IOException {
+		process = new ProcessBuilder("sleep", "30").start();
+		OutputCapture capture = new OutputCapture(4, 4, 1000);
+
+		// "é" is two bytes; the head limit falls inside the second one
+		OutputCapture.Result result = capture.capture(stream("abcé-middle-é" + "wxyz"), process);
+
+		assertEquals("abc" + OutputCapture.marker(12) + "wxyz", result.text());
+		assertEquals(19, result.totalBytes());
+		assertTrue(result.truncated());
+		assertFalse(result.limitReached());
+	}
+
+	@Test
+	void killsTheProcessPastTheLimit() throws Exception {
+		process = new ProcessBuilder("yes").start();
+		OutputCapture capture = new OutputCapture(16, 16, 100_000);
+
+		OutputCapture.Result result = capture.capture(process.getInputStream(), process);
+
+		assertTrue(result.limitReached());
+		assertTrue(result.truncated());
+		assertTrue(result.totalBytes() > 100_000);
+		assertTrue(result.text().startsWith("y\ny\ny\n"));
+		assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+	}
+
+	private static ByteArrayInputStream stream(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,115 @@
+package com.ganesh.java_cloud_IDE_backend.service.output;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutputVerifierTests {
+
+	private Process process;
+
+	@AfterEach
+	void tearDown() {
+		if (process != null) process.destroyForcibly();
+	}
+
+	@Test
+	void linesIgnoresLineEndingsAndTrailingWhitespace() throws IOException {
+		OutputVerifier.Verdict verdict = verify("1 2\n3\n", "1 2  \r\n3\r\n\r\n\n", OutputVerifier.Comparison.LINES);
+
+		assertTrue(verdict.accepted());
+		assertNull(verdict.mismatchOffset());
+	}
+
+	@Test
+	void linesKeepsWhitespaceInsideALine() throws IOException {
+		OutputVerifier.Verdict verdict = verify("1 2\n", "1  2\n", OutputVerifier.Comparison.LINES);
+
+		assertFalse(verdict.accepted());
+		assertEquals(2, (long) verdict.mismatchOffset());
+	}
+
+	@Test
+	void tokensIgnoresHowWhitespaceIsLaidOut() throws IOException {
+		OutputVerifier.Verdict verdict = verify("1 2 3", "  1\n2\t\t3\n", OutputVerifier.Comparison.TOKENS);
+
+		assertTrue(verdict.accepted());
+	}
+
+	@Test
+	void exactComparesEveryByte() throws IOException {
+		assertTrue(verify("a\n", "a\n", OutputVerifier.Comparison.EXACT).accepted());
+		assertEquals(1, (long) verify("a\n", "a\r\n", OutputVerifier.Comparison.EXACT).mismatchOffset());
+	}
+
+	@Test
+	void reportsOutputThatEndsTooEarly() throws IOException {
+		OutputVerifier.Verdict verdict = verify("1\n2\n", "1\n", OutputVerifier.Comparison.LINES);
+
+		assertFalse(verdict.accepted());
+		assertEquals(2, (long) verdict.mismatchOffset());
+	}
+
+	@Test
+	void verdictDoesNotDependOnReadSizes() throws IOException {
+		String expected = "answer 42\n";
+		String output = "answer  42 \r\n";
+		for (int chunk = 1; chunk <= output.length(); chunk++) {
+			OutputVerifier verifier = new OutputVerifier(expected, OutputVerifier.Comparison.LINES);
+			drain(verifier.verify(new ChunkedStream(output, chunk), idleProcess()), chunk);
+			assertEquals(7, (long) verifier.finish().mismatchOffset(), "chunk size " + chunk);
+		}
+	}
+
+	@Test
+	void killsAProgramThatKeepsPrintingAWrongAnswer() throws Exception {
+		process = new ProcessBuilder("yes").start();
+		OutputVerifier verifier = new OutputVerifier("y\ny\nn\n", OutputVerifier.Comparison.LINES);
+
+		InputStream in = verifier.verify(process.getInputStream(), process);
+		byte[] passed = in.readAllBytes();
+
+		assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+		assertEquals("y\ny\ny", new String(passed, StandardCharsets.US_ASCII));
+		assertEquals(4, (long) verifier.finish().mismatchOffset());
+	}
+
+	private OutputVerifier.Verdict verify(String expected, String output, OutputVerifier.Comparison comparison) throws IOException {
+		OutputVerifier verifier = new OutputVerifier(expected, comparison);
+		verifier.verify(new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8)), idleProcess()).readAllBytes();
+		return verifier.finish();
+	}
+
+	private Process idleProcess() throws IOException {
+		if (process == null) process = new ProcessBuilder("sleep", "30").start();
+		return process;
+	}
+
+	private static void drain(InputStream in, int chunk) throws IOException {
+		byte[] buffer = new byte[chunk];
+		while (in.read(buffer, 0, chunk) != -1) {
+		}
+	}
+
+	/** Hands out at most {@code chunk} bytes per read, like a pipe fed by small writes. */
+	private static final class ChunkedStream extends ByteArrayInputStream {
+		private final int chunk;
+
+		ChunkedStream(String text, int chunk) {
+			super(text.getBytes(StandardCharsets.UTF_8));
+			this.chunk = chunk;
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) {
+			return super.read(b, off, Math.min(len, chunk));
+		}
+	}
+}
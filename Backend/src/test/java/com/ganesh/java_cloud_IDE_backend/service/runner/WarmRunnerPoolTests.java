@@ -0,0 +1,159 @@
+package com.ganesh.java_cloud_IDE_backend.service.runner;
+
+import com.ganesh.java_cloud_IDE_backend.service.cds.CdsArchives;
+import com.ganesh.java_cloud_IDE_backend.service.compile.InMemoryJavaCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.compile.IncrementalCompiler;
+import com.ganesh.java_cloud_IDE_backend.service.docker.ContainerPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarmRunnerPoolTests {
+
+	@TempDir
+	Path root;
+
+	private WarmRunnerPool pool;
+	private Path classes;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		classes = root.resolve("classes");
+		assertTrue(new IncrementalCompiler(new InMemoryJavaCompiler()).compile(Map.of(
+				"EchoLine.java", "public class EchoLine { public static void main(String[] a) {"
+						+ " System.out.println(new java.util.Scanner(System.in).nextLine()); } }",
+				"LeaveFile.java", "public class LeaveFile { public static void main(String[] a) throws Exception {"
+						+ " java.nio.file.Files.writeString(java.nio.file.Path.of(\"left.txt\"), \"x\"); } }",
+				"FindFile.java", "public class FindFile { public static void main(String[] a) {"
+						+ " System.out.println(java.nio.file.Files.exists(java.nio.file.Path.of(\"left.txt\"))); } }",
+				// A daemon thread outside the program's own thread group, which outlives the run
+				"LeakThread.java", "public class LeakThread { public static void main(String[] a) {"
+						+ " Thread t = new Thread(Thread.currentThread().getThreadGroup().getParent(), () -> {"
+						+ " while (true) { try { Thread.sleep(200); } catch (InterruptedException e) { return; }"
+						+ " System.out.println(\"LEAKED-FROM-PREVIOUS-RUN\"); } });"
+						+ " t.setDaemon(true); t.start(); } }",
+				"ReadData.java", "public class ReadData { public static void main(String[] a) throws Exception {"
+						+ " System.out.println(java.nio.file.Files.readString(java.nio.file.Path.of(\"data.txt\"))); } }",
+				"Pause.java", "public class Pause { public static void main(String[] a) throws Exception {"
+						+ " Thread.sleep(1000); System.out.println(\"done\"); } }"),
+				classes).compilation().success());
+
+		ContainerPool containerPool = new ContainerPool("docker", "java-runner:25", 0, 0, Duration.ofMinutes(2),
+				Duration.ofSeconds(15), root.resolve("workspace"), root.resolve("cds"), "65534:65534");
+		CdsArchives cdsArchives = new CdsArchives(false, false, 0, root.resolve("cds"), containerPool);
+		pool = new WarmRunnerPool(true, 1, 100, "-Xmx64m -XX:+UseSerialGC", cdsArchives);
+		pool.start();
+		awaitIdleRunner();
+	}
+
+	@AfterEach
+	void tearDown() {
+		pool.shutdown();
+	}
+
+	@Test
+	void unreadInputRetiresTheRunnerInsteadOfStallingIt() throws Exception {
+		// One line is read; the rest is far more than the pipe to the program can hold
+		byte[] input = new byte[1 << 20];
+		Arrays.fill(input, (byte) 'x');
+		byte[] first = "first\n".getBytes(StandardCharsets.UTF_8);
+		System.arraycopy(first, 0, input, 0, first.length);
+
+		Process process = pool.start(classes, "EchoLine");
+		assertNotNull(process);
+		try (OutputStream stdin = process.getOutputStream()) {
+			stdin.write(input);
+		} catch (IOException e) {
+			// The run may already be over
+		}
+		assertEquals("first\n", output(process));
+		assertEquals(0, process.exitValue());
+
+		awaitIdleRunner();
+		assertEquals(1, pool.recycledCount());
+		Process next = pool.start(classes, "EchoLine");
+		assertNotNull(next);
+		try (OutputStream stdin = next.getOutputStream()) {
+			stdin.write("second\n".getBytes(StandardCharsets.UTF_8));
+		}
+		assertEquals("second\n", output(next));
+	}
+
+	@Test
+	void runsDoNotSeeFilesLeftByEarlierRuns() throws Exception {
+		Process leave = pool.start(classes, "LeaveFile");
+		assertNotNull(leave);
+		leave.getOutputStream().close();
+		assertEquals("", output(leave));
+
+		awaitIdleRunner();
+		assertEquals(0, pool.recycledCount());
+		Process find = pool.start(classes, "FindFile");
+		assertNotNull(find);
+		find.getOutputStream().close();
+		assertEquals("false\n", output(find));
+	}
+
+	@Test
+	void threadLeftInAnotherGroupRetiresTheRunner() throws Exception {
+		Process leak = pool.start(classes, "LeakThread");
+		assertNotNull(leak);
+		leak.getOutputStream().close();
+		output(leak);
+
+		awaitIdleRunner();
+		assertEquals(1, pool.recycledCount());
+		// Long enough for a leaked thread to print into this run, had the runner been reused
+		Process next = pool.start(classes, "Pause");
+		assertNotNull(next);
+		next.getOutputStream().close();
+		assertEquals("done\n", output(next));
+	}
+
+	@Test
+	void projectFilesAreFoundRelativeToTheRequestedWorkingDirectory() throws Exception {
+		Path project = Files.createDirectories(root.resolve("project"));
+		Files.writeString(project.resolve("data.txt"), "from the project");
+
+		Process read = pool.start(classes, "ReadData", true, project);
+		assertNotNull(read);
+		read.getOutputStream().close();
+		assertEquals("from the project\n", output(read));
+
+		// The runner is reused, and its next run no longer sees the project
+		awaitIdleRunner();
+		assertEquals(0, pool.recycledCount());
+		Process next = pool.start(classes, "ReadData");
+		assertNotNull(next);
+		next.getOutputStream().close();
+		assertTrue(output(next).contains("NoSuchFileException"));
+		assertEquals("from the project", Files.readString(project.resolve("data.txt")));
+	}
+
+	private static String output(Process process) throws Exception {
+		String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+		assertTrue(process.waitFor(10, TimeUnit.SECONDS), "run did not finish");
+		return output;
+	}
+
+	private void awaitIdleRunner() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (pool.idleCount() == 0) {
+			if (System.nanoTime() > deadline) fail("no warm runner started");
+			Thread.sleep(20);
+		}
+	}
+}
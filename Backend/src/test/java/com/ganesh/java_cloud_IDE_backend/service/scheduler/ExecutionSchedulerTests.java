@@ -0,0 +1,115 @@
+package com.ganesh.java_cloud_IDE_backend.service.scheduler;
+
+import com.ganesh.java_cloud_IDE_backend.service.scheduler.ExecutionScheduler.Priority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionSchedulerTests {
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+	private final List<CompletableFuture<String>> futures = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	void tenantsTakeTurnsByCost() throws Exception {
+		ExecutionScheduler scheduler = blocked(20, 20, 4);
+		submit(scheduler, "a", Priority.INTERACTIVE, 2, "a1");
+		submit(scheduler, "a", Priority.INTERACTIVE, 2, "a2");
+		for (int i = 1; i <= 4; i++) submit(scheduler, "b", Priority.INTERACTIVE, 1, "b" + i);
+
+		// a queued first but its jobs cost two turns' credit each, so b runs two jobs per job of a
+		runAll();
+		assertEquals(List.of("b1", "a1", "b2", "b3", "a2", "b4"), order);
+	}
+
+	@Test
+	void fullQueuesRejectSubmissions() throws Exception {
+		ExecutionScheduler scheduler = blocked(3, 2, 4);
+		submit(scheduler, "a", Priority.INTERACTIVE, 1, "a1");
+		submit(scheduler, "a", Priority.INTERACTIVE, 1, "a2");
+		ExecutionRejectedException tenantFull = assertThrows(ExecutionRejectedException.class,
+				() -> submit(scheduler, "a", Priority.INTERACTIVE, 1, "a3"));
+		assertEquals("Too many queued executions for this client", tenantFull.getMessage());
+
+		submit(scheduler, "b", Priority.BATCH, 1, "b1");
+		ExecutionRejectedException queueFull = assertThrows(ExecutionRejectedException.class,
+				() -> submit(scheduler, "c", Priority.INTERACTIVE, 1, "c1"));
+		assertEquals("Server busy: 3 executions queued", queueFull.getMessage());
+
+		assertEquals(2, scheduler.rejectedCount());
+		assertEquals(2, scheduler.queuedCount(Priority.INTERACTIVE));
+		assertEquals(1, scheduler.queuedCount(Priority.BATCH));
+
+		runAll();
+		assertEquals(List.of("a1", "a2", "b1"), order);
+	}
+
+	@Test
+	void batchWorkGetsEveryFourthDispatch() throws Exception {
+		ExecutionScheduler scheduler = blocked(20, 20, 4);
+		for (int i = 1; i <= 8; i++) submit(scheduler, "a", Priority.INTERACTIVE, 1, "i" + i);
+		submit(scheduler, "b", Priority.BATCH, 1, "b1");
+		submit(scheduler, "b", Priority.BATCH, 1, "b2");
+
+		// The blocker was the first dispatch
+		runAll();
+		assertEquals(List.of("i1", "i2", "b1", "i3", "i4", "i5", "b2", "i6", "i7", "i8"), order);
+	}
+
+	@Test
+	void cancellingAQueuedJobFreesItsPlace() throws Exception {
+		ExecutionScheduler scheduler = blocked(20, 2, 4);
+		CompletableFuture<String> cancelled = submit(scheduler, "a", Priority.INTERACTIVE, 1, "a1");
+		submit(scheduler, "a", Priority.INTERACTIVE, 1, "a2");
+
+		assertTrue(cancelled.cancel(true));
+		assertEquals(1, scheduler.queuedCount(Priority.INTERACTIVE));
+		futures.remove(cancelled);
+		// The tenant is below its limit again
+		submit(scheduler, "a", Priority.INTERACTIVE, 1, "a3");
+
+		runAll();
+		assertEquals(List.of("a2", "a3"), order);
+		assertEquals(0, scheduler.rejectedCount());
+	}
+
+	/** A scheduler running one job at a time, whose only slot is held until {@link #runAll()}. */
+	private ExecutionScheduler blocked(int maxQueued, int maxQueuedPerTenant, int batchShare) {
+		ExecutionScheduler scheduler = new ExecutionScheduler(1, maxQueued, maxQueuedPerTenant, 1, batchShare, executor);
+		scheduler.submit("blocker", Priority.INTERACTIVE, 1, waited -> release.await(10, TimeUnit.SECONDS));
+		return scheduler;
+	}
+
+	private CompletableFuture<String> submit(ExecutionScheduler scheduler, String tenant, Priority priority,
+			int cost, String label) {
+		CompletableFuture<String> future = scheduler.submit(tenant, priority, cost, waited -> {
+			order.add(label);
+			return label;
+		});
+		futures.add(future);
+		return future;
+	}
+
+	private void runAll() throws Exception {
+		release.countDown();
+		CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+	}
+}